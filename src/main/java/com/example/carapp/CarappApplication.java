@@ -2,8 +2,10 @@ package com.example.carapp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // -> Háttérfeladatok (pl. hír-cache frissítés)
 public class    CarappApplication {
 
 	public static void main(String[] args) {
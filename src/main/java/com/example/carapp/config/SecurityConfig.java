@@ -1,6 +1,10 @@
 package com.example.carapp.config;
 
 import com.example.carapp.security.JwtAuthFilter;
+import jakarta.servlet.DispatcherType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -22,6 +26,10 @@ import java.util.List;
 @EnableWebSecurity  // -> Engedélyezi a Spring Security-t a webes környezetben
 public class SecurityConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+    private static final int MIN_BCRYPT_STRENGTH = 10; // -> a BCryptPasswordEncoder alapértéke
+    private static final int MAX_BCRYPT_STRENGTH = 14;
+
     // -> JWT tokenek ellenőrzésére szolgáló egyedi szűrő
     private final JwtAuthFilter jwtAuthFilter;
 
@@ -44,13 +52,14 @@ public class SecurityConfig {
                 // Jogosultsági szabályok
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll() // -> aszinkron válasz (BCrypt) visszaírása: az eredeti kérés már át lett engedve
 
                         // --- Auth endpointok (login, register) ---
                         .requestMatchers("/api/auth/**").permitAll() // -> Auth útvonalak nyitottak
                         .requestMatchers(HttpMethod.POST, "/api/users").permitAll() // -> regisztráció is
 
                         // --- Szervizközpontok (centers) ---
-                        .requestMatchers(HttpMethod.GET, "/api/centers", "/api/centers/top").permitAll() // -> Listázás bárkinek
+                        .requestMatchers(HttpMethod.GET, "/api/centers", "/api/centers/top", "/api/centers/search", "/api/centers/*/availability").permitAll() // -> Listázás bárkinek
                         .requestMatchers(HttpMethod.POST, "/api/centers/*/vote").authenticated() // -> Szavazáshoz bekell lépni
                         .requestMatchers("/api/centers/**").hasAuthority("ADMIN") // -> törléshez és módosításhoz ADMIN role
 
@@ -87,6 +96,7 @@ public class SecurityConfig {
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS")); // Engedélyezett HTTP metódusok
         config.setAllowedHeaders(List.of("*")); // Headerek engedélyezettek(auth)
         config.setAllowCredentials(true); // Sütik küldése enabled
+        config.setExposedHeaders(List.of("X-Next-Cursor", "ETag")); // Lapozási kurzor és ETag olvasható a frontendről
 
         // -> A konfig alkalmazása minden útvonalra
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -95,9 +105,30 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
+    public PasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:0}") int strength,
+                                           @Value("${security.bcrypt.target-ms:250}") long targetMs) {
 
         // BCrypt algoritmus használata a jelszavak titkosításához
-        return new BCryptPasswordEncoder();
+        // strength > 0: fix költség; 0: induláskor mérünk, és a célidőhöz (ms / hash) igazítjuk
+        int cost = strength > 0 ? strength : calibrateBcrypt(targetMs);
+        log.info("BCrypt strength: {}", cost);
+        return new BCryptPasswordEncoder(cost);
+    }
+
+    // A legnagyobb költség (10..14), aminek becsült ideje még a célidőn belül van.
+    // Költségenként +1 duplázza a munkát, így elég egy mérés a 10-es szinten.
+    private static int calibrateBcrypt(long targetMs) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(MIN_BCRYPT_STRENGTH);
+        probe.encode("warmup"); // -> JIT bemelegítés
+        long start = System.nanoTime();
+        probe.encode("calibration");
+        double ms = Math.max(1, (System.nanoTime() - start) / 1_000_000.0);
+
+        int cost = MIN_BCRYPT_STRENGTH; // -> ez alá biztonsági okból nem megyünk
+        while (cost < MAX_BCRYPT_STRENGTH && ms * 2 <= targetMs) {
+            ms *= 2;
+            cost++;
+        }
+        return cost;
     }
 }
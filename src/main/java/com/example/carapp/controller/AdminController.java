@@ -1,10 +1,18 @@
 package com.example.carapp.controller;
 
+import com.example.carapp.dto.AdminUserResponse;
+import com.example.carapp.dto.NewsHostHealth;
+import com.example.carapp.dto.UserMapper;
 import com.example.carapp.model.Role;
 import com.example.carapp.model.User;
 import com.example.carapp.repository.UserRepository;
+import com.example.carapp.security.PrincipalCache;
+import com.example.carapp.service.JsonArrayStreamer;
+import com.example.carapp.service.NewsHostMonitor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -14,39 +22,58 @@ public class AdminController {
 
     // UserRepository inject az adatbázis műveletekhez
     private final UserRepository userRepository;
+    private final NewsHostMonitor newsHostMonitor; // -> Hírforrások circuit breaker állapota
+    private final PrincipalCache principals; // -> Bejelentkezett userek cache-e (módosításkor ürítjük)
+    private final JsonArrayStreamer streamer; // -> Nagy listák streamelt kiírása
 
-    public AdminController(UserRepository userRepository) {
+    public AdminController(UserRepository userRepository, NewsHostMonitor newsHostMonitor, PrincipalCache principals,
+                           JsonArrayStreamer streamer) {
         this.userRepository = userRepository;
+        this.newsHostMonitor = newsHostMonitor;
+        this.principals = principals;
+        this.streamer = streamer;
     }
 
     // Összes felhasználó lekérése CSAK ADMIN jogosultsággal
+    // A lista soronként, adatbázis-kurzorból íródik ki (állandó memória, akárhány user van)
     @GetMapping("/users")
-    public List<User> getAllUsers() { // -> Itt adja vissza az összes USER-t
-        return userRepository.findAll();
+    public ResponseEntity<StreamingResponseBody> getAllUsers() { // -> Itt adja vissza az összes USER-t
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(streamer.jsonArray(userRepository::streamAdminResponses, user -> user)); // -> DTO: jelszó nélkül
     }
 
     // Egy user törlése ID alapján CSAK ADMIN jogosultsággal
     @DeleteMapping("/users/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) { // -> ID checkolás, hogy létezik-e
-        if (userRepository.existsById(id)) { // Ha igen -> Delete, majd 204 válasz
-            userRepository.deleteById(id);
-            return ResponseEntity.noContent().build();
-        }
-        return ResponseEntity.notFound().build(); // 404-es hiba, ha nincs ilyen ID
+        return userRepository.findById(id) // Ha igen -> Delete, majd 204 válasz
+                .map(user -> {
+                    userRepository.deleteById(id);
+                    principals.evict(user.getEmail()); // -> a törölt user tokenje se legyen tovább elfogadva
+                    return ResponseEntity.noContent().<Void>build();
+                })
+                .orElseGet(() -> ResponseEntity.notFound().build()); // 404-es hiba, ha nincs ilyen ID
     }
 
     // User szerepkör módosítása CSAK ADMIN jogosultsággal
     @PutMapping("/users/{id}/role")
-    public ResponseEntity<User> updateUserRole(
+    public ResponseEntity<AdminUserResponse> updateUserRole(
             @PathVariable Long id,
             @RequestParam Role role   // -> itt most már az enum-ot várjuk
     ) {
         return userRepository.findById(id) // -> adatbázisból USER lekéréés
                 .map(user -> {
                     user.setRole(role);   // Frissitjük a szerepkörét, ha létezik, majd vissza az adatbázisba
-                    return ResponseEntity.ok(userRepository.save(user));
+                    User saved = userRepository.save(user);
+                    principals.evict(saved.getEmail()); // -> az új szerepkör a következő kérésnél érvényes
+                    return ResponseEntity.ok(UserMapper.toAdminResponse(saved));
                 })
                 .orElse(ResponseEntity.notFound().build()); // 404 Not found, ha nincs
     }
-}
 
+    // Hírforrás-hostok circuit breaker állapota + késleltetési percentilisek CSAK ADMIN jogosultsággal
+    @GetMapping("/news/hosts")
+    public List<NewsHostHealth> newsHosts() {
+        return newsHostMonitor.snapshot();
+    }
+}
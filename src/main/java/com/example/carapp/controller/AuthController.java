@@ -6,11 +6,16 @@ import com.example.carapp.dto.UserRequest;
 import com.example.carapp.model.User;
 import com.example.carapp.repository.UserRepository;
 import com.example.carapp.security.JwtService;
+import com.example.carapp.security.LoginThrottle;
+import com.example.carapp.security.PasswordHashing;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * E osztály kezeli a regisztrációt és bejelentkezést
  * Új User hozzáadása a DB-hez
@@ -22,14 +27,17 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashing hashing; // -> BCrypt külön szálkészleten
+    private final LoginThrottle throttle; // -> email / IP kísérletkorlát
     private final JwtService jwtService;
 
     public AuthController(UserRepository userRepository,
-                          PasswordEncoder passwordEncoder,
+                          PasswordHashing hashing,
+                          LoginThrottle throttle,
                           JwtService jwtService) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.hashing = hashing;
+        this.throttle = throttle;
         this.jwtService = jwtService;
     }
 
@@ -37,50 +45,72 @@ public class AuthController {
 
     /**
      * ---  Új felhasználó létrehozása ---
+     *  IP-alapú kísérletkorlát (429)
      *  Ellenőrzi, hogy az email foglalt-e
-     *  Jelszót hash-el
+     *  Jelszót hash-el (BCrypt szálkészleten, a kérés szála közben felszabadul)
      *  Elmenti DB-be
      *  JWT tokent ad
      */
     @PostMapping("/register")
-    public ResponseEntity<?> register(@Valid @RequestBody UserRequest req) {
+    public CompletableFuture<ResponseEntity<?>> register(@Valid @RequestBody UserRequest req,
+                                                         HttpServletRequest http) {
+        if (!throttle.tryAcquire(null, http.getRemoteAddr())) {
+            return CompletableFuture.completedFuture(tooManyAttempts()); // -> 429, BCrypt munka nélkül
+        }
+
         // Ha foglalt az email akkor 400-as hibakódot ad vissza
         if (userRepository.findByEmail(req.getEmail()).isPresent()) {
-            return ResponseEntity.badRequest().body("Email already exists");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Email already exists"));
         }
 
         // Új user létrehozása hash-elt jelszóval
-        User u = new User(req.getName(), req.getEmail(), passwordEncoder.encode(req.getPassword()));
-        userRepository.save(u);
+        return hashing.encode(req.getPassword()).thenApplyAsync(hash -> {
+            User u = new User(req.getName(), req.getEmail(), hash);
+            userRepository.save(u);
 
-        // Token generálása és visszaadása
-        String token = jwtService.generateToken(u.getEmail());
-        return ResponseEntity.ok(new AuthResponse(token));
+            // Token generálása és visszaadása
+            String token = jwtService.generateToken(u.getEmail());
+            return ResponseEntity.ok(new AuthResponse(token));
+        }, hashing.callbacks());
     }
 
 
     // ---------- LOGIN ----------
     /**
      * --- Bejelentkezés meglévő user-ként ---
+     *  Email- és IP-alapú kísérletkorlát (429)
      *  Ellenőrzi, hogy létezik-e az email
-     *  Jelszó ellenőrzés
+     *  Jelszó ellenőrzés (BCrypt szálkészleten)
      *  Ha OK -> JWT token
      *
      */
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequest req) {
-        return userRepository.findByEmail(req.getEmail())
-                .map(user -> {
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody LoginRequest req,
+                                                      HttpServletRequest http) {
+        if (!throttle.tryAcquire(req.getEmail(), http.getRemoteAddr())) {
+            return CompletableFuture.completedFuture(tooManyAttempts()); // -> 429, DB és BCrypt munka nélkül
+        }
+
+        var user = userRepository.findByEmail(req.getEmail()).orElse(null);
+        // Ha a USER nem létezik -> 401 Hiba
+        if (user == null) return CompletableFuture.completedFuture(ResponseEntity.status(401).body("Invalid credentials"));
+
+        // jelszó ellenrőzése
+        return hashing.matches(req.getPassword(), user.getPassword()).thenApplyAsync(ok -> {
+            if (ok) {
+                throttle.reset(user.getEmail());
+                String token = jwtService.generateToken(user.getEmail());
+                return ResponseEntity.ok(new AuthResponse(token));
+            }
+            // Rossz jelszó esetén -> 401 Hiba
+            return ResponseEntity.status(401).body("Invalid credentials");
+        }, hashing.callbacks());
+    }
 
-                    // jelszó ellenrőzése
-                    if (passwordEncoder.matches(req.getPassword(), user.getPassword())) {
-                        String token = jwtService.generateToken(user.getEmail());
-                        return ResponseEntity.ok(new AuthResponse(token));
-                    }
-                    // Rossz jelszó esetén -> 401 Hiba
-                    return ResponseEntity.status(401).body("Invalid credentials");
-                })
-                // Ha a USER nem létezik -> 401 Hiba
-                .orElseGet(() -> ResponseEntity.status(401).body("Invalid credentials"));
+    // 429 Too Many Requests + Retry-After
+    private ResponseEntity<?> tooManyAttempts() {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("Retry-After", String.valueOf(throttle.retryAfterSeconds()))
+                .body("Too many attempts, try again later");
     }
 }
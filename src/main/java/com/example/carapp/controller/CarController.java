@@ -1,13 +1,19 @@
 package com.example.carapp.controller;
 
+import com.example.carapp.dto.CarMapper;
+import com.example.carapp.dto.CarResponse;
 import com.example.carapp.model.Car;
 import com.example.carapp.model.User;
 import com.example.carapp.repository.CarRepository;
 import com.example.carapp.repository.UserRepository;
+import com.example.carapp.security.AuthUser;
+import com.example.carapp.service.JsonArrayStreamer;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Objects;
@@ -24,22 +30,26 @@ public class CarController {
 
     private final CarRepository carRepository;
     private final UserRepository userRepository;
+    private final JsonArrayStreamer streamer; // -> Nagy listák streamelt kiírása
 
-    public CarController(CarRepository carRepository, UserRepository userRepository) {
+    public CarController(CarRepository carRepository, UserRepository userRepository, JsonArrayStreamer streamer) {
         this.carRepository = carRepository;
         this.userRepository = userRepository;
+        this.streamer = streamer;
     }
 
     // Összes autó lekérése
     @GetMapping
-    public List<Car> getAllCars() {
-        return carRepository.findAll();
+    public ResponseEntity<StreamingResponseBody> getAllCars() {
+        return ResponseEntity.ok() // -> soronként, adatbázis-kurzorból (lapos DTO: a tulajdonos csak id + név)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(streamer.jsonArray(carRepository::streamResponses, car -> car));
     }
 
     // Egy konkrét autó lekérdezése ID alapján, ha nincs ilyen -> 404 Not Found
     @GetMapping("/{id}")
-    public ResponseEntity<Car> getCarById(@PathVariable Long id) {
-        return carRepository.findById(id)
+    public ResponseEntity<CarResponse> getCarById(@PathVariable Long id) {
+        return carRepository.findResponseById(id)
                 .map(ResponseEntity::ok)
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
@@ -48,61 +58,59 @@ public class CarController {
     // 401 -> ha nincs Auth
     // 400 -> nincs USER
     @GetMapping("/me")
-    public ResponseEntity<List<Car>> myCars(Authentication authentication) {
+    public ResponseEntity<List<CarResponse>> myCars(Authentication authentication) {
         if (authentication == null || !authentication.isAuthenticated()) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        String email = authentication.getName();
-        User owner = userRepository.findByEmail(email).orElse(null);
-        if (owner == null) {
+        AuthUser me = AuthUser.of(authentication); // -> A JWT szűrő által feloldott user
+        if (me == null) {
             return ResponseEntity.badRequest().build();
         }
-        List<Car> cars = carRepository.findByOwnerId(owner.getId());
+        List<CarResponse> cars = carRepository.findResponsesByOwnerId(me.id());
         return ResponseEntity.ok(cars);
     }
 
     // Új autó létrehozása (a bejelentkezett userhez kötve)
     @PostMapping
-    public ResponseEntity<Car> createCar(@RequestBody Car car, Authentication auth) {
-        String email = auth.getName();
-        User owner = userRepository.findByEmail(email).orElse(null);
+    public ResponseEntity<CarResponse> createCar(@RequestBody Car car, Authentication auth) {
+        AuthUser me = AuthUser.of(auth);
+        // ID alapján töltjük be: a válaszban a tulajdonos neve is szerepel
+        User owner = me == null ? null : userRepository.findById(me.id()).orElse(null);
         if (owner == null) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
         car.setOwner(owner);
-        return ResponseEntity.ok(carRepository.save(car));
+        return ResponseEntity.ok(CarMapper.toResponse(carRepository.save(car)));
     }
 
     // Autó frissítése (csak sajátot)
     @PutMapping("/{id}")
-    public ResponseEntity<Car> updateCar(@PathVariable Long id,
+    public ResponseEntity<CarResponse> updateCar(@PathVariable Long id,
                                          @RequestBody Car updatedCar,
                                          Authentication auth) {
-        String email = auth.getName();
-        User owner = userRepository.findByEmail(email).orElse(null);
+        AuthUser me = AuthUser.of(auth);
 
         return carRepository.findById(id).map(car -> {
             // Csak sajátot lehet módosítani
-            if (owner == null || !car.getOwner().getId().equals(owner.getId())) {
-                return ResponseEntity.status(HttpStatus.FORBIDDEN).<Car>build();
+            if (me == null || !car.getOwner().getId().equals(me.id())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN).<CarResponse>build();
             }
             car.setBrand(updatedCar.getBrand());
             car.setModel(updatedCar.getModel());
             car.setYear(updatedCar.getYear());
-            return ResponseEntity.ok(carRepository.save(car));
-        }).orElseGet(() -> ResponseEntity.notFound().<Car>build());
+            return ResponseEntity.ok(CarMapper.toResponse(carRepository.save(car)));
+        }).orElseGet(() -> ResponseEntity.notFound().<CarResponse>build());
     }
 
     // Autó törlése (csak a sajátját)
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteCar(@PathVariable Long id, Authentication auth) {
-        String email = auth.getName();
-        User owner = userRepository.findByEmail(email).orElse(null);
+        AuthUser me = AuthUser.of(auth);
 
         return carRepository.findById(id)
                 .<ResponseEntity<Void>>map(car -> {
                     // USER -> csak sajátot törölhet
-                    if (owner == null || !Objects.equals(car.getOwner().getId(), owner.getId())) {
+                    if (me == null || !Objects.equals(car.getOwner().getId(), me.id())) {
                         return ResponseEntity.status(HttpStatus.FORBIDDEN).<Void>build();
                     }
                     carRepository.deleteById(id);
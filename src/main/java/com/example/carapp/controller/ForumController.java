@@ -2,14 +2,26 @@ package com.example.carapp.controller;
 
 import com.example.carapp.dto.CommentRequest;
 import com.example.carapp.dto.CommentResponse;
+import com.example.carapp.dto.ForumEvent;
+import com.example.carapp.dto.ForumSearchHit;
+import com.example.carapp.dto.PageCursor;
 import com.example.carapp.dto.PostRequest;
 import com.example.carapp.dto.PostResponse;
 import com.example.carapp.model.*;
 import com.example.carapp.repository.CommentRepository;
 import com.example.carapp.repository.PostRepository;
 import com.example.carapp.repository.UserRepository;
+import com.example.carapp.security.AuthUser;
+import com.example.carapp.service.ForumCommentService;
+import com.example.carapp.service.ForumEventBus;
+import com.example.carapp.service.ForumSearchIndex;
+import com.example.carapp.service.ResourceVersions;
+import com.example.carapp.service.ReactionCounterService;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Sort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -17,6 +29,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * Fórum/üzenőfal CRUD + kommentek.
@@ -30,29 +43,89 @@ public class ForumController {
     private final PostRepository postRepo;   // -> posztok
     private final CommentRepository commentRepo;  // -> kommentek
     private final UserRepository userRepo;  // -> felhasználók
+    private final ForumCommentService commentService; // -> komment írás/törlés a poszt kommentszámával együtt
+    private final ReactionCounterService reactionCounters; // -> reakciószámlálók (poszt törlésekor eldobjuk)
+    private final ForumSearchIndex searchIndex; // -> teljes szöveges kereső (minden írás után frissítjük)
+    private final ForumEventBus events; // -> élő folyam (SSE) a feliratkozott klienseknek
+    private final ResourceVersions versions; // -> posztonkénti ETag verziók (minden változásnál léptetjük)
+
+    // HTTP cache: a poszt és kommentjei gyorsan változhatnak – a kliens / CDN tárolhatja, de minden
+    // használat előtt ETag-gel újraellenőriz (olcsó 304)
+    private static final CacheControl POST_CACHE = CacheControl.noCache().cachePublic();
+
+    // Lapozás beállításai
+    private final int defaultPageSize; // -> ha a kliens nem ad meg size-t
+    private final int maxPageSize; // -> ennél nagyobb oldalt nem adunk ki
 
     public ForumController(PostRepository postRepo,
                            CommentRepository commentRepo,
-                           UserRepository userRepo) {
+                           UserRepository userRepo,
+                           ForumCommentService commentService,
+                           ReactionCounterService reactionCounters,
+                           ForumSearchIndex searchIndex,
+                           ForumEventBus events,
+                           ResourceVersions versions,
+                           @Value("${forum.page.default-size:20}") int defaultPageSize,
+                           @Value("${forum.page.max-size:100}") int maxPageSize) {
         this.postRepo = postRepo;
         this.commentRepo = commentRepo;
         this.userRepo = userRepo;
+        this.commentService = commentService;
+        this.reactionCounters = reactionCounters;
+        this.searchIndex = searchIndex;
+        this.events = events;
+        this.versions = versions;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
     // ---------- POSTS ----------
 
-    // Legújabbtól a régebbiig lekérés
+    // Legújabbtól a régebbiig lekérés, lapozva (keyset: createdAt, id)
+    // size: oldalméret, cursor: az előző válasz X-Next-Cursor fejléce, category: opcionális szűrő
     @GetMapping("/posts")
-    public List<PostResponse> listPosts() {
-        return postRepo.findAll(Sort.by(Sort.Direction.DESC, "createdAt")) // rendezve visszaadja a posztokat
-                .stream().map(this::toPostResponse).toList(); // -> entity to DTO
+    public ResponseEntity<List<PostResponse>> listPosts(@RequestParam(required = false) Integer size,
+                                                        @RequestParam(required = false) String cursor,
+                                                        @RequestParam(required = false) ForumCategory category) {
+        int pageSize = Math.max(1, Math.min(size != null ? size : defaultPageSize, maxPageSize)); // -> korlátok közé
+        PageRequest window = PageRequest.of(0, pageSize + 1); // -> +1 sor: van-e következő oldal
+
+        // a PostResponse (szerző, komment- és reakciószám) közvetlenül a lekérdezésből jön: egy SQL oldalanként
+        List<PostResponse> rows;
+        if (cursor == null || cursor.isBlank()) { // -> első oldal
+            rows = category != null
+                    ? postRepo.findFirstPageInCategory(category, window)
+                    : postRepo.findFirstPage(window);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            if (after == null) return new ResponseEntity<>(HttpStatus.BAD_REQUEST); // -> hibás kurzor
+            rows = category != null
+                    ? postRepo.findPageAfterInCategory(category, after.getTimestamp(), after.getId(), window)
+                    : postRepo.findPageAfter(after.getTimestamp(), after.getId(), window);
+        }
+
+        return page(ResponseEntity.ok(), rows, pageSize, r -> new PageCursor(r.getCreatedAt(), r.getId()));
+    }
+
+    // KERESÉS a posztokban és kommentekben – BM25 rangsor, ékezetfüggetlen, lapozva (page, size)
+    @GetMapping("/search")
+    public ResponseEntity<List<ForumSearchHit>> search(@RequestParam String q,
+                                                       @RequestParam(defaultValue = "0") int page,
+                                                       @RequestParam(required = false) Integer size) {
+        int pageSize = Math.max(1, Math.min(size != null ? size : defaultPageSize, maxPageSize)); // -> korlátok közé
+        return ResponseEntity.ok(searchIndex.search(q, page, pageSize)); // -> 200 OK (nincs találat: üres lista)
     }
 
-    // poszt lekérése ID alapján
+    // poszt lekérése ID alapján | ETag: változatlan posztra 304, adatbázis nélkül
     @GetMapping("/posts/{id}")
-    public ResponseEntity<PostResponse> getPost(@PathVariable Long id) {
-        return postRepo.findById(id)
-                .map(p -> ResponseEntity.ok(toPostResponse(p))) // ha van ilyen poszt visszaadjuk
+    public ResponseEntity<PostResponse> getPost(@PathVariable Long id,
+                                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = versions.postEtag(id);
+        if (ResourceVersions.notModified(ifNoneMatch, etag)) // -> 304 Not Modified
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(POST_CACHE).build();
+
+        return postRepo.findResponseById(id)
+                .map(body -> ResponseEntity.ok().eTag(etag).cacheControl(POST_CACHE).body(body)) // ha van ilyen poszt visszaadjuk
                 .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND)); // 404 NOT FOUND, ha nincs
     }
 
@@ -63,12 +136,12 @@ public class ForumController {
         if (auth == null || !auth.isAuthenticated()) // -> ha nincs belépve a user
             return new ResponseEntity<>(HttpStatus.UNAUTHORIZED); // 401 Unauthorized
 
-        var user = userRepo.findByEmail(auth.getName()).orElse(null); // email alapján USER keresés
-        if (user == null) return new ResponseEntity<>(HttpStatus.FORBIDDEN); // 403 forbidden, ha nincs
+        var me = AuthUser.of(auth); // bejelentkezett user (a JWT szűrő már feloldotta)
+        if (me == null) return new ResponseEntity<>(HttpStatus.FORBIDDEN); // 403 forbidden, ha nincs
 
         // Új poszt létrehozása és adatok megadása
         Post p = new Post();
-        p.setAuthor(user); // tulajdonos beállítása
+        p.setAuthor(userRepo.getReferenceById(me.id())); // tulajdonos beállítása (csak FK, nincs lekérdezés)
         p.setTitle((req.getTitle() == null || req.getTitle().isBlank()) ? null : req.getTitle().trim()); // ha üres a cím, akkor null
         p.setContent(req.getContent()); // tartalom beállítása
         p.setCategory(req.getCategory() != null ? req.getCategory() : ForumCategory.GENERAL); // ha nincs Category, akkor "GENERAL"
@@ -76,7 +149,10 @@ public class ForumController {
 
         // mentés és visszaadás
         Post saved = postRepo.save(p);
-        return ResponseEntity.status(HttpStatus.CREATED).body(toPostResponse(saved));
+        searchIndex.putPost(saved); // -> azonnal kereshető
+        PostResponse body = toPostResponse(saved, me);
+        events.publish(new ForumEvent(ForumEvent.Type.POST_CREATED, saved.getId(), saved.getCategory(), body)); // -> élő folyam
+        return ResponseEntity.status(HttpStatus.CREATED).body(body);
     }
 
     // Posztot módosítani csak a tulajdonos vagy ADMIN tud
@@ -87,15 +163,15 @@ public class ForumController {
         if (auth == null || !auth.isAuthenticated()) // auth checkin
             return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
 
-        var me = userRepo.findByEmail(auth.getName()).orElse(null); // saját user betöltése
+        var me = AuthUser.of(auth); // saját user
         if (me == null) return new ResponseEntity<>(HttpStatus.FORBIDDEN);
 
         var opt = postRepo.findById(id); // létezik-e a poszt
         if (opt.isEmpty()) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
         var p = opt.get();
-        boolean isOwner = p.getAuthor().getId().equals(me.getId()); // saját posz-e?
-        boolean isAdmin = me.getRole() == Role.ADMIN; // admin-e?
+        boolean isOwner = p.getAuthor().getId().equals(me.id()); // saját posz-e?
+        boolean isAdmin = me.isAdmin(); // admin-e?
         if (!isOwner && !isAdmin) return new ResponseEntity<>(HttpStatus.FORBIDDEN);  // tiltás, ha none of them
 
         // Updated mezők beállítása
@@ -105,7 +181,12 @@ public class ForumController {
         p.setRating(req.getRating() != null ? Math.max(1, Math.min(5, req.getRating())) : null); // értékelés
         p.setUpdatedAt(LocalDateTime.now()); // módosítás dátuma
 
-        return ResponseEntity.ok(toPostResponse(postRepo.save(p))); // mentés és 200 OK
+        postRepo.save(p); // mentés
+        searchIndex.putPost(p); // -> a kereső a friss szöveget látja
+        PostResponse body = postRepo.findResponseById(id).orElseThrow(); // friss darabszámokkal
+        versions.bumpPost(id); // -> új ETag
+        events.publish(new ForumEvent(ForumEvent.Type.POST_UPDATED, id, p.getCategory(), body));
+        return ResponseEntity.ok(body); // 200 OK
     }
 
     /** POSZT törlés – poszt tulajdonosa vagy ADMIN. */
@@ -114,31 +195,53 @@ public class ForumController {
         if (auth == null || !auth.isAuthenticated()) // -> ha nincs belépve
             return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
 
-        var me = userRepo.findByEmail(auth.getName()).orElse(null); // saját user betöltése
+        var me = AuthUser.of(auth); // saját user
         if (me == null) return new ResponseEntity<>(HttpStatus.FORBIDDEN);
 
         var opt = postRepo.findById(id); // poszt létezik-e
         if (opt.isEmpty()) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
         var p = opt.get();
-        boolean isOwner = p.getAuthor().getId().equals(me.getId()); // szerző?
-        boolean isAdmin = me.getRole() == Role.ADMIN; // ADMIN?
+        boolean isOwner = p.getAuthor().getId().equals(me.id()); // szerző?
+        boolean isAdmin = me.isAdmin(); // ADMIN?
         if (!isOwner && !isAdmin) return new ResponseEntity<>(HttpStatus.FORBIDDEN);
 
         postRepo.deleteById(id); // törlés
+        reactionCounters.forget(id); // számlálók eldobása
+        searchIndex.removePost(id); // -> a kommentjeivel együtt kikerül a keresőből
+        versions.bumpPost(id);
+        events.publish(new ForumEvent(ForumEvent.Type.POST_DELETED, id, p.getCategory(), null));
         return new ResponseEntity<>(HttpStatus.NO_CONTENT); // 204 no content, tehát jó
     }
 
     // ---------- COMMENTS ----------
-    // poszthoz tartozó kommentek lekérése
+    // poszthoz tartozó kommentek lekérése – legújabb elöl, lapozva (keyset: createdAt, id)
+    // size: oldalméret, cursor: az előző válasz X-Next-Cursor fejléce
     @GetMapping("/posts/{postId}/comments")
-    public ResponseEntity<List<CommentResponse>> listComments(@PathVariable Long postId) {
-        if (!postRepo.existsById(postId)) // 404, ha nincs ilyen poszt
+    public ResponseEntity<List<CommentResponse>> listComments(@PathVariable Long postId,
+                                                              @RequestParam(required = false) Integer size,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = versions.postEtag(postId); // -> komment írás / törlés is a poszt verzióját lépteti
+        if (ResourceVersions.notModified(ifNoneMatch, etag)) // -> 304 Not Modified
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(POST_CACHE).build();
+
+        int pageSize = Math.max(1, Math.min(size != null ? size : defaultPageSize, maxPageSize)); // -> korlátok közé
+        PageRequest window = PageRequest.of(0, pageSize + 1); // -> +1 sor: van-e következő oldal
+
+        List<CommentResponse> rows; // kommentek DTO-ként, szerzővel együtt: egy SQL oldalanként
+        if (cursor == null || cursor.isBlank()) { // -> első oldal
+            rows = commentRepo.findFirstPageByPostId(postId, window);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            if (after == null) return new ResponseEntity<>(HttpStatus.BAD_REQUEST); // -> hibás kurzor
+            rows = commentRepo.findPageByPostIdAfter(postId, after.getTimestamp(), after.getId(), window);
+        }
+        if (rows.isEmpty() && !postRepo.existsById(postId)) // 404, ha nincs ilyen poszt (csak üres oldalnál kell megnézni)
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
-        var list = commentRepo.findByPost_IdOrderByCreatedAtDesc(postId) // kommentek lekérése
-                .stream().map(this::toCommentResponse).toList(); // -> DTO-vá alakítás
-        return ResponseEntity.ok(list); // -> 200 OK + kommentek listája
+        return page(ResponseEntity.ok().eTag(etag).cacheControl(POST_CACHE), rows, pageSize,
+                r -> new PageCursor(r.getCreatedAt(), r.getId()));
     }
 
     // Új komment hozzáadása csak belépett felhasználóként
@@ -149,21 +252,25 @@ public class ForumController {
         if (auth == null || !auth.isAuthenticated()) // AUTH ellenőrzés
             return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
 
-        var me = userRepo.findByEmail(auth.getName()).orElse(null); // saját user betöltése
+        var me = AuthUser.of(auth); // saját user
         if (me == null) return new ResponseEntity<>(HttpStatus.FORBIDDEN);
 
-        var opt = postRepo.findById(postId); // -> Megnézzük, hogy a poszt létezik-e
-        if (opt.isEmpty()) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        var category = postRepo.findCategoryById(postId).orElse(null); // -> Megnézzük, hogy a poszt létezik-e (+ kategória az eseményhez)
+        if (category == null) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
 
-        // Új komment létrehozása
+        // Új komment létrehozása (poszt és szerző csak referenciaként: FK, betöltés nélkül)
         Comment c = new Comment(); // ÚJ objektum
-        c.setPost(opt.get()); // hozzárendeljük a poszthoz
-        c.setAuthor(me); // szerző beállítása
+        c.setPost(postRepo.getReferenceById(postId)); // hozzárendeljük a poszthoz
+        c.setAuthor(userRepo.getReferenceById(me.id())); // szerző beállítása
         c.setContent(req.getContent()); // szöveg
         c.setCreatedAt(LocalDateTime.now()); // dátum
 
-        Comment saved = commentRepo.save(c); // mentés
-        return ResponseEntity.status(HttpStatus.CREATED).body(toCommentResponse(saved)); // 201 OK
+        Comment saved = commentService.add(c); // mentés + a poszt kommentszáma (egy tranzakcióban)
+        searchIndex.putComment(saved); // -> azonnal kereshető
+        CommentResponse body = toCommentResponse(saved, me);
+        versions.bumpPost(postId); // -> a poszt (kommentszám) és a kommentlista ETag-je változik
+        events.publish(new ForumEvent(ForumEvent.Type.COMMENT_CREATED, postId, category, body)); // -> élő folyam
+        return ResponseEntity.status(HttpStatus.CREATED).body(body); // 201 OK
     }
 
     // KOMMENT törlés – komment tulajdonos VAGY ADMIN.
@@ -186,7 +293,7 @@ public class ForumController {
         if (auth == null || !auth.isAuthenticated())
             return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
 
-        var me = userRepo.findByEmail(auth.getName()).orElse(null);
+        var me = AuthUser.of(auth);
         if (me == null) return new ResponseEntity<>(HttpStatus.FORBIDDEN);
 
         var opt = commentRepo.findById(commentId);
@@ -197,36 +304,56 @@ public class ForumController {
         if (postId != null && !Objects.equals(c.getPost().getId(), postId))
             return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
 
-        boolean isOwner = c.getAuthor().getId().equals(me.getId()); // saját?
-        boolean isAdmin = me.getRole() == Role.ADMIN; // ADMIN?
+        boolean isOwner = c.getAuthor().getId().equals(me.id()); // saját?
+        boolean isAdmin = me.isAdmin(); // ADMIN?
         if (!isOwner && !isAdmin) return new ResponseEntity<>(HttpStatus.FORBIDDEN);
 
-        commentRepo.deleteById(commentId); // komment törlése adatbázisból
+        if (!commentService.delete(commentId, c.getPost().getId())) // komment törlése + kommentszám csökkentése
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND); // -> egy párhuzamos kérés már törölte
+        searchIndex.removeComment(commentId); // -> és a keresőből
+        versions.bumpPost(c.getPost().getId());
+        events.publish(new ForumEvent(ForumEvent.Type.COMMENT_DELETED,
+                c.getPost().getId(), c.getPost().getCategory(), commentId)); // -> data: a törölt komment ID-ja
         return new ResponseEntity<>(HttpStatus.NO_CONTENT); // -> 204 No Content válasz
     }
 
+    // Oldal levágása (pageSize + 1 sort kértünk) + X-Next-Cursor fejléc, ha van következő oldal
+    private static <T> ResponseEntity<List<T>> page(ResponseEntity.BodyBuilder ok, List<T> rows, int pageSize,
+                                                    Function<T, PageCursor> key) {
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) rows = rows.subList(0, pageSize);
+
+        if (hasMore) { // -> következő oldal tokenje az utolsó elem kulcsából
+            ok.header(PageCursor.HEADER, key.apply(rows.get(rows.size() - 1)).encode());
+        }
+        return ok.body(rows);
+    }
+
     // ---------- Mapperek ----------
     // csak a biztonságos és szükséges adatokat küldjük vissza a frontendnek
 
-    private PostResponse toPostResponse(Post p) {
+    // a szerző adatai a bejelentkezett userből jönnek (a User referencia nincs betöltve)
+    private PostResponse toPostResponse(Post p, AuthUser author) {
         PostResponse r = new PostResponse(); // -> Új DTO objektum
         r.setId(p.getId()); // -> Poszt ID
-        r.setAuthorId(p.getAuthor().getId()); // -> ID
-        r.setAuthorName(p.getAuthor().getName()); // -> Szerző neve
+        r.setAuthorId(author.id()); // -> ID
+        r.setAuthorName(author.displayName()); // -> Szerző neve
         r.setTitle(p.getTitle()); // -> Cím
         r.setContent(p.getContent()); // -> Content
         r.setCategory(p.getCategory()); // -> Kategória
         r.setRating(p.getRating()); // -> Értékelés
         r.setCreatedAt(p.getCreatedAt()); // -> Létrehozás ideje
         r.setUpdatedAt(p.getUpdatedAt()); // -> Utolsó módosítás ideje
+        r.setCommentCount(0L); // -> Új poszt: még nincs komment
+        r.setReactionCount(0L); // -> és reakció sem
         return r;
     }
 
-    private CommentResponse toCommentResponse(Comment c) {
+    private CommentResponse toCommentResponse(Comment c, AuthUser author) {
         CommentResponse r = new CommentResponse(); // -> Új DTO objektum
         r.setId(c.getId()); // -> Komment ID
-        r.setAuthorId(c.getAuthor().getId()); // -> ID
-        r.setAuthorName(c.getAuthor().getName()); // -> Szerző neve
+        r.setAuthorId(author.id()); // -> ID
+        r.setAuthorName(author.displayName()); // -> Szerző neve
         r.setContent(c.getContent()); // -> Content
         r.setCreatedAt(c.getCreatedAt()); // -> Létrehozás ideje
         return r;
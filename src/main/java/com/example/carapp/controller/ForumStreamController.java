@@ -0,0 +1,38 @@
+package com.example.carapp.controller;
+
+import com.example.carapp.model.ForumCategory;
+import com.example.carapp.service.ForumEventBus;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Fórum élő folyam (Server-Sent Events): új / módosított / törölt posztok, kommentek és reakciók.
+ * A frontend EventSource-szal csatlakozik, így a posztlista és a reakciók pollozása elhagyható.
+ */
+@RestController
+@RequestMapping("/api/forum")
+public class ForumStreamController {
+
+    private final ForumEventBus events; // -> a ForumController és a PostReactionController ide publikál
+
+    public ForumStreamController(ForumEventBus events) {
+        this.events = events;
+    }
+
+    // GET /api/forum/stream?category=CARS vagy ?postId=42 – szűrő nélkül minden esemény
+    @GetMapping(value = "/stream", produces = "text/event-stream")
+    public ResponseEntity<SseEmitter> stream(@RequestParam(required = false) ForumCategory category,
+                                             @RequestParam(required = false) Long postId) {
+        if (category != null && postId != null) // -> egyszerre csak az egyik szűrő
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+
+        SseEmitter emitter = events.subscribe(category, postId);
+        if (emitter == null) // -> túl sok nyitott kapcsolat
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "30").build();
+        return ResponseEntity.ok()
+                .header("X-Accel-Buffering", "no") // -> reverse proxy ne pufferelje az eseményeket
+                .body(emitter);
+    }
+}
@@ -1,39 +1,105 @@
 package com.example.carapp.controller;
 
 import com.example.carapp.dto.NewsItem;
-import com.example.carapp.service.NewsService;
+import com.example.carapp.dto.NewsPage;
+import com.example.carapp.dto.PageCursor;
+import com.example.carapp.dto.NewsSourceResult;
+import com.example.carapp.model.NewsSource;
+import com.example.carapp.service.NewsArchiveService;
+import com.example.carapp.service.NewsFeedCache;
+import com.example.carapp.service.ResourceVersions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.util.List;
 
 /*
 *   - A service rétegben történik az adatok feldolgozása, itt csak az endpointokat definiáljuk.
-*   - A NewsService segítségével dolgozik, amely a tényleges adatgyűjtést végzi
+*   - A NewsFeedCache-ből szolgál ki; a tényleges adatgyűjtést (NewsService) a cache ütemezője végzi
 */
 @RestController
 @RequestMapping("/api/news") // -> Az összes végpont az /api/news alatt érhető el
 public class NewsController {
     // --- Szerviz réteg injektálása ---
-    private final NewsService news; // -> A NewsService objektum, ami a híreket gyűjti
-    public NewsController(NewsService news) { this.news = news; }
+    private final NewsFeedCache news; // -> Memória-cache, háttérben frissített hírekkel
+    private final NewsArchiveService archive; // -> Archivált hírek, kurzoros lapozás
+    private final ResourceVersions versions; // -> ETag előállítása (indulási azonosító + feed verzió)
+    private final Duration aggregateTimeout; // -> Az /all végpont közös határideje (csak a még be nem töltött forrásokra)
+
+    // HTTP cache: első oldal – a feedek percenként-tízpercenként frissülnek; archív oldal – a régi hírek nem változnak;
+    // /all – ugyanazokból a pillanatképekből, rövid ideig a CDN is kiszolgálhatja
+    private static final CacheControl FEED_CACHE = CacheControl.maxAge(Duration.ofSeconds(60)).cachePublic();
+    private static final CacheControl ARCHIVE_CACHE = CacheControl.maxAge(Duration.ofMinutes(10)).cachePublic();
+    private static final CacheControl ALL_CACHE = CacheControl.maxAge(Duration.ofSeconds(60)).cachePublic();
+
+    public NewsController(NewsFeedCache news,
+                          NewsArchiveService archive,
+                          ResourceVersions versions,
+                          @Value("${news.aggregate.timeout-ms:8000}") long aggregateTimeoutMs) {
+        this.news = news;
+        this.archive = archive;
+        this.versions = versions;
+        this.aggregateTimeout = Duration.ofMillis(aggregateTimeoutMs);
+    }
 
     // A limit paraméter határozza meg, hány hírt kérjünk le (default: 20)
+    // A cursor paraméterrel a régebbi (archivált) hírek lapozhatók; a következő oldal tokenje az X-Next-Cursor fejlécben jön
     // Totalcar hírek (autótesztek, újdonságok)
     @GetMapping("/totalcar")
-    public List<NewsItem> totalcar(@RequestParam(defaultValue = "20") int limit) throws Exception {
-        return news.fetchTotalCarTests(limit); // -> Meghívjuk a service metódust, visszaadjuk az eredményt
+    public ResponseEntity<List<NewsItem>> totalcar(@RequestParam(defaultValue = "20") int limit,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws Exception {
+        return page(NewsSource.TOTALCAR, limit, cursor, ifNoneMatch);
     }
 
     // Hivatalos Útinform hírek (útlezárás, baleset stb.)
-    // A limit paraméter határozza meg, hány hírt kérjünk le (default: 20)
     @GetMapping("/utinform")
-    public List<NewsItem> utinform(@RequestParam(defaultValue = "20") int limit) throws Exception {
-        return news.fetchUtinformFromSite(limit);
+    public ResponseEntity<List<NewsItem>> utinform(@RequestParam(defaultValue = "20") int limit,
+                                                   @RequestParam(required = false) String cursor,
+                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws Exception {
+        return page(NewsSource.UTINFORM, limit, cursor, ifNoneMatch);
     }
 
     // Alternatív útvonal – hírek a Hirhanyó vagy más adatforrásból
     @GetMapping("/utinform-hirhanyo")
-    public List<NewsItem> utinformHirhanyo(@RequestParam(defaultValue = "20") int limit) throws Exception {
-        return news.fetchHirhanyoUtinfo(limit); // -> A service másik metódusát hívja, ami egy alternatív forrásból olvas
+    public ResponseEntity<List<NewsItem>> utinformHirhanyo(@RequestParam(defaultValue = "20") int limit,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) throws Exception {
+        return page(NewsSource.HIRHANYO, limit, cursor, ifNoneMatch);
+    }
+
+    // Minden forrás egyszerre – a cache pillanatképeiből (élő letöltés nélkül), forrásonkénti állapottal
+    @GetMapping("/all")
+    public ResponseEntity<List<NewsSourceResult>> all(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok().cacheControl(ALL_CACHE).body(news.all(limit, aggregateTimeout));
+    }
+
+    // Első oldal: cache-ből (memória), ETag a feed verziójából; további oldalak: az archívumból, kurzor után
+    private ResponseEntity<List<NewsItem>> page(NewsSource source, int limit, String cursor, String ifNoneMatch) throws Exception {
+        NewsPage page;
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (cursor == null || cursor.isBlank()) {
+            Long version = news.version(source); // -> a verziót a tartalom előtt olvassuk: az ETag sosem újabb a törzsnél
+            if (version != null) {
+                String etag = versions.etag(source.name() + "." + version);
+                if (ResourceVersions.notModified(ifNoneMatch, etag)) // -> 304 Not Modified
+                    return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(FEED_CACHE).build();
+                ok.eTag(etag);
+            }
+            ok.cacheControl(FEED_CACHE);
+            page = news.get(source, limit);
+        } else {
+            PageCursor after = PageCursor.decode(cursor);
+            if (after == null) return ResponseEntity.badRequest().build(); // -> 400: hibás kurzor
+            ok.cacheControl(ARCHIVE_CACHE);
+            page = archive.page(source, after, limit);
+        }
+        if (page.getNextCursor() != null) ok.header(PageCursor.HEADER, page.getNextCursor());
+        return ok.body(page.getItems());
     }
-}
\ No newline at end of file
+}
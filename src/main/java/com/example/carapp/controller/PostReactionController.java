@@ -1,13 +1,20 @@
 // com/example/carapp/controller/PostReactionController.java
 package com.example.carapp.controller;
 
+import com.example.carapp.dto.ForumEvent;
 import com.example.carapp.dto.ReactionSummary;
 import com.example.carapp.model.*;
 import com.example.carapp.repository.*;
+import com.example.carapp.security.AuthUser;
+import com.example.carapp.service.ForumEventBus;
+import com.example.carapp.service.ReactionCounterService;
+import com.example.carapp.service.ResourceVersions;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.*;
 
 
@@ -25,36 +32,37 @@ public class PostReactionController {
     private final PostRepository postRepo; // ➜ A fórumposztokat kezeli
     private final UserRepository userRepo; // ➜ A felhasználókhoz fér hozzá (auth alapján)
     private final PostReactionRepository reactionRepo; // ➜ A poszt-reakciókat kezeli
+    private final ReactionCounterService counters; // ➜ Memóriában tartott reakciószámlálók (O(1) olvasás)
+    private final ForumEventBus events; // ➜ Élő folyam: a számlálók változása a feliratkozóknak
+    private final ResourceVersions versions; // ➜ A poszt ETag-je (a reakciószám a poszt válaszában is szerepel)
+
+    private static final int MAX_BATCH = 100; // ➜ Egy kötegelt kérésben legfeljebb ennyi poszt
 
     public PostReactionController(PostRepository postRepo, UserRepository userRepo,
-                                  PostReactionRepository reactionRepo) {
+                                  PostReactionRepository reactionRepo, ReactionCounterService counters,
+                                  ForumEventBus events, ResourceVersions versions) {
         this.postRepo = postRepo;
         this.userRepo = userRepo;
         this.reactionRepo = reactionRepo;
+        this.counters = counters;
+        this.events = events;
+        this.versions = versions;
     }
 
     // GET /api/forum/posts/{id}/reactions – összegzés + a bejelentkezett user reakciója
     @GetMapping("/posts/{id}/reactions")
     public ResponseEntity<ReactionSummary> getSummary(@PathVariable Long id, Authentication auth) {
-        var post = postRepo.findById(id).orElse(null); // -> Lekérjük az adott posztot ID alapján
-        if (post == null) return ResponseEntity.notFound().build(); // -> Ha nincs ilyen poszt, 404-et adunk
-
-        Map<ReactionType, Long> counts = new EnumMap<>(ReactionType.class);
-        //  Aggregált adatlekérés: minden típushoz reakció számlálás
-        reactionRepo.aggregateByType(id).forEach(row -> {
-            ReactionType t = (ReactionType) row[0]; // -> ENUM típus
-            Long c = (Long) row[1]; // db szám
-            counts.put(t, c); // map-hez hozzáadjuk
-        });
+        if (!postRepo.existsById(id)) return ResponseEntity.notFound().build(); // -> Ha nincs ilyen poszt, 404-et adunk
+
+        //  Számlálók memóriából: típusonkénti darabszám aggregálás nélkül
+        Map<ReactionType, Long> counts = counters.counts(id);
 
         // -> Az aktuális user saját reakciója (ha be van jelentkezve)
         ReactionType mine = null;
-        if (auth != null && auth.isAuthenticated()) { // -> Csak ha belépett user
-            var me = userRepo.findByEmail(auth.getName()).orElse(null); // email alapján azonosítás
-            if (me != null) {
-                mine = reactionRepo.findByPost_IdAndUser_Id(id, me.getId()) // reagált-e már a user?
-                        .map(PostReaction::getType).orElse(null); // ha igen..levesszük a ReactionType-ot
-            }
+        var me = AuthUser.of(auth); // -> Csak ha belépett user (a JWT szűrő már feloldotta)
+        if (me != null) {
+            mine = reactionRepo.findByPost_IdAndUser_Id(id, me.id()) // reagált-e már a user?
+                    .map(PostReaction::getType).orElse(null); // ha igen..levesszük a ReactionType-ot
         }
 
         // -> DTO építése a frontend számára
@@ -65,6 +73,32 @@ public class PostReactionController {
         return ResponseEntity.ok(dto); // -> 200 OK + ReactionSummary JSON
     }
 
+    // GET /api/forum/reactions?postIds=1,2,3 – több poszt összegzése egyszerre (feed egy kérésből)
+    // A számlálók memóriából jönnek; egyetlen lekérdezés a bejelentkezett user saját reakcióihoz
+    @GetMapping("/reactions")
+    public ResponseEntity<List<ReactionSummary>> getSummaries(@RequestParam List<Long> postIds, Authentication auth) {
+        Set<Long> ids = new LinkedHashSet<>(postIds); // -> duplikátumok kiszűrése, sorrend megtartása
+        ids.remove(null);
+        if (ids.isEmpty()) return ResponseEntity.ok(List.of()); // -> nincs mit összegezni
+        if (ids.size() > MAX_BATCH) return ResponseEntity.badRequest().build(); // -> 400, túl sok poszt egy kérésben
+
+        // poszt ID → összegző DTO (a reakció nélküli posztok üres számlálóval szerepelnek)
+        Map<Long, ReactionSummary> byPost = new LinkedHashMap<>();
+        for (Long id : ids) {
+            var dto = new ReactionSummary();
+            dto.setPostId(id);
+            dto.setCounts(counters.counts(id));
+            byPost.put(id, dto);
+        }
+
+        if (auth != null && auth.isAuthenticated()) { // -> Csak ha belépett user
+            reactionRepo.findMyTypes(auth.getName(), ids)
+                    .forEach(row -> byPost.get((Long) row[0]).setMyReaction((ReactionType) row[1]));
+        }
+
+        return ResponseEntity.ok(new ArrayList<>(byPost.values())); // -> 200 OK, a kért sorrendben
+    }
+
     // PUT /api/forum/posts/{id}/react?type=LIKE – beállít/átír egy reakciót a usernek
     @PutMapping("/posts/{id}/react")
     public ResponseEntity<ReactionSummary> react(@PathVariable Long id,
@@ -72,25 +106,39 @@ public class PostReactionController {
                                                  Authentication auth) {
         if (auth == null || !auth.isAuthenticated()) return ResponseEntity.status(401).build(); // csak belépett user reagálhat -> 401 AUTH
 
-        var post = postRepo.findById(id).orElse(null); // létezik-e a poszt
-        if (post == null) return ResponseEntity.notFound().build(); // 404 ha nem
+        var category = postRepo.findCategoryById(id).orElse(null); // létezik-e a poszt (+ kategória az eseményhez)
+        if (category == null) return ResponseEntity.notFound().build(); // 404 ha nem
 
-        var me = userRepo.findByEmail(auth.getName()).orElse(null); // user beazonosítása
+        var me = AuthUser.of(auth); // user beazonosítása
         if (me == null) return ResponseEntity.status(403).build(); // ha nincs -> 403 Forbidden
 
-        var existing = reactionRepo.findByPost_IdAndUser_Id(id, me.getId()).orElse(null); // megnézzük van-e korábbi reakció
-        if (existing == null) { // ha nincs, akkor újat
-            var r = new PostReaction();
-            r.setPost(post); // poszthoz kapcsolás
-            r.setUser(me); // ki reagált
-            r.setType(type); // reakció típusa
-            reactionRepo.save(r); // mentés database-be
-
-        } else { // ha már van, akkor csak frissitjük
-            existing.setType(type);
-            reactionRepo.save(existing);
+        // A számlálót csak akkor módosítjuk, ha a DB-ben ténylegesen megtörtént az átmenet
+        boolean changed = false;
+        for (int attempt = 0; attempt < 2; attempt++) {
+            var existing = reactionRepo.findByPost_IdAndUser_Id(id, me.id()).orElse(null); // megnézzük van-e korábbi reakció
+            if (existing == null) { // ha nincs, akkor újat
+                var r = new PostReaction();
+                r.setPost(postRepo.getReferenceById(id)); // poszthoz kapcsolás (csak FK)
+                r.setUser(userRepo.getReferenceById(me.id())); // ki reagált (csak FK)
+                r.setType(type); // reakció típusa
+                try {
+                    reactionRepo.save(r); // mentés database-be
+                } catch (DataIntegrityViolationException e) {
+                    continue; // párhuzamos kérés már beszúrta (uk_post_user) -> újraolvasás, módosításként
+                }
+                counters.applyChange(id, null, type);
+                changed = true;
+
+            } else if (existing.getType() != type) { // ha már van, akkor csak frissitjük – feltételesen
+                if (reactionRepo.changeType(id, me.id(), existing.getType(), type, LocalDateTime.now()) == 1) {
+                    counters.applyChange(id, existing.getType(), type);
+                    changed = true;
+                }
+            }
+            break;
         }
 
+        if (changed) publishCounts(id, category);
         return getSummary(id, auth);
     }
 
@@ -99,17 +147,30 @@ public class PostReactionController {
     public ResponseEntity<ReactionSummary> removeReact(@PathVariable Long id, Authentication auth) {
         if (auth == null || !auth.isAuthenticated()) return ResponseEntity.status(401).build(); // -> Csak belépett user törölheti a saját reakcióját
 
-        var post = postRepo.findById(id).orElse(null); // Létezik-e a poszt
-        if (post == null) return ResponseEntity.notFound().build();
+        var category = postRepo.findCategoryById(id).orElse(null); // Létezik-e a poszt
+        if (category == null) return ResponseEntity.notFound().build();
 
-        var me = userRepo.findByEmail(auth.getName()).orElse(null); // USER lekérése
+        var me = AuthUser.of(auth); // USER
         if (me == null) return ResponseEntity.status(403).build();
 
-        // ha létezik -> töröljük
-        reactionRepo.findByPost_IdAndUser_Id(id, me.getId())
-                .ifPresent(reactionRepo::delete);
+        // ha létezik -> töröljük (feltételesen: csak egy párhuzamos törlés csökkenti a számlálót)
+        reactionRepo.findByPost_IdAndUser_Id(id, me.id()).ifPresent(r -> {
+            if (reactionRepo.deleteIfType(id, me.id(), r.getType()) == 1) {
+                counters.applyChange(id, r.getType(), null);
+                publishCounts(id, category);
+            }
+        });
 
         // -> Friss összegzés visszaadása
         return getSummary(id, auth);
     }
+
+    // a frissített számlálók az élő folyamba + új ETag a posztnak (a saját reakció nélkül: az feliratkozónként más)
+    private void publishCounts(Long postId, ForumCategory category) {
+        versions.bumpPost(postId);
+        var dto = new ReactionSummary();
+        dto.setPostId(postId);
+        dto.setCounts(counters.counts(postId));
+        events.publish(new ForumEvent(ForumEvent.Type.REACTIONS, postId, category, dto));
+    }
 }
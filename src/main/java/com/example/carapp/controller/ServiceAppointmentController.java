@@ -1,18 +1,28 @@
 package com.example.carapp.controller;
 
+import com.example.carapp.dto.AppointmentMapper;
+import com.example.carapp.dto.AppointmentResponse;
+import com.example.carapp.dto.PageCursor;
 import com.example.carapp.model.*;
 import com.example.carapp.repository.CarRepository;
 import com.example.carapp.repository.ServiceAppointmentRepository;
 import com.example.carapp.repository.ServiceCenterRepository;
 import com.example.carapp.repository.UserRepository;
+import com.example.carapp.security.AuthUser;
+import com.example.carapp.service.SlotBookingService;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/appointments") // -> Prefix: minden endpoint /api/appointments alatt
@@ -22,32 +32,60 @@ public class ServiceAppointmentController {
     private final CarRepository carRepository; // -> Autó tábla elérés
     private final UserRepository userRepository; // -> User tábla elérés
     private final ServiceCenterRepository centerRepository; // -> Szervizközpont tábla elérés
+    private final SlotBookingService slots; // -> Idősáv / beálló kapacitás
+    private final int defaultPageSize; // -> ha a kliens nem ad meg size-t
+    private final int maxPageSize; // -> ennél nagyobb oldalt nem adunk ki
+
+    // szűrés nélküli dátumhatárok (mindkét irányban bőven a valós adatokon kívül)
+    private static final LocalDateTime MIN_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_DATE = LocalDateTime.of(9999, 1, 1, 0, 0);
 
     public ServiceAppointmentController(ServiceAppointmentRepository appointmentRepository,
                                         CarRepository carRepository,
                                         UserRepository userRepository,
-                                        ServiceCenterRepository centerRepository) {
+                                        ServiceCenterRepository centerRepository,
+                                        SlotBookingService slots,
+                                        @Value("${appointments.page.default-size:20}") int defaultPageSize,
+                                        @Value("${appointments.page.max-size:100}") int maxPageSize) {
         this.appointmentRepository = appointmentRepository; // mezők beállítása
         this.carRepository = carRepository;
         this.userRepository = userRepository;
         this.centerRepository = centerRepository;
+        this.slots = slots;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
     }
 
-    // ADMIN: összes időpont
+    // ADMIN: összes időpont – lapozva (X-Next-Cursor), opcionális center / státusz / dátum [from, to] szűrővel
     @GetMapping
-    public List<ServiceAppointment> getAll() {
-        return appointmentRepository.findAll(); // -> Minden időpont visszaadása
+    public ResponseEntity<List<AppointmentResponse>> getAll(@RequestParam(required = false) Long centerId,
+                                                            @RequestParam(required = false) AppointmentStatus status,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                            @RequestParam(required = false) Integer size,
+                                                            @RequestParam(required = false) String cursor,
+                                                            Authentication auth) {
+        var me = AuthUser.of(auth);
+        if (me == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build(); // -> 401
+        if (!me.isAdmin()) return ResponseEntity.status(HttpStatus.FORBIDDEN).build(); // -> csak ADMIN
+
+        return page(null, centerId, status, from, to, size, cursor);
     }
 
-    // USER: saját időpontok listázása
+    // USER: saját időpontok listázása – lapozva, opcionális státusz / dátum szűrővel
     @GetMapping("/me")
-    public ResponseEntity<List<ServiceAppointment>> myAppointments(Authentication auth) {
+    public ResponseEntity<List<AppointmentResponse>> myAppointments(@RequestParam(required = false) AppointmentStatus status,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                    @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                    @RequestParam(required = false) Integer size,
+                                                                    @RequestParam(required = false) String cursor,
+                                                                    Authentication auth) {
         if (auth == null || !auth.isAuthenticated()) { // -> Ha nincs bejelentkezve 401
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         }
-        return userRepository.findByEmail(auth.getName()) // -> Email alapján keresés
-                .map(me -> ResponseEntity.ok(appointmentRepository.findByUser(me))) // -> Saját időpontok
-                .orElseGet(() -> ResponseEntity.status(HttpStatus.FORBIDDEN).build()); // -> 403, ha nincs rekord
+        var me = AuthUser.of(auth); // -> A JWT szűrő által feloldott user
+        if (me == null) return ResponseEntity.status(HttpStatus.FORBIDDEN).build(); // -> 403, ha nincs rekord
+        return page(me.id(), null, status, from, to, size, cursor); // -> Saját időpontok
     }
 
     // USER: új időpont (saját autó + KÖTELEZŐ center)
@@ -57,8 +95,10 @@ public class ServiceAppointmentController {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build(); // 401
         }
 
-        //  A bejelentkezett felhasználó lekérése
-        return userRepository.findByEmail(auth.getName())
+        //  A bejelentkezett felhasználó lekérése (ID alapján: a válaszban a neve is szerepel)
+        var me = AuthUser.of(auth);
+        Optional<User> owner = me == null ? Optional.empty() : userRepository.findById(me.id());
+        return owner
                 .<ResponseEntity<?>>map(user -> {
 
                     // --- Autó ---
@@ -80,8 +120,12 @@ public class ServiceAppointmentController {
                     if (centerOpt.isEmpty()) return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Service center not found");
                     var center = centerOpt.get();
 
-                    // --- Ütközés ellenőrzés (ugyanarra a kocsira, ugyanabban az időpontban már van foglalás?) ---
-                    if (appointmentRepository.existsByCar_IdAndServiceDateTime(car.getId(), req.getServiceDateTime())) {
+                    // --- Idősáv: a center slot-rácsára kell esnie ---
+                    String slotError = slots.checkSlot(center, req.getServiceDateTime());
+                    if (slotError != null) return ResponseEntity.badRequest().body(slotError); // 400
+
+                    // --- Ütközés ellenőrzés (a kocsinak van-e átfedő aktív foglalása, bármelyik centerben?) ---
+                    if (slots.carBusy(car.getId(), center, req.getServiceDateTime(), null)) {
                         return ResponseEntity.status(HttpStatus.CONFLICT).body("Time slot already booked for this car");
                     }
 
@@ -89,13 +133,12 @@ public class ServiceAppointmentController {
                     var appt = new ServiceAppointment(); // -> Új időpont entitás
                     appt.setCar(car); // -> Autó hozzárendelése
                     appt.setUser(user); // -> Foglaló user hozzárendelése
-                    appt.setCenter(center); // -> Választott szervizközpont
-                    appt.setServiceDateTime(req.getServiceDateTime()); // -> Időpont
                     appt.setDescription(req.getDescription()); // -> Leírás (opcionális)
                     appt.setStatus(AppointmentStatus.PENDING); // -> Kezdeti státusz: PENDING
                     appt.setCreatedAt(LocalDateTime.now()); // -> Létrehozás ideje
 
-                    return ResponseEntity.ok(appointmentRepository.save(appt)); // -> Mentés + 200 OK vissza
+                    // -> Center + időpont + szabad beálló: atomikus foglalás (egyedi megszorítás véd a dupla foglalás ellen)
+                    return reserve(appt, center, req.getServiceDateTime()); // -> 200 OK vissza (lapos DTO) vagy 409
                 })
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.FORBIDDEN).body("User not found")); // -> 403, ha nincs user
     }
@@ -108,38 +151,45 @@ public class ServiceAppointmentController {
         if (auth == null || !auth.isAuthenticated()) { // -> Auth ellenőrzés
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build(); // -> 401
         }
-        var me = userRepository.findByEmail(auth.getName()).orElse(null); // -> Bejelentkezett user betöltése
+        var me = AuthUser.of(auth); // -> Bejelentkezett user
         if (me == null) return ResponseEntity.status(HttpStatus.FORBIDDEN).build(); // -> 403
 
         return appointmentRepository.findById(id) // -> Időpont keresése ID alapján
                 .<ResponseEntity<?>>map(appt -> {
-                    if (!Objects.equals(appt.getUser().getId(), me.getId())) { // -> Csak a saját időpont módosítható
+                    if (!Objects.equals(appt.getUser().getId(), me.id())) { // -> Csak a saját időpont módosítható
                         return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not your appointment"); // -> 403
                     }
                     if (appt.getStatus() != AppointmentStatus.PENDING) { // -> Csak PENDING állapotban szerkeszthető
                         return ResponseEntity.status(HttpStatus.CONFLICT).body("Only PENDING appointments can be edited"); // -> 409
                     }
 
-                    // -> Ütközés ellenőrzés új dátum esetén (ugyanarra az autóra)
-                    if (updated.getServiceDateTime() != null &&
-                            appointmentRepository.existsByCar_IdAndServiceDateTime(
-                                    appt.getCar().getId(), updated.getServiceDateTime())) {
-                        return ResponseEntity.status(HttpStatus.CONFLICT).body("Time slot already booked for this car"); // -> 409
+                    var center = appt.getCenter();
+                    if (updated.getCenter() != null && updated.getCenter().getId() != null) { // -> Center csere (ha ID-t kaptunk)
+                        var cOpt = centerRepository.findById(updated.getCenter().getId()); // -> Új center ellenőrzése
+                        if (cOpt.isEmpty()) return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Service center not found"); // -> 404
+                        center = cOpt.get();
+                    }
+                    var when = updated.getServiceDateTime() != null ? updated.getServiceDateTime() : appt.getServiceDateTime();
+                    boolean moved = !Objects.equals(center.getId(), appt.getCenter().getId())
+                            || !Objects.equals(when, appt.getServiceDateTime()); // -> csak ekkor kell új hely
+
+                    if (moved) {
+                        String slotError = slots.checkSlot(center, when);
+                        if (slotError != null) return ResponseEntity.badRequest().body(slotError); // -> 400
+
+                        // -> Ütközés ellenőrzés új dátum esetén (ugyanarra az autóra, önmagát kivéve)
+                        if (slots.carBusy(appt.getCar().getId(), center, when, appt.getId())) {
+                            return ResponseEntity.status(HttpStatus.CONFLICT).body("Time slot already booked for this car"); // -> 409
+                        }
                     }
 
                     if (updated.getDescription() != null && !updated.getDescription().isBlank()) {
                         appt.setDescription(updated.getDescription()); // -> Leírás frissítése
                     }
-                    if (updated.getServiceDateTime() != null) {
-                        appt.setServiceDateTime(updated.getServiceDateTime()); // -> Időpont frissítése
-                    }
-                    if (updated.getCenter() != null && updated.getCenter().getId() != null) { // -> Center csere (ha ID-t kaptunk)
-                        var cOpt = centerRepository.findById(updated.getCenter().getId()); // -> Új center ellenőrzése
-                        if (cOpt.isEmpty()) return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Service center not found"); // -> 404
-                        appt.setCenter(cOpt.get()); // -> Új center beállítása
-                    }
+                    if (!moved) return ResponseEntity.ok(AppointmentMapper.toResponse(appointmentRepository.save(appt))); // -> Mentés és vissza
 
-                    return ResponseEntity.ok(appointmentRepository.save(appt)); // -> Mentés és vissza
+                    // -> Áthelyezés: új hely foglalása; sikernél a régi beálló ugyanazzal az UPDATE-tel szabadul fel
+                    return reserve(appt, center, when);
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build()); // -> 404, ha nincs ilyen ID
     }
@@ -150,15 +200,16 @@ public class ServiceAppointmentController {
         if (auth == null || !auth.isAuthenticated()) { // -> Auth ellenőrzés
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build(); // -> 401
         }
-        var me = userRepository.findByEmail(auth.getName()).orElse(null); // -> User betöltése
+        var me = AuthUser.of(auth); // -> Bejelentkezett user
         if (me == null) return ResponseEntity.<Void>status(HttpStatus.FORBIDDEN).build(); // -> 403
 
         return appointmentRepository.findById(id) // -> Időpont megkeresése
                 .<ResponseEntity<Void>>map(appt -> {
-                    if (!Objects.equals(appt.getUser().getId(), me.getId())) { // -> Csak saját időpont mondható le
+                    if (!Objects.equals(appt.getUser().getId(), me.id())) { // -> Csak saját időpont mondható le
                         return ResponseEntity.<Void>status(HttpStatus.FORBIDDEN).build(); // -> 403
                     }
                     appt.setStatus(AppointmentStatus.CANCELLED); // -> Státusz CANCELLED-re
+                    slots.release(appt); // -> A beálló felszabadul
                     appointmentRepository.save(appt); // -> Mentés
                     return ResponseEntity.<Void>noContent().build(); // -> 204 No Content (siker)
                 })
@@ -168,15 +219,83 @@ public class ServiceAppointmentController {
     // ADMIN: státusz módosítás
     @PutMapping("/{id}/status")
     public ResponseEntity<?> updateStatus(@PathVariable Long id,
-                                          @RequestParam AppointmentStatus status) {
+                                          @RequestParam AppointmentStatus status,
+                                          Authentication auth) {
+        var me = AuthUser.of(auth);
+        if (me == null) return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build(); // -> 401
+        if (!me.isAdmin()) return ResponseEntity.status(HttpStatus.FORBIDDEN).build(); // -> csak ADMIN
+
         if (status != AppointmentStatus.CONFIRMED && status != AppointmentStatus.CANCELLED) { // -> Csak ez a két státusz engedett itt
             return ResponseEntity.badRequest().body("Status must be CONFIRMED or CANCELLED"); // -> 400
         }
         return appointmentRepository.findById(id) // -> Időpont betöltése
                 .<ResponseEntity<?>>map(appt -> {
+                    if (status == AppointmentStatus.CANCELLED) {
+                        slots.release(appt); // -> A beálló felszabadul
+                    } else if (appt.getBay() == null && appt.getSlotStart() != null) {
+                        // -> Lemondott időpont visszaigazolása: újra helyet kell foglalni, a létrehozással azonos ellenőrzésekkel
+                        var start = appt.getSlotStart();
+                        String slotError = slots.checkSlot(appt.getCenter(), start);
+                        if (slotError != null) return ResponseEntity.badRequest().body(slotError); // -> 400
+                        if (!start.isAfter(LocalDateTime.now())) {
+                            return ResponseEntity.badRequest().body("Service date/time must be in the future"); // -> 400
+                        }
+                        if (slots.carBusy(appt.getCar().getId(), appt.getCenter(), start, appt.getId())) {
+                            return ResponseEntity.status(HttpStatus.CONFLICT).body("Time slot already booked for this car"); // -> 409
+                        }
+                        appt.setStatus(status);
+                        return reserve(appt, appt.getCenter(), start);
+                    }
                     appt.setStatus(status); // -> Státusz frissítése
-                    return ResponseEntity.ok(appointmentRepository.save(appt)); // -> Mentés és 200 OK
+                    return ResponseEntity.ok(AppointmentMapper.toResponse(appointmentRepository.save(appt))); // -> Mentés és 200 OK
                 })
                 .orElseGet(() -> ResponseEntity.notFound().build()); // -> 404, ha nincs ilyen időpont
     }
+
+    // --- private segédfüggvények ---
+
+    // Hely foglalása; 409, ha az idősáv betelt, vagy ha az autónak (párhuzamos kérésből) már van itt foglalása
+    private ResponseEntity<?> reserve(ServiceAppointment appt, ServiceCenter center, LocalDateTime start) {
+        try {
+            var saved = slots.reserve(appt, center, start);
+            if (saved == null) return ResponseEntity.status(HttpStatus.CONFLICT).body("Time slot is fully booked"); // -> 409
+            return ResponseEntity.ok(AppointmentMapper.toResponse(saved));
+        } catch (SlotBookingService.CarAlreadyBookedException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage()); // -> 409
+        }
+    }
+
+    // Egy oldal időpont (serviceDateTime desc, id desc) + a következő oldal kurzora a headerben
+    private ResponseEntity<List<AppointmentResponse>> page(Long userId, Long centerId, AppointmentStatus status,
+                                                           LocalDate from, LocalDate to, Integer size, String cursor) {
+        int pageSize = Math.max(1, Math.min(size != null ? size : defaultPageSize, maxPageSize)); // -> korlátok közé
+        PageRequest window = PageRequest.of(0, pageSize + 1); // -> +1 sor: van-e következő oldal
+
+        LocalDateTime lower = from != null ? from.atStartOfDay() : MIN_DATE; // -> from napja is benne van
+        LocalDateTime beforeTime = to != null ? to.plusDays(1).atStartOfDay() : MAX_DATE; // -> to napja is benne van
+        long beforeId = Long.MIN_VALUE; // -> első oldal: csak a dátumhatár számít
+        if (cursor != null && !cursor.isBlank()) {
+            PageCursor after = PageCursor.decode(cursor);
+            if (after == null) return ResponseEntity.status(HttpStatus.BAD_REQUEST).build(); // -> hibás kurzor
+            if (after.getTimestamp().isBefore(beforeTime)) { // -> a kurzor a tartományon belül szűkít
+                beforeTime = after.getTimestamp();
+                beforeId = after.getId();
+            }
+        }
+
+        List<AppointmentResponse> rows;
+        if (userId != null) rows = appointmentRepository.findPageByUser(userId, lower, beforeTime, beforeId, status, window);
+        else if (centerId != null) rows = appointmentRepository.findPageByCenter(centerId, lower, beforeTime, beforeId, status, window);
+        else rows = appointmentRepository.findPage(lower, beforeTime, beforeId, status, window);
+
+        boolean hasMore = rows.size() > pageSize;
+        if (hasMore) rows = rows.subList(0, pageSize);
+
+        ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+        if (hasMore) { // -> következő oldal tokenje az utolsó időpont kulcsából
+            AppointmentResponse last = rows.get(rows.size() - 1);
+            ok.header(PageCursor.HEADER, new PageCursor(last.getServiceDateTime(), last.getId()).encode());
+        }
+        return ok.body(rows);
+    }
 }
@@ -1,43 +1,83 @@
 package com.example.carapp.controller;
 
+import com.example.carapp.dto.LeaderboardEntry;
 import com.example.carapp.dto.ServiceCenterRequest;
 import com.example.carapp.dto.ServiceCenterResponse;
 import com.example.carapp.dto.ServiceVoteRequest;
+import com.example.carapp.dto.SlotAvailability;
 import com.example.carapp.model.ServiceCenter;
 import com.example.carapp.repository.ServiceCenterRepository;
-import com.example.carapp.repository.ServiceVoteRepository;
-import com.example.carapp.repository.UserRepository;
+import com.example.carapp.security.AuthUser;
+import com.example.carapp.service.CenterSearchIndex;
+import com.example.carapp.service.LeaderboardService;
+import com.example.carapp.service.ResourceVersions;
+import com.example.carapp.service.SlotBookingService;
 import jakarta.validation.Valid;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/centers") // -> Minden endpoint /api/centers alatt
 public class ServiceCenterController {
 
     private final ServiceCenterRepository centerRepo; // -> Szervizközpont CRUD
-    private final ServiceVoteRepository voteRepo; // -> Szavazatok kezelése
-    private final UserRepository userRepo; // -> User lookup (auth → user)
+    private final LeaderboardService leaderboard; // -> Szavazatok + havi ranglista
+    private final SlotBookingService slots; // -> Idősáv-kapacitás
+    private final CenterSearchIndex searchIndex; // -> Memóriabeli kereső (név / város / cím)
+    private final ResourceVersions versions; // -> ETag verziók (írásnál léptetjük)
+
+    // HTTP cache: a centerek ritkán változnak, a ranglista szavazásonként – böngésző / CDN ennyi ideig újrakérdezés nélkül használja
+    private static final CacheControl CENTERS_CACHE = CacheControl.maxAge(Duration.ofSeconds(60)).cachePublic();
+    private static final CacheControl TOP_CACHE = CacheControl.maxAge(Duration.ofSeconds(30)).cachePublic();
 
     public ServiceCenterController(ServiceCenterRepository centerRepo,
-                                   ServiceVoteRepository voteRepo,
-                                   UserRepository userRepo) {
+                                   LeaderboardService leaderboard,
+                                   SlotBookingService slots,
+                                   CenterSearchIndex searchIndex,
+                                   ResourceVersions versions) {
         this.centerRepo = centerRepo;
-        this.voteRepo = voteRepo;
-        this.userRepo = userRepo;
+        this.leaderboard = leaderboard;
+        this.slots = slots;
+        this.searchIndex = searchIndex;
+        this.versions = versions;
     }
 
-    // LISTA – publikus
+    // LISTA – publikus | ETag: változatlan listára 304, adatbázis nélkül
     @GetMapping
-    public List<ServiceCenter> list(@RequestParam(required = false) String city) { // -> Opcionális city szűrő
-        if (city != null && !city.isBlank()) return centerRepo.findByCityIgnoreCase(city); // -> Város szerinti szűrés
-        return centerRepo.findAll(); // -> Egyébként minden központ
+    public ResponseEntity<List<ServiceCenter>> list(@RequestParam(required = false) String city, // -> Opcionális city szűrő
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = versions.etag(null, ResourceVersions.CENTERS);
+        if (ResourceVersions.notModified(ifNoneMatch, etag)) // -> 304 Not Modified
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CENTERS_CACHE).build();
+
+        var result = (city != null && !city.isBlank())
+                ? searchIndex.byCity(city) // -> Város szerinti szűrés (index, ékezetfüggetlen)
+                : centerRepo.findAll(); // -> Egyébként minden központ
+        return ResponseEntity.ok().eTag(etag).cacheControl(CENTERS_CACHE).body(result);
+    }
+
+    // KERESÉS / AUTOCOMPLETE – publikus | szó-prefix, ékezetfüggetlen (pl. "gyo" → Győr), lapozva
+    @GetMapping("/search")
+    public ResponseEntity<List<ServiceCenterResponse>> search(@RequestParam String q,
+                                                              @RequestParam(defaultValue = "0") int page,
+                                                              @RequestParam(defaultValue = "10") int size,
+                                                              @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        String etag = versions.etag(null, ResourceVersions.CENTERS);
+        if (ResourceVersions.notModified(ifNoneMatch, etag)) // -> 304 Not Modified
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CENTERS_CACHE).build();
+
+        int pageSize = Math.max(1, Math.min(size, CenterSearchIndex.MAX_PAGE_SIZE)); // -> korlátok közé
+        var result = searchIndex.search(q, page, pageSize).stream()
+                .map(ServiceCenterController::toResponse) // -> Entity → DTO
+                .toList();
+        return ResponseEntity.ok().eTag(etag).cacheControl(CENTERS_CACHE).body(result); // -> 200 OK (nincs találat: üres lista)
     }
 
     // LÉTREHOZÁS – ADMIN (SecurityConfig-ben védd hasAuthority("ADMIN")-nal)
@@ -45,16 +85,30 @@ public class ServiceCenterController {
     public ResponseEntity<ServiceCenterResponse> create(@Valid @RequestBody ServiceCenterRequest req) { // -> Validált bejövő DTO
         var sc = new ServiceCenter(req.getName(), req.getCity(), req.getAddress()); // -> Új entitás DTO-ból
         sc.setPlaceId(req.getPlaceId()); // -> Opcionális Google Place ID
+        if (req.getSlotMinutes() != null) sc.setSlotMinutes(req.getSlotMinutes()); // -> Opcionális kapacitás
+        if (req.getBays() != null) sc.setBays(req.getBays());
         var saved = centerRepo.save(sc); // -> Mentés DB-be
+        searchIndex.add(saved); // -> azonnal kereshető
+        versions.bump(ResourceVersions.CENTERS); // -> a lista / keresés ETag-je változik
 
-        // -> Kimenő DTO
-        var resp = new ServiceCenterResponse();
-        resp.setId(saved.getId());
-        resp.setName(saved.getName());
-        resp.setCity(saved.getCity());
-        resp.setAddress(saved.getAddress());
-        resp.setPlaceId(saved.getPlaceId());
-        return ResponseEntity.status(HttpStatus.CREATED).body(resp);
+        return ResponseEntity.status(HttpStatus.CREATED).body(toResponse(saved)); // -> 201 + Kimenő DTO
+    }
+
+    // SZABAD IDŐSÁVOK – publikus | from..to napok (alapból ma + 7 nap), max. 31 nap
+    @GetMapping("/{id}/availability")
+    public ResponseEntity<?> availability(@PathVariable Long id,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        var center = centerRepo.findById(id).orElse(null); // -> Center létezik?
+        if (center == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Center not found"); // -> 404
+
+        LocalDate start = from == null ? LocalDate.now() : from; // -> Alapból mától
+        LocalDate end = to == null ? start.plusDays(6) : to; // -> Alapból egy hét
+        if (end.isBefore(start) || end.isAfter(start.plusDays(SlotBookingService.MAX_RANGE_DAYS - 1))) {
+            return ResponseEntity.badRequest().body("Invalid range (max " + SlotBookingService.MAX_RANGE_DAYS + " days)"); // -> 400
+        }
+        List<SlotAvailability> result = slots.availability(center, start, end);
+        return ResponseEntity.ok(result); // -> 200 OK + idősávok
     }
 
     // SZAVAZÁS – AUTH (1–5) | havi egy szavazat / center / user
@@ -65,59 +119,60 @@ public class ServiceCenterController {
         if (auth == null || !auth.isAuthenticated()) { // -> Auth ellenőrzés
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build(); // -> 401
         }
-        var user = userRepo.findByEmail(auth.getName()).orElse(null); // -> Bejelentkezett user betöltése
-        if (user == null) return ResponseEntity.status(HttpStatus.FORBIDDEN).build(); // -> 403
+        var me = AuthUser.of(auth); // -> Bejelentkezett user (a JWT szűrő már feloldotta)
+        if (me == null) return ResponseEntity.status(HttpStatus.FORBIDDEN).build(); // -> 403
 
-        var center = centerRepo.findById(id).orElse(null); // -> Center létezik?
-        if (center == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Center not found"); // -> 404
+        if (!centerRepo.existsById(id)) return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Center not found"); // -> 404 (csak PK ellenőrzés)
 
         var now = LocalDate.now(); // -> Mai dátum
         int y = now.getYear(); // -> Év
         int m = now.getMonthValue(); // -> Hónap
 
-        // -> Megnézzük: szavazott-e már ez a user ebben a hónapban erre a centerre?
-        var existing = voteRepo.findByUser_IdAndCenter_IdAndVoteYearAndVoteMonth(user.getId(), id, y, m);
-        if (existing.isPresent()) {
-            var v = existing.get(); // -> Van előző szavazat → frissítjük az értéket
-            v.setRating(req.getRating());
-            voteRepo.save(v); // -> Mentés
-            return ResponseEntity.ok("Updated your vote for this month"); // -> 200 OK
+        // -> Van már havi szavazata? → frissítjük, különben új rekord; a ranglista ugyanabban a tranzakcióban változik
+        for (int attempt = 0; ; attempt++) {
+            try {
+                boolean created = leaderboard.castVote(me.id(), id, y, m, req.getRating()); // -> PostgreSQL-en egyetlen upsert
+                versions.bump(ResourceVersions.LEADERBOARD); // -> a ranglista ETag-je változik (commit után)
+                if (!created) return ResponseEntity.ok("Updated your vote for this month"); // -> 200 OK
+                return ResponseEntity.status(HttpStatus.CREATED).body("Vote saved"); // -> 201
+            } catch (DataIntegrityViolationException e) {
+                if (attempt == 1) throw e; // párhuzamos kérés már beszúrta (szavazat / havi sor) -> egyszer újra, módosításként
+            }
         }
-
-        // -> Nincs még havi szavazat → új rekord
-        var v = new com.example.carapp.model.ServiceVote();
-        v.setUser(user);  // Felhasználó
-        v.setCenter(center); // Központ
-        v.setRating(req.getRating()); // Értékelés
-        v.setVoteYear(y); // Év
-        v.setVoteMonth(m); // Hónap
-        voteRepo.save(v);
-
-        return ResponseEntity.status(HttpStatus.CREATED).body("Vote saved");
     }
 
-    // TOP HAVI SZERVIZEK – publikus (átlag + darab)
+    // TOP HAVI SZERVIZEK – publikus (átlag + darab) | memóriában rendezett ranglistából, opcionális limit
     @GetMapping("/top")
     public ResponseEntity<?> monthlyTop(@RequestParam(required = false) Integer year,
-                                        @RequestParam(required = false) Integer month) {
+                                        @RequestParam(required = false) Integer month,
+                                        @RequestParam(required = false) Integer limit,
+                                        @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         var now = LocalDate.now(); // -> Ha nincs megadva year/month, akkor aktuális
         int y = (year == null ? now.getYear() : year); // -> Év default
         int m = (month == null ? now.getMonthValue() : month); // -> Hónap default
+        if (m < 1 || m > 12) return ResponseEntity.badRequest().body("Month must be 1-12"); // -> 400
+
+        // az év/hónap is az ETag része: paraméter nélkül a hónap fordulóján ugyanaz az URL más listát ad
+        String etag = versions.etag(y + "." + m, ResourceVersions.LEADERBOARD, ResourceVersions.CENTERS);
+        if (ResourceVersions.notModified(ifNoneMatch, etag)) // -> 304 Not Modified
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(TOP_CACHE).build();
 
-        var rows = voteRepo.findMonthlyTopCenters(y, m); // aggregáló lekérdezés
-
-        // -> A lekérdezés eredményét (Object[] sorokat) beszabjuk szép JSON-ra
-        List<Map<String, Object>> result = rows.stream().map((Object[] r) -> {
-            Map<String, Object> obj = new LinkedHashMap<>(); // -> LinkedHashMap = sorrendet tartja
-            obj.put("centerId",  r[0]); // -> Center ID
-            obj.put("name",      r[1]); // -> Név
-            obj.put("city",      r[2]); // -> Város
-            obj.put("address",   r[3]); // -> Cím
-            obj.put("avgRating", r[4]); // -> Havi átlagos értékelés
-            obj.put("votes",     r[5]); // -> Szavazatok száma
-            return obj; // <- már Map-ként tér vissza
-        }).toList();
-
-        return ResponseEntity.ok(result); // -> 200 OK + top lista
+        List<LeaderboardEntry> result = leaderboard.top(y, m, limit); // -> kész, rendezett lista (nincs aggregálás)
+        return ResponseEntity.ok().eTag(etag).cacheControl(TOP_CACHE).body(result); // -> 200 OK + top lista
+    }
+
+    // --- private segédfüggvények ---
+
+    // Entity → kimenő DTO
+    private static ServiceCenterResponse toResponse(ServiceCenter c) {
+        var resp = new ServiceCenterResponse();
+        resp.setId(c.getId());
+        resp.setName(c.getName());
+        resp.setCity(c.getCity());
+        resp.setAddress(c.getAddress());
+        resp.setPlaceId(c.getPlaceId());
+        resp.setSlotMinutes(c.getSlotMinutes());
+        resp.setBays(c.getBays());
+        return resp;
     }
 }
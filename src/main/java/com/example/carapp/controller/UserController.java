@@ -5,14 +5,18 @@ import com.example.carapp.dto.UserResponse;
 import com.example.carapp.dto.UserMapper;
 import com.example.carapp.model.User;
 import com.example.carapp.repository.UserRepository;
+import com.example.carapp.security.PasswordHashing;
+import com.example.carapp.security.PrincipalCache;
+import com.example.carapp.service.JsonArrayStreamer;
 import jakarta.validation.Valid;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import java.net.URI;
-import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Ez az osztály kezeli a felhasználók CRUD műveleteit.
@@ -25,11 +29,16 @@ import java.util.List;
 public class UserController {
 
     private final UserRepository userRepository; // -> Adatbázis műveletek
-    private final PasswordEncoder passwordEncoder;  // -> Jelszó hash-elés
+    private final PasswordHashing hashing;  // -> Jelszó hash-elés (BCrypt szálkészleten)
+    private final PrincipalCache principals; // -> Bejelentkezett userek cache-e (módosításkor ürítjük)
+    private final JsonArrayStreamer streamer; // -> Nagy listák streamelt kiírása
 
-    public UserController(UserRepository userRepository, PasswordEncoder passwordEncoder) {
+    public UserController(UserRepository userRepository, PasswordHashing hashing, PrincipalCache principals,
+                          JsonArrayStreamer streamer) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.hashing = hashing;
+        this.principals = principals;
+        this.streamer = streamer;
     }
 
     /**
@@ -39,25 +48,26 @@ public class UserController {
      */
 
     @PostMapping("")
-    public ResponseEntity<UserResponse> createUser(@Valid @RequestBody UserRequest req,
-                                                   UriComponentsBuilder uriBuilder) { // -> Location header építéséhez
+    public CompletableFuture<ResponseEntity<UserResponse>> createUser(@Valid @RequestBody UserRequest req,
+                                                                      UriComponentsBuilder uriBuilder) { // -> Location header építéséhez
         User entity = UserMapper.toEntity(req); // -> DTO → Entity
-        entity.setPassword(passwordEncoder.encode(entity.getPassword())); // -> Jelszó hash-elése
-        User saved = userRepository.save(entity); // -> Mentés DB-be
+        UriComponentsBuilder path = uriBuilder.path("/api/users/{id}"); // -> a kérés szálán építjük (request kontextus kell hozzá)
+        return hashing.encode(entity.getPassword()).thenApplyAsync(hash -> {
+            entity.setPassword(hash); // -> Jelszó hash-elése
+            User saved = userRepository.save(entity); // -> Mentés DB-be
 
-        URI location = uriBuilder.path("/api/users/{id}") // -> Location header: az új erőforrás URL-je
-                .buildAndExpand(saved.getId()).toUri();
-        return ResponseEntity.created(location).body(UserMapper.toResponse(saved)); // -> 201 Created + Location + Kimenő DTO (jelszó nélkül)
+            URI location = path.buildAndExpand(saved.getId()).toUri(); // -> Location header: az új erőforrás URL-je
+            return ResponseEntity.created(location).body(UserMapper.toResponse(saved)); // -> 201 Created + Location + Kimenő DTO (jelszó nélkül)
+        }, hashing.callbacks());
     }
 
     // Az összes USER lekérése -> 200 OK
     @GetMapping("")
-    public ResponseEntity<List<UserResponse>> getAllUsers() {
-        List<UserResponse> list = userRepository.findAll() // -> Összes user
-                .stream()
-                .map(UserMapper::toResponse) // -> Entity → DTO (jelszó nélkül)
-                .toList();
-        return ResponseEntity.ok(list); // -> 200 OK
+    public ResponseEntity<StreamingResponseBody> getAllUsers() {
+        return ResponseEntity.ok() // -> 200 OK
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(streamer.jsonArray(userRepository::streamResponses, // -> Összes user, adatbázis-kurzorból soronként
+                        user -> user)); // -> közvetlenül DTO (jelszó nélkül)
     }
 
     // ID alapján USER lekérése, ha OK -> 200 OK, ha nem található -> 404 Not Found
@@ -74,21 +84,27 @@ public class UserController {
      * ha nem létezik -> 404 Not Found
      */
     @PutMapping("/{id}")
-    public ResponseEntity<UserResponse> updateUser(@PathVariable Long id,
-                                                   @Valid @RequestBody UserRequest req) { // -> Validált bejövő DTO
-        return userRepository.findById(id) // -> Meglévő user keresése
-                .map(u -> {
-                    u.setName(req.getName()); // -> Név frissítése
-                    u.setEmail(req.getEmail()); // -> Email frissítése
-
-                    // jelszó csak akkor frissül, ha ténylegesen került létrehozásra új
-                    if (req.getPassword() != null && !req.getPassword().isBlank()) {
-                        u.setPassword(passwordEncoder.encode(req.getPassword())); // -> Hash újra
-                    }
-                    User saved = userRepository.save(u); // -> Mentés
-                    return ResponseEntity.ok(UserMapper.toResponse(saved)); // -> 200 OK + DTO
-                })
-                .orElseGet(() -> ResponseEntity.<UserResponse>notFound().build()); // -> 404, ha nincs ilyen user
+    public CompletableFuture<ResponseEntity<UserResponse>> updateUser(@PathVariable Long id,
+                                                                      @Valid @RequestBody UserRequest req) { // -> Validált bejövő DTO
+        User u = userRepository.findById(id).orElse(null); // -> Meglévő user keresése
+        if (u == null) return CompletableFuture.completedFuture(ResponseEntity.notFound().build()); // -> 404, ha nincs ilyen user
+
+        // jelszó csak akkor frissül, ha ténylegesen került létrehozásra új -> csak ekkor van BCrypt munka
+        boolean newPassword = req.getPassword() != null && !req.getPassword().isBlank();
+        CompletableFuture<String> hash = newPassword
+                ? hashing.encode(req.getPassword())
+                : CompletableFuture.completedFuture(null);
+
+        return hash.thenApplyAsync(h -> {
+            principals.evict(u.getEmail()); // -> régi email: a cache-elt név/email elavul
+            u.setName(req.getName()); // -> Név frissítése
+            u.setEmail(req.getEmail()); // -> Email frissítése
+            if (h != null) u.setPassword(h); // -> Hash újra
+
+            User saved = userRepository.save(u); // -> Mentés
+            principals.evict(saved.getEmail()); // -> új email (ha változott)
+            return ResponseEntity.ok(UserMapper.toResponse(saved)); // -> 200 OK + DTO
+        }, hashing.callbacks());
     }
 
     // DELETE ID alapján -> 204,ha OK vagy 404, ha NOT Found
@@ -97,6 +113,7 @@ public class UserController {
         return userRepository.findById(id) // -> Keresés ID alapján
                 .map(u -> {
                     userRepository.deleteById(id); // -> Törlés
+                    principals.evict(u.getEmail()); // -> cache-ből is
                     return ResponseEntity.noContent().<Void>build(); // -> 204 No Content
                 })
                 .orElseGet(() -> ResponseEntity.<Void>notFound().build()); // -> 404
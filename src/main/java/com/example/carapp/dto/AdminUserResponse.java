@@ -0,0 +1,38 @@
+package com.example.carapp.dto;
+
+import com.example.carapp.model.Role;
+
+/*
+ * USER adatok az admin felülethez (szerver → kliens): a UserResponse mezői + szerepkör.
+ * Jelszót NEM tartalmaz!
+ */
+
+public class AdminUserResponse {
+    private Long id;
+    private String name;
+    private String email;
+    private Role role; // -> USER / ADMIN
+
+    public AdminUserResponse() {}
+
+    // JPQL konstruktor-projekcióhoz is (select new ...)
+    public AdminUserResponse(Long id, String name, String email, Role role) {
+        this.id = id;
+        this.name = name;
+        this.email = email;
+        this.role = role;
+    }
+
+    // getters & setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getEmail() { return email; }
+    public void setEmail(String email) { this.email = email; }
+
+    public Role getRole() { return role; }
+    public void setRole(Role role) { this.role = role; }
+}
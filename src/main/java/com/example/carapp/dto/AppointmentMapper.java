@@ -0,0 +1,19 @@
+package com.example.carapp.dto;
+
+import com.example.carapp.model.ServiceAppointment;
+
+/* Segédosztály: ServiceAppointment entitás → AppointmentResponse (foglalás / módosítás utáni válaszhoz).
+ * A listák a ServiceAppointmentRepository projekcióiból közvetlenül DTO-t kapnak.
+ */
+
+public class AppointmentMapper {
+
+    // Entity → DTO (válasz)
+    public static AppointmentResponse toResponse(ServiceAppointment a) {
+        return new AppointmentResponse(a.getId(), a.getServiceDateTime(), a.getBay(), a.getStatus(),
+                a.getDescription(), a.getCreatedAt(),
+                a.getCar().getId(), a.getCar().getBrand(), a.getCar().getModel(),
+                a.getUser().getId(), a.getUser().getName(),
+                a.getCenter().getId(), a.getCenter().getName(), a.getCenter().getCity());
+    }
+}
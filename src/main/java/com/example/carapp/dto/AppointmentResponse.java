@@ -0,0 +1,92 @@
+package com.example.carapp.dto;
+
+import com.example.carapp.model.AppointmentStatus;
+
+import java.time.LocalDateTime;
+
+public class AppointmentResponse { // Kimenő DTO egy szervizidőponthoz (lapos: autó / user / center csak id + név)
+    private Long id; // Időpont azonosító
+    private LocalDateTime serviceDateTime; // Időpont
+    private Integer bay; // Kiosztott beálló (null: lemondott / régi foglalás)
+    private AppointmentStatus status; // PENDING / CONFIRMED / CANCELLED
+    private String description; // Leírás
+    private LocalDateTime createdAt; // Foglalás ideje
+
+    private Long carId; // Autó
+    private String carBrand;
+    private String carModel;
+
+    private Long userId; // Foglaló
+    private String userName;
+
+    private Long centerId; // Szervizközpont
+    private String centerName;
+    private String centerCity;
+
+    public AppointmentResponse() {}
+
+    // JPQL konstruktor-projekcióhoz (select new ...): entitásgráf betöltése nélkül, egy SQL oldalanként
+    public AppointmentResponse(Long id, LocalDateTime serviceDateTime, Integer bay, AppointmentStatus status,
+                               String description, LocalDateTime createdAt,
+                               Long carId, String carBrand, String carModel,
+                               Long userId, String userName,
+                               Long centerId, String centerName, String centerCity) {
+        this.id = id;
+        this.serviceDateTime = serviceDateTime;
+        this.bay = bay;
+        this.status = status;
+        this.description = description;
+        this.createdAt = createdAt;
+        this.carId = carId;
+        this.carBrand = carBrand;
+        this.carModel = carModel;
+        this.userId = userId;
+        this.userName = userName;
+        this.centerId = centerId;
+        this.centerName = centerName;
+        this.centerCity = centerCity;
+    }
+
+    // --- Getters/Setters ---
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public LocalDateTime getServiceDateTime() { return serviceDateTime; }
+    public void setServiceDateTime(LocalDateTime serviceDateTime) { this.serviceDateTime = serviceDateTime; }
+
+    public Integer getBay() { return bay; }
+    public void setBay(Integer bay) { this.bay = bay; }
+
+    public AppointmentStatus getStatus() { return status; }
+    public void setStatus(AppointmentStatus status) { this.status = status; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public Long getCarId() { return carId; }
+    public void setCarId(Long carId) { this.carId = carId; }
+
+    public String getCarBrand() { return carBrand; }
+    public void setCarBrand(String carBrand) { this.carBrand = carBrand; }
+
+    public String getCarModel() { return carModel; }
+    public void setCarModel(String carModel) { this.carModel = carModel; }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getUserName() { return userName; }
+    public void setUserName(String userName) { this.userName = userName; }
+
+    public Long getCenterId() { return centerId; }
+    public void setCenterId(Long centerId) { this.centerId = centerId; }
+
+    public String getCenterName() { return centerName; }
+    public void setCenterName(String centerName) { this.centerName = centerName; }
+
+    public String getCenterCity() { return centerCity; }
+    public void setCenterCity(String centerCity) { this.centerCity = centerCity; }
+}
@@ -0,0 +1,16 @@
+package com.example.carapp.dto;
+
+import com.example.carapp.model.Car;
+
+/* Segédosztály: Car entitás → CarResponse (mentés / módosítás utáni válaszhoz).
+ * A listák a CarRepository projekcióiból közvetlenül DTO-t kapnak.
+ */
+
+public class CarMapper {
+
+    // Entity → DTO (válasz)
+    public static CarResponse toResponse(Car entity) {
+        return new CarResponse(entity.getId(), entity.getBrand(), entity.getModel(), entity.getYear(),
+                entity.getOwner().getId(), entity.getOwner().getName());
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.carapp.dto;
+
+public class CarResponse { // Kimenő DTO egy autóhoz (lapos: a tulajdonos csak id + név)
+    private Long id; // Autó azonosító
+    private String brand; // Márka
+    private String model; // Típus
+    private Integer year; // Évjárat
+
+    private Long ownerId; // Tulajdonos
+    private String ownerName;
+
+    public CarResponse() {}
+
+    // JPQL konstruktor-projekcióhoz (select new ...): csak a kiírt oszlopok, owner entitás betöltése nélkül
+    public CarResponse(Long id, String brand, String model, Integer year, Long ownerId, String ownerName) {
+        this.id = id;
+        this.brand = brand;
+        this.model = model;
+        this.year = year;
+        this.ownerId = ownerId;
+        this.ownerName = ownerName;
+    }
+
+    // --- Getters/Setters ---
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getBrand() { return brand; }
+    public void setBrand(String brand) { this.brand = brand; }
+
+    public String getModel() { return model; }
+    public void setModel(String model) { this.model = model; }
+
+    public Integer getYear() { return year; }
+    public void setYear(Integer year) { this.year = year; }
+
+    public Long getOwnerId() { return ownerId; }
+    public void setOwnerId(Long ownerId) { this.ownerId = ownerId; }
+
+    public String getOwnerName() { return ownerName; }
+    public void setOwnerName(String ownerName) { this.ownerName = ownerName; }
+}
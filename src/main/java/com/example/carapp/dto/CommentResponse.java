@@ -15,6 +15,17 @@ public class CommentResponse {
     private String content;
     private LocalDateTime createdAt;
 
+    public CommentResponse() {}
+
+    // JPQL konstruktor-projekcióhoz (select new ...), a szerzővel együtt egy lekérdezésben
+    public CommentResponse(Long id, Long authorId, String authorName, String content, LocalDateTime createdAt) {
+        this.id = id;
+        this.authorId = authorId;
+        this.authorName = authorName;
+        this.content = content;
+        this.createdAt = createdAt;
+    }
+
     // getters/setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -0,0 +1,34 @@
+package com.example.carapp.dto;
+
+import com.example.carapp.model.ForumCategory;
+
+public class ForumEvent { // -> SZERVER → KLIENS (SSE): egy fórumesemény az élő folyamban
+
+    public enum Type { POST_CREATED, POST_UPDATED, POST_DELETED, COMMENT_CREATED, COMMENT_DELETED, REACTIONS }
+
+    private long id; // -> Sorszám (SSE id mező), növekvő
+    private Type type; // -> Esemény típusa
+    private Long postId; // -> Érintett poszt
+    private ForumCategory category; // -> A poszt kategóriája (szűréshez)
+    private Object data; // -> PostResponse / CommentResponse / ReactionSummary, törlésnél null
+
+    public ForumEvent() {}
+
+    public ForumEvent(Type type, Long postId, ForumCategory category, Object data) {
+        this.type = type;
+        this.postId = postId;
+        this.category = category;
+        this.data = data;
+    }
+
+    public long getId() { return id; }
+    public void setId(long id) { this.id = id; }
+    public Type getType() { return type; }
+    public void setType(Type type) { this.type = type; }
+    public Long getPostId() { return postId; }
+    public void setPostId(Long postId) { this.postId = postId; }
+    public ForumCategory getCategory() { return category; }
+    public void setCategory(ForumCategory category) { this.category = category; }
+    public Object getData() { return data; }
+    public void setData(Object data) { this.data = data; }
+}
@@ -0,0 +1,41 @@
+package com.example.carapp.dto;
+
+import java.time.LocalDateTime;
+
+public class ForumSearchHit { // -> SZERVER → KLIENS: egy fórumkeresési találat (poszt vagy komment)
+    private String type; // -> "POST" vagy "COMMENT"
+    private Long postId; // -> A poszt ID-ja (kommentnél a szülő poszté)
+    private Long commentId; // -> Komment ID (posztnál null)
+    private String title; // -> A poszt címe
+    private String snippet; // -> A szöveg eleje
+    private LocalDateTime createdAt; // -> Létrehozás ideje
+    private double score; // -> BM25 pontszám (nagyobb = relevánsabb)
+
+    public ForumSearchHit() {}
+
+    public ForumSearchHit(String type, Long postId, Long commentId, String title, String snippet,
+                          LocalDateTime createdAt, double score) {
+        this.type = type;
+        this.postId = postId;
+        this.commentId = commentId;
+        this.title = title;
+        this.snippet = snippet;
+        this.createdAt = createdAt;
+        this.score = score;
+    }
+
+    public String getType() { return type; }
+    public void setType(String type) { this.type = type; }
+    public Long getPostId() { return postId; }
+    public void setPostId(Long postId) { this.postId = postId; }
+    public Long getCommentId() { return commentId; }
+    public void setCommentId(Long commentId) { this.commentId = commentId; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getSnippet() { return snippet; }
+    public void setSnippet(String snippet) { this.snippet = snippet; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public double getScore() { return score; }
+    public void setScore(double score) { this.score = score; }
+}
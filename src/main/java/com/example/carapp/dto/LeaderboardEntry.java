@@ -0,0 +1,34 @@
+package com.example.carapp.dto;
+
+public class LeaderboardEntry { // -> SZERVER → KLIENS: egy sor a havi szervizranglistából
+    private Long centerId; // -> Center ID
+    private String name; // -> Név
+    private String city; // -> Város
+    private String address; // -> Cím
+    private Double avgRating; // -> Havi átlagos értékelés
+    private Long votes; // -> Szavazatok száma
+
+    public LeaderboardEntry() {}
+
+    public LeaderboardEntry(Long centerId, String name, String city, String address, Double avgRating, Long votes) {
+        this.centerId = centerId;
+        this.name = name;
+        this.city = city;
+        this.address = address;
+        this.avgRating = avgRating;
+        this.votes = votes;
+    }
+
+    public Long getCenterId() { return centerId; }
+    public void setCenterId(Long centerId) { this.centerId = centerId; }
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    public String getCity() { return city; }
+    public void setCity(String city) { this.city = city; }
+    public String getAddress() { return address; }
+    public void setAddress(String address) { this.address = address; }
+    public Double getAvgRating() { return avgRating; }
+    public void setAvgRating(Double avgRating) { this.avgRating = avgRating; }
+    public Long getVotes() { return votes; }
+    public void setVotes(Long votes) { this.votes = votes; }
+}
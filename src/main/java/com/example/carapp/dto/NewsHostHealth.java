@@ -0,0 +1,41 @@
+package com.example.carapp.dto;
+
+/**
+ * Egy hírforrás-host circuit breaker állapota és késleltetési statisztikái (admin nézet).
+ */
+public class NewsHostHealth {
+    private String host; // -> pl. www.utinform.hu
+    private String state; // -> CLOSED / OPEN / HALF_OPEN
+    private int consecutiveFailures; // -> Egymás utáni hibák száma
+    private long successes; // -> Sikeres kérések
+    private long failures; // -> Sikertelen kérések
+    private long rejected; // -> Nyitott circuit miatt ki sem küldött kérések
+    private int samples; // -> Hány késleltetési minta alapján számolunk
+    private long p50Ms; // -> Medián késleltetés
+    private long p95Ms;
+    private long p99Ms;
+    private int timeoutMs; // -> Jelenleg használt (adaptív) timeout
+
+    public String getHost() { return host; }
+    public void setHost(String host) { this.host = host; }
+    public String getState() { return state; }
+    public void setState(String state) { this.state = state; }
+    public int getConsecutiveFailures() { return consecutiveFailures; }
+    public void setConsecutiveFailures(int consecutiveFailures) { this.consecutiveFailures = consecutiveFailures; }
+    public long getSuccesses() { return successes; }
+    public void setSuccesses(long successes) { this.successes = successes; }
+    public long getFailures() { return failures; }
+    public void setFailures(long failures) { this.failures = failures; }
+    public long getRejected() { return rejected; }
+    public void setRejected(long rejected) { this.rejected = rejected; }
+    public int getSamples() { return samples; }
+    public void setSamples(int samples) { this.samples = samples; }
+    public long getP50Ms() { return p50Ms; }
+    public void setP50Ms(long p50Ms) { this.p50Ms = p50Ms; }
+    public long getP95Ms() { return p95Ms; }
+    public void setP95Ms(long p95Ms) { this.p95Ms = p95Ms; }
+    public long getP99Ms() { return p99Ms; }
+    public void setP99Ms(long p99Ms) { this.p99Ms = p99Ms; }
+    public int getTimeoutMs() { return timeoutMs; }
+    public void setTimeoutMs(int timeoutMs) { this.timeoutMs = timeoutMs; }
+}
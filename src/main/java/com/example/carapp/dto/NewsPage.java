@@ -0,0 +1,19 @@
+package com.example.carapp.dto;
+
+import java.util.List;
+
+/**
+ * Egy oldalnyi archivált hír + a következő oldal kurzora (null, ha nincs több).
+ */
+public class NewsPage {
+    private final List<NewsItem> items; // -> Hírek (legújabb elöl)
+    private final String nextCursor; // -> Következő oldal tokenje
+
+    public NewsPage(List<NewsItem> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<NewsItem> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+}
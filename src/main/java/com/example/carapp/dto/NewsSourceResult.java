@@ -0,0 +1,41 @@
+package com.example.carapp.dto;
+
+import com.example.carapp.model.NewsSource;
+
+import java.util.List;
+
+/**
+ * Egy forrás eredménye az összesítő (/api/news/all) válaszban.
+ * A status a forrás pillanatképének állapotát jelzi (NewsFeedCache).
+ */
+public class NewsSourceResult {
+
+    public enum Status {
+        COMPLETE, // -> friss pillanatkép
+        PARTIAL,  // -> lejárt pillanatkép (a frissítés folyamatban van vagy hibázott)
+        FAILED    // -> még nincs pillanatkép, és a határidőig sem készült el
+    }
+
+    private NewsSource source; // -> Forrás azonosító
+    private String label; // -> Forrás megjelenített neve
+    private Status status; // -> Teljes / részleges / sikertelen
+    private List<NewsItem> items; // -> Összegyűjtött hírek
+
+    public NewsSourceResult() {}
+
+    public NewsSourceResult(NewsSource source, Status status, List<NewsItem> items) {
+        this.source = source;
+        this.label = source.getLabel();
+        this.status = status;
+        this.items = items;
+    }
+
+    public NewsSource getSource() { return source; }
+    public void setSource(NewsSource source) { this.source = source; }
+    public String getLabel() { return label; }
+    public void setLabel(String label) { this.label = label; }
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+    public List<NewsItem> getItems() { return items; }
+    public void setItems(List<NewsItem> items) { this.items = items; }
+}
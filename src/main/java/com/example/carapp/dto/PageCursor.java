@@ -0,0 +1,43 @@
+package com.example.carapp.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Keyset lapozás kurzora: (időbélyeg, id) pár, a kliens felé átlátszatlan tokenként.
+ * A token a következő oldal kérésekor jön vissza (?cursor=...), a válaszban
+ * az X-Next-Cursor fejlécben adjuk ki.
+ */
+public class PageCursor {
+
+    public static final String HEADER = "X-Next-Cursor"; // -> Válaszfejléc neve
+
+    private final LocalDateTime timestamp; // -> Az oldal utolsó elemének rendezési ideje
+    private final Long id; // -> Az oldal utolsó elemének ID-ja (egyenlő időknél dönt)
+
+    public PageCursor(LocalDateTime timestamp, Long id) {
+        this.timestamp = timestamp;
+        this.id = id;
+    }
+
+    public LocalDateTime getTimestamp() { return timestamp; }
+    public Long getId() { return id; }
+
+    // Kurzor → token (base64url)
+    public String encode() {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Token → kurzor; hibás token esetén null (a controller 400-at ad)
+    public static PageCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new PageCursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
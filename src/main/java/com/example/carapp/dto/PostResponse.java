@@ -18,6 +18,28 @@ public class PostResponse { // Kimenő DTO egy fórumposzthoz
     private LocalDateTime createdAt; // Létrehozás ideje
     private LocalDateTime updatedAt; // Utolsó módosítás ideje
 
+    private Long commentCount; // Kommentek száma
+    private Long reactionCount; // Reakciók száma (összesen, típustól függetlenül)
+
+    public PostResponse() {}
+
+    // JPQL konstruktor-projekcióhoz (select new ...): a lista egyetlen SQL lekérdezésből épül fel
+    public PostResponse(Long id, Long authorId, String authorName, String title, String content,
+                        ForumCategory category, Integer rating, LocalDateTime createdAt, LocalDateTime updatedAt,
+                        Long commentCount, Long reactionCount) {
+        this.id = id;
+        this.authorId = authorId;
+        this.authorName = authorName;
+        this.title = title;
+        this.content = content;
+        this.category = category;
+        this.rating = rating;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.commentCount = commentCount;
+        this.reactionCount = reactionCount;
+    }
+
     // --- Getters/Setters ---
     // SZERIALIZÁLÁS: Jackson ezeken a getteren keresztül olvassa ki a JSON-hoz
     // DESZERIALIZÁLÁS: Ha a jövőben JSON-ből olvasnánk
@@ -47,4 +69,10 @@ public class PostResponse { // Kimenő DTO egy fórumposzthoz
 
     public LocalDateTime getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public Long getCommentCount() { return commentCount; }
+    public void setCommentCount(Long commentCount) { this.commentCount = commentCount; }
+
+    public Long getReactionCount() { return reactionCount; }
+    public void setReactionCount(Long reactionCount) { this.reactionCount = reactionCount; }
 }
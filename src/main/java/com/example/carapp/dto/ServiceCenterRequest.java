@@ -1,5 +1,7 @@
 package com.example.carapp.dto;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 
 public class ServiceCenterRequest { // -> KLIENS → SZERVER: új szervizközpont létrehozásához szükséges adatok
@@ -7,6 +9,8 @@ public class ServiceCenterRequest { // -> KLIENS → SZERVER: új szervizközpon
     @NotBlank private String city; // -> KÖTELEZŐ: város
     @NotBlank private String address; // -> KÖTELEZŐ: cím
     private String placeId; // -> opcionális
+    @Min(5) @Max(480) private Integer slotMinutes; // -> opcionális: idősáv hossza percben (alapértelmezés 60)
+    @Min(1) @Max(50) private Integer bays; // -> opcionális: párhuzamos beállók száma (alapértelmezés 1)
 
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
@@ -16,4 +20,8 @@ public class ServiceCenterRequest { // -> KLIENS → SZERVER: új szervizközpon
     public void setAddress(String address) { this.address = address; }
     public String getPlaceId() { return placeId; }
     public void setPlaceId(String placeId) { this.placeId = placeId; }
+    public Integer getSlotMinutes() { return slotMinutes; }
+    public void setSlotMinutes(Integer slotMinutes) { this.slotMinutes = slotMinutes; }
+    public Integer getBays() { return bays; }
+    public void setBays(Integer bays) { this.bays = bays; }
 }
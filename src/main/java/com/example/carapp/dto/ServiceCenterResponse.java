@@ -6,6 +6,8 @@ public class ServiceCenterResponse { // -> SZERVER → KLIENS: szervizközpont a
     private String city; // -> Város
     private String address; // -> Cím
     private String placeId; // -> Opcionális térkép ID
+    private int slotMinutes; // -> Idősáv hossza (perc)
+    private int bays; // -> Párhuzamos beállók száma
 
     // --- Getters: SZERIALIZÁLÁS (objektum -> JSON) Jackson ezeken olvas ---
     public Long getId() { return id; }
@@ -18,4 +20,8 @@ public class ServiceCenterResponse { // -> SZERVER → KLIENS: szervizközpont a
     public void setAddress(String address) { this.address = address; }
     public String getPlaceId() { return placeId; }
     public void setPlaceId(String placeId) { this.placeId = placeId; }
+    public int getSlotMinutes() { return slotMinutes; }
+    public void setSlotMinutes(int slotMinutes) { this.slotMinutes = slotMinutes; }
+    public int getBays() { return bays; }
+    public void setBays(int bays) { this.bays = bays; }
 }
@@ -0,0 +1,24 @@
+package com.example.carapp.dto;
+
+import java.time.LocalDateTime;
+
+public class SlotAvailability { // -> SZERVER → KLIENS: egy foglalható idősáv és a szabad beállók száma
+    private LocalDateTime start; // -> Idősáv kezdete
+    private LocalDateTime end; // -> Idősáv vége
+    private int freeBays; // -> Még szabad beállók (0 = betelt)
+
+    public SlotAvailability() {}
+
+    public SlotAvailability(LocalDateTime start, LocalDateTime end, int freeBays) {
+        this.start = start;
+        this.end = end;
+        this.freeBays = freeBays;
+    }
+
+    public LocalDateTime getStart() { return start; }
+    public void setStart(LocalDateTime start) { this.start = start; }
+    public LocalDateTime getEnd() { return end; }
+    public void setEnd(LocalDateTime end) { this.end = end; }
+    public int getFreeBays() { return freeBays; }
+    public void setFreeBays(int freeBays) { this.freeBays = freeBays; }
+}
@@ -1,5 +1,6 @@
 package com.example.carapp.dto;
 
+import com.example.carapp.dto.AdminUserResponse;
 import com.example.carapp.dto.UserRequest;
 import com.example.carapp.dto.UserResponse;
 import com.example.carapp.model.User;
@@ -18,4 +19,8 @@ public class UserMapper {
     public static UserResponse toResponse(User entity) {
         return new UserResponse(entity.getId(), entity.getName(), entity.getEmail());
     }
+    // Entity → admin DTO (szerepkörrel)
+    public static AdminUserResponse toAdminResponse(User entity) {
+        return new AdminUserResponse(entity.getId(), entity.getName(), entity.getEmail(), entity.getRole());
+    }
 }
@@ -1,5 +1,6 @@
 package com.example.carapp.exception;
 
+import com.example.carapp.security.PasswordHashing;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -9,6 +10,7 @@ import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import java.util.HashMap;
+import java.util.Locale;
 import java.util.Map;
 
 // Ez egy globális hibakezelő osztály, ami a teljes alkalmazásra érvényes.
@@ -39,12 +41,28 @@ public class GlobalExceptionHandler {
 
 /**
  * 2) Adatbázis integritási hiba (pl. UNIQUE constraint sérülés).
- * Példa:: e-mail cím duplikáció.
+ * Példa:: e-mail cím duplikáció → 400 a régi formában; minden más ütközés (szavazat, foglalás, ...) → 409.
  */
     @ExceptionHandler(DataIntegrityViolationException.class)
-    public ResponseEntity<Map<String, String>> handleDuplicateEmail(DataIntegrityViolationException ex) {
+    public ResponseEntity<Map<String, String>> handleDataIntegrity(DataIntegrityViolationException ex) {
         Map<String, String> body = new HashMap<>();
-        body.put("email", "Email already exists");
-        return ResponseEntity.badRequest().body(body); // 400
+        String cause = String.valueOf(ex.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (cause.contains("email")) { // -> users.email egyedi index
+            body.put("email", "Email already exists");
+            return ResponseEntity.badRequest().body(body); // 400
+        }
+        body.put("error", "Conflicting data, please retry");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body); // 409
+    }
+
+/**
+ * 3) Túlterhelt jelszó-hash-elés (megtelt a BCrypt sor).
+ * A kliens később újrapróbálhatja: 503 + Retry-After.
+ */
+    @ExceptionHandler(PasswordHashing.BusyException.class)
+    public ResponseEntity<Map<String, String>> handleHashingBusy(PasswordHashing.BusyException ex) {
+        Map<String, String> body = new HashMap<>();
+        body.put("error", "Server busy, try again later");
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(body); // 503
     }
 }
@@ -0,0 +1,67 @@
+package com.example.carapp.model;
+
+import jakarta.persistence.*;
+
+/*
+*   --- Havi szervizranglista sora (center_monthly_scores tábla) ---
+*      Centerenként és hónaponként egy sor: az értékelések összege és a szavazatok száma,
+*      így az átlag (ratingSum / voteCount) aggregálás nélkül olvasható.
+*      Minden szavazat ugyanabban a tranzakcióban módosítja (új szavazat: +rating / +1,
+*      újraszavazás: +különbség / +0); a revision minden módosításnál nő, ez alapján
+*      a memóriában tartott ranglista csak frissebb értéket fogad el.
+ */
+
+@Entity
+@Table(
+        name = "center_monthly_scores", // -> Tábla neve
+        uniqueConstraints = @UniqueConstraint(name = "uk_center_monthly_score", columnNames = {"centerId", "scoreYear", "scoreMonth"}) // -> centerenként havonta 1 sor
+)
+public class CenterMonthlyScore {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long centerId; // -> Melyik szervizközpont
+
+    @Column(nullable = false)
+    private int scoreYear; // -> Év
+
+    @Column(nullable = false)
+    private int scoreMonth; // -> Hónap (1–12)
+
+    @Column(nullable = false)
+    private long ratingSum; // -> Értékelések összege
+
+    @Column(nullable = false)
+    private long voteCount; // -> Szavazatok száma
+
+    @Column(nullable = false)
+    private long revision; // -> Módosítások sorszáma (monoton nő)
+
+    public CenterMonthlyScore() {}
+
+    public CenterMonthlyScore(Long centerId, int scoreYear, int scoreMonth, long ratingSum, long voteCount) {
+        this.centerId = centerId;
+        this.scoreYear = scoreYear;
+        this.scoreMonth = scoreMonth;
+        this.ratingSum = ratingSum;
+        this.voteCount = voteCount;
+        this.revision = 1;
+    }
+
+    public Long getId() { return id; }
+    public Long getCenterId() { return centerId; }
+    public int getScoreYear() { return scoreYear; }
+    public int getScoreMonth() { return scoreMonth; }
+    public long getRatingSum() { return ratingSum; }
+    public long getVoteCount() { return voteCount; }
+    public long getRevision() { return revision; }
+
+    // egyeztetéskor: abszolút érték beállítása + új revision
+    public void reset(long ratingSum, long voteCount) {
+        this.ratingSum = ratingSum;
+        this.voteCount = voteCount;
+        this.revision++;
+    }
+}
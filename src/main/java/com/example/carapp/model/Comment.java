@@ -18,7 +18,10 @@ import java.time.LocalDateTime;
  */
 
 @Entity // -> JPA entitás: perzisztens osztály (DB tábla rekordját reprezentálja)
-@Table(name = "forum_comments") // -> Tábla neve az adatbázisban
+@Table(
+        name = "forum_comments", // -> Tábla neve az adatbázisban
+        indexes = @Index(name = "idx_forum_comments_post_created", columnList = "post_id, createdAt, id") // -> poszt kommentjei lapozva
+)
 public class Comment {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY) // -> Elsődleges kulcs
     private Long id;
@@ -0,0 +1,71 @@
+package com.example.carapp.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/*
+*   --- Archivált hír (news_items tábla) ---
+*      Mezők:
+*         source – melyik forrásból jött (NewsSource).
+*         title, link – a hír címe és URL-je.
+*         linkHash – a normalizált link SHA-256 hash-e; (source, linkHash) az egyedi (upsert) kulcs,
+*                    így ugyanaz a link két forrásnál is megjelenhet.
+*         firstSeenAt – mikor láttuk először (ez a "megjelenés" ideje a feedben).
+*         lastSeenAt – mikor szerepelt utoljára a forrás oldalán.
+ */
+
+@Entity
+@Table(
+        name = "news_items", // -> Tábla neve
+        uniqueConstraints = @UniqueConstraint(name = "uk_news_items_source_link_hash", columnNames = {"source", "linkHash"}),
+        indexes = @Index(name = "idx_news_items_source_first_seen", columnList = "source, firstSeenAt, id") // -> keyset lapozáshoz
+)
+public class NewsArticle {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING) // -> Enum szövegként tárolva
+    @Column(nullable = false, length = 20)
+    private NewsSource source;
+
+    @Column(nullable = false, length = 500)
+    private String title;
+
+    @Column(nullable = false, length = 2000)
+    private String link;
+
+    @Column(nullable = false, length = 64)
+    private String linkHash;
+
+    @Column(nullable = false) private LocalDateTime firstSeenAt; // -> Első észlelés
+    @Column(nullable = false) private LocalDateTime lastSeenAt;  // -> Utolsó észlelés
+
+    public NewsArticle() {}
+
+    public NewsArticle(NewsSource source, String title, String link, String linkHash, LocalDateTime seenAt) {
+        this.source = source;
+        this.title = title;
+        this.link = link;
+        this.linkHash = linkHash;
+        this.firstSeenAt = seenAt;
+        this.lastSeenAt = seenAt;
+    }
+
+    // getters/setters
+    public Long getId() { return id; }
+    public NewsSource getSource() { return source; }
+    public void setSource(NewsSource source) { this.source = source; }
+    public String getTitle() { return title; }
+    public void setTitle(String title) { this.title = title; }
+    public String getLink() { return link; }
+    public void setLink(String link) { this.link = link; }
+    public String getLinkHash() { return linkHash; }
+    public void setLinkHash(String linkHash) { this.linkHash = linkHash; }
+    public LocalDateTime getFirstSeenAt() { return firstSeenAt; }
+    public void setFirstSeenAt(LocalDateTime firstSeenAt) { this.firstSeenAt = firstSeenAt; }
+    public LocalDateTime getLastSeenAt() { return lastSeenAt; }
+    public void setLastSeenAt(LocalDateTime lastSeenAt) { this.lastSeenAt = lastSeenAt; }
+}
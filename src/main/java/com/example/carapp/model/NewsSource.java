@@ -0,0 +1,13 @@
+package com.example.carapp.model;
+
+public enum NewsSource {
+    TOTALCAR("Totalcar"),                // Totalcar autótesztek
+    UTINFORM("Útinform"),                // Hivatalos Útinform hírek
+    HIRHANYO("HírHányó — Útinfó");       // HírHányó „Útinfó” gyűjtőoldal
+
+    private final String label; // -> Megjelenített forrásnév (NewsItem.source)
+
+    NewsSource(String label) { this.label = label; }
+
+    public String getLabel() { return label; }
+}
@@ -6,7 +6,13 @@ import jakarta.validation.constraints.Size;
 import java.time.LocalDateTime;
 
 @Entity  // -> Ez az osztály egy perzisztens JPA entitás
-@Table(name = "forum_posts") // -> DB tábla neve: forum_posts
+@Table(
+        name = "forum_posts", // -> DB tábla neve: forum_posts
+        indexes = {
+                @Index(name = "idx_forum_posts_created", columnList = "createdAt, id"), // -> főoldali lapozás
+                @Index(name = "idx_forum_posts_category_created", columnList = "category, createdAt, id") // -> kategória szűrés + lapozás
+        }
+)
 public class Post {
     @Id @GeneratedValue(strategy = GenerationType.IDENTITY) // -> Elsődleges kulcs
     private Long id;
@@ -27,6 +33,11 @@ public class Post {
 
     private Integer rating; // opcionális (1–5)
 
+    // Denormalizált kommentszám: a listák ebből olvasnak, nem számolnak a forum_comments táblán.
+    // Csak a ForumCommentService módosítja (atomikus UPDATE); az entitás mentése nem írja felül.
+    @Column(nullable = false, updatable = false, columnDefinition = "integer default 0")
+    private int commentCount;
+
     @Column(nullable = false) private LocalDateTime createdAt; // -> Létrehozás időpontja
     @Column(nullable = false) private LocalDateTime updatedAt; // -> Utolsó módosítás időpontja
 
@@ -53,6 +64,7 @@ public class Post {
     public void setCategory(ForumCategory category) { this.category = category; }
     public Integer getRating() { return rating; }
     public void setRating(Integer rating) { this.rating = rating; }
+    public int getCommentCount() { return commentCount; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     public LocalDateTime getUpdatedAt() { return updatedAt; }
@@ -0,0 +1,45 @@
+package com.example.carapp.model;
+
+import jakarta.persistence.*;
+
+/*
+*   --- Denormalizált reakciószámláló (post_reaction_counters tábla) ---
+*      Posztonként és reakciótípusonként egy sor: hány ilyen reakció van.
+*      A memóriában tartott számlálók (ReactionCounterService) írják ki időszakosan,
+*      induláskor a post_reactions táblából újraszámoljuk (egyeztetés).
+*      A postId szándékosan nem FK: a számláló nem akadályozhatja a poszt törlését.
+ */
+
+@Entity
+@Table(
+        name = "post_reaction_counters", // -> Tábla neve
+        uniqueConstraints = @UniqueConstraint(name = "uk_post_reaction_counter", columnNames = {"postId", "type"}) // -> posztonként típusonként 1 sor
+)
+public class PostReactionCounter {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long postId; // -> Melyik poszt
+
+    @Enumerated(EnumType.STRING) @Column(nullable = false, length = 20) // -> Enumot szövegként tároljuk
+    private ReactionType type;
+
+    @Column(nullable = false)
+    private long count; // -> Reakciók száma
+
+    public PostReactionCounter() {}
+
+    public PostReactionCounter(Long postId, ReactionType type, long count) {
+        this.postId = postId;
+        this.type = type;
+        this.count = count;
+    }
+
+    public Long getId() { return id; }
+    public Long getPostId() { return postId; }
+    public ReactionType getType() { return type; }
+    public long getCount() { return count; }
+    public void setCount(long count) { this.count = count; }
+}
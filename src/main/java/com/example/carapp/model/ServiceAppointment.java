@@ -10,11 +10,31 @@ import java.time.LocalDateTime;
 /**
  * Szervizidőpont foglalás.
  * Kötelező: car, user, center, serviceDateTime, description.
+ * Kapacitás: egy aktív foglalás egy (center, slotStart, bay) helyet foglal el; ezt egyedi
+ * megszorítás védi, így párhuzamos foglalásnál sem lehet két autó ugyanabban a beállóban.
+ * Lemondáskor a bay null lesz → a hely felszabadul (NULL nem ütközik az egyedi indexben).
+ * Autónként: az activeSlot a slotStart tükre, amíg a foglalás aktív (lemondáskor null); a (car, activeSlot)
+ * egyedi megszorítás miatt egy autónak egy idősávban párhuzamos kérésekből sem lehet két foglalása.
+ * Eltérő slot-hosszú centerek között (pl. 10:00/60 perc és 10:30/30 perc) az index nem lát átfedést: ezt a
+ * SlotBookingService.reserve ellenőrzi a [slotStart, slotStart + slotMinutes) sávokon, az autó sorát zárolva.
  */
 @Entity
-@Table(name = "service_appointments") // -> Tábla neve
+@Table(
+        name = "service_appointments", // -> Tábla neve
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_appointment_slot_bay", columnNames = {"center_id", "slotStart", "bay"}),
+                @UniqueConstraint(name = ServiceAppointment.CAR_SLOT_CONSTRAINT, columnNames = {"car_id", "activeSlot"}) // -> autónkénti ütközés
+        },
+        indexes = {
+                @Index(name = "idx_appointments_center_date", columnList = "center_id, serviceDateTime, id"), // -> center szerinti lista
+                @Index(name = "idx_appointments_user_date", columnList = "user_id, serviceDateTime, id"), // -> saját időpontok
+                @Index(name = "idx_appointments_date", columnList = "serviceDateTime, id") // -> admin összesített lista
+        }
+)
 public class ServiceAppointment {
 
+    public static final String CAR_SLOT_CONSTRAINT = "uk_appointment_car_slot"; // -> ebből ismerjük fel az autónkénti ütközést
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -38,6 +58,11 @@ public class ServiceAppointment {
     @Future(message = "Service date/time must be in the future")
     private LocalDateTime serviceDateTime;
 
+    // A foglalt idősáv kezdete (a center slot-rácsára igazítva) és a kiosztott beálló (1..bays)
+    private LocalDateTime slotStart;
+    private Integer bay; // -> null: lemondott / régi, kapacitást nem foglaló sor
+    private LocalDateTime activeSlot; // -> = slotStart, amíg aktív; null: lemondott
+
     @NotBlank(message = "Description is required")
     private String description;
 
@@ -55,6 +80,9 @@ public class ServiceAppointment {
     public User getUser() { return user; }
     public ServiceCenter getCenter() { return center; }
     public LocalDateTime getServiceDateTime() { return serviceDateTime; }
+    public LocalDateTime getSlotStart() { return slotStart; }
+    public Integer getBay() { return bay; }
+    public LocalDateTime getActiveSlot() { return activeSlot; }
     public String getDescription() { return description; }
     public AppointmentStatus getStatus() { return status; }
     public LocalDateTime getCreatedAt() { return createdAt; }
@@ -65,6 +93,9 @@ public class ServiceAppointment {
     public void setUser(User user) { this.user = user; }
     public void setCenter(ServiceCenter center) { this.center = center; }
     public void setServiceDateTime(LocalDateTime serviceDateTime) { this.serviceDateTime = serviceDateTime; }
+    public void setSlotStart(LocalDateTime slotStart) { this.slotStart = slotStart; }
+    public void setBay(Integer bay) { this.bay = bay; }
+    public void setActiveSlot(LocalDateTime activeSlot) { this.activeSlot = activeSlot; }
     public void setDescription(String description) { this.description = description; }
     public void setStatus(AppointmentStatus status) { this.status = status; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
@@ -7,6 +7,9 @@ import jakarta.validation.constraints.NotBlank;
 @Table(name = "service_centers")  // -> Tábla neve az adatbázisban
 public class ServiceCenter {
 
+    public static final int DEFAULT_SLOT_MINUTES = 60; // -> régi sorok / meg nem adott érték
+    public static final int DEFAULT_BAYS = 1;
+
     @Id  // -> Elsődleges kulcs
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -26,6 +29,13 @@ public class ServiceCenter {
     // Opcionális: Google Maps placeId (ha később útvonaltervezéshez kell)
     private String placeId;  // -> Lehet null, ha nincs constraint
 
+    // Foglalási kapacitás: egy idősáv hossza percben és a párhuzamosan használható beállók száma
+    @Column(columnDefinition = "integer default 60")
+    private Integer slotMinutes = DEFAULT_SLOT_MINUTES;
+
+    @Column(columnDefinition = "integer default 1")
+    private Integer bays = DEFAULT_BAYS;
+
     public ServiceCenter() {}
 
     public ServiceCenter(String name, String city, String address) {
@@ -48,4 +58,10 @@ public class ServiceCenter {
 
     public String getPlaceId() { return placeId; } // -> Google ID (opcionális)
     public void setPlaceId(String placeId) { this.placeId = placeId; }
+
+    public int getSlotMinutes() { return slotMinutes == null ? DEFAULT_SLOT_MINUTES : slotMinutes; } // -> Idősáv hossza (perc)
+    public void setSlotMinutes(Integer slotMinutes) { this.slotMinutes = slotMinutes; }
+
+    public int getBays() { return bays == null ? DEFAULT_BAYS : bays; } // -> Párhuzamos beállók száma
+    public void setBays(Integer bays) { this.bays = bays; }
 }
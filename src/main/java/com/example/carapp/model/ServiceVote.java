@@ -11,7 +11,7 @@ import java.time.LocalDateTime;
 @Table(
         name = "service_votes",  // -> Tábla neve az adatbázisban
         uniqueConstraints = {
-                // ugyanaz a user ugyanarra a centerre egy hónapban csak egyszer szavazzon
+                // ugyanaz a user ugyanarra a centerre egy hónapban csak egyszer szavazzon (az upsert ON CONFLICT célja is)
                 @UniqueConstraint(columnNames = {"user_id", "center_id", "voteYear", "voteMonth"})
         }
 )
@@ -29,6 +29,9 @@ public class ServiceVote {
     @Min(1) @Max(5) // -> Csak 1..5 közötti érték engedett
     private Integer rating; // -> A leadott értékelés
 
+    // Az utolsó újraszavazás előtti érték: az upsert ebből adja vissza a ranglista-különbséget
+    private Integer previousRating;
+
     private int voteYear;   // -> Év szerinti csoportosításhoz/tároláshoz
     private int voteMonth;  // -> Hónap (1–12) szerinti csoportosításhoz
 
@@ -47,6 +50,9 @@ public class ServiceVote {
     public Integer getRating() { return rating; } // -> Értékelés
     public void setRating(Integer rating) { this.rating = rating; }
 
+    public Integer getPreviousRating() { return previousRating; } // -> Előző értékelés (új szavazatnál null)
+    public void setPreviousRating(Integer previousRating) { this.previousRating = previousRating; }
+
     public int getVoteYear() { return voteYear; }  // -> Szavazás éve
     public void setVoteYear(int voteYear) { this.voteYear = voteYear; }
 
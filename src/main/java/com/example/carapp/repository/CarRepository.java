@@ -1,14 +1,45 @@
 package com.example.carapp.repository;
 
+import com.example.carapp.dto.CarResponse;
 import com.example.carapp.model.Car;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 //  Örökli az alap CRUD műveleteket (findAll, save, deleteById stb.).
 //  Plusz: findByOwnerId → visszaadja az adott felhasználó összes autóját.
 //  Ez kell pl. a /me endpointnál.
+//  Olvasási útvonal: CarResponse közvetlenül JPQL-ből (autó + tulajdonos id/név, egy join), entitásgráf nélkül.
 
 public interface CarRepository extends JpaRepository<Car, Long> {
-    List<Car> findByOwnerId(Long ownerId);   // <<< EZ KELL A /me-hez
+    List<Car> findByOwnerId(Long ownerId);
+
+    String CAR_RESPONSE = """
+           select new com.example.carapp.dto.CarResponse(c.id, c.brand, c.model, c.year, o.id, o.name)
+           from Car c join c.owner o
+           """;
+
+    @Query(CAR_RESPONSE + "where c.id = :id")
+    Optional<CarResponse> findResponseById(Long id);
+
+    @Query(CAR_RESPONSE + "where o.id = :ownerId order by c.id")
+    List<CarResponse> findResponsesByOwnerId(Long ownerId);   // <<< EZ KELL A /me-hez
+
+    // időpontfoglaláskor: az autó sora zárolva, így ugyanannak az autónak a foglalásai sorban futnak
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select c from Car c where c.id = :id")
+    Optional<Car> lockById(Long id);
+
+    // összes autó adatbázis-kurzorral (streamelt lista végponthoz, tranzakción belül)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(CAR_RESPONSE + "order by c.id")
+    Stream<CarResponse> streamResponses();
 }
@@ -0,0 +1,29 @@
+package com.example.carapp.repository;
+
+import com.example.carapp.model.CenterMonthlyScore;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
+
+//  Havi szervizranglista (center_monthly_scores).
+//  A szavazás egy atomikus UPDATE-tel adja hozzá a különbséget; ha még nincs sor, INSERT.
+
+public interface CenterMonthlyScoreRepository extends JpaRepository<CenterMonthlyScore, Long> {
+    List<CenterMonthlyScore> findByScoreYearAndScoreMonth(int scoreYear, int scoreMonth);
+
+    Optional<CenterMonthlyScore> findByCenterIdAndScoreYearAndScoreMonth(Long centerId, int scoreYear, int scoreMonth);
+
+    // összeg / darab növelése egy lépésben (a sorzár a tranzakció végéig tart) → 0, ha még nincs sor
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+           update CenterMonthlyScore s
+           set s.ratingSum = s.ratingSum + :ratingDelta,
+               s.voteCount = s.voteCount + :countDelta,
+               s.revision = s.revision + 1
+           where s.centerId = :centerId and s.scoreYear = :year and s.scoreMonth = :month
+           """)
+    int addDelta(Long centerId, int year, int month, long ratingDelta, long countDelta);
+}
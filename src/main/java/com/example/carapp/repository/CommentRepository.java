@@ -1,13 +1,43 @@
 package com.example.carapp.repository;
 
+import com.example.carapp.dto.CommentResponse;
 import com.example.carapp.model.Comment;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 //Alap CRUD + extra query.
-//findByPost_IdOrderByCreatedAtDesc → adott poszthoz tartozó kommentek listája, idő szerint csökkenő sorrendben.
+//findFirstPageByPostId / findPageByPostIdAfter → adott poszt kommentjei DTO-ként, a szerzővel együtt, idő szerint csökkenő
+//sorrendben, keyset lapozva (createdAt, id).
+//deleteReturningCount → törlés, ami jelzi, hogy ez a kérés törölte-e (kommentszámhoz).
+//findSearchRows → a fórumkereső index felépítéséhez: (id, postId, content, createdAt), entitás betöltés nélkül.
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findByPost_IdOrderByCreatedAtDesc(Long postId);
+    String COMMENT_RESPONSE = """
+           select new com.example.carapp.dto.CommentResponse(c.id, a.id, a.name, c.content, c.createdAt)
+           from Comment c join c.author a
+           """;
+
+    // első oldal: legújabb elöl (az index: post_id, createdAt, id)
+    @Query(COMMENT_RESPONSE + "where c.post.id = :postId order by c.createdAt desc, c.id desc")
+    List<CommentResponse> findFirstPageByPostId(Long postId, Pageable pageable);
+
+    // következő oldal a kurzor (createdAt, id) után
+    @Query(COMMENT_RESPONSE + """
+           where c.post.id = :postId
+             and (c.createdAt < :createdAt or (c.createdAt = :createdAt and c.id < :id))
+           order by c.createdAt desc, c.id desc
+           """)
+    List<CommentResponse> findPageByPostIdAfter(Long postId, LocalDateTime createdAt, Long id, Pageable pageable);
+
+    @Modifying
+    @Query("delete from Comment c where c.id = :id")
+    int deleteReturningCount(Long id);
+
+    @Query("select c.id, c.post.id, c.content, c.createdAt from Comment c")
+    List<Object[]> findSearchRows();
 }
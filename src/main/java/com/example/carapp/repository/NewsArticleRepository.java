@@ -0,0 +1,38 @@
+package com.example.carapp.repository;
+
+import com.example.carapp.model.NewsArticle;
+import com.example.carapp.model.NewsSource;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+//  Hírarchívum (news_items).
+//  Ingestion: melyik hash létezik már az adott forrásnál + egy UPDATE-tel a lastSeenAt frissítése.
+//  Olvasás: keyset lapozás (firstSeenAt, id) szerint csökkenő sorrendben.
+
+public interface NewsArticleRepository extends JpaRepository<NewsArticle, Long> {
+
+    @Query("select a.linkHash from NewsArticle a where a.source = :source and a.linkHash in :hashes")
+    List<String> findExistingHashes(NewsSource source, Collection<String> hashes);
+
+    @Modifying
+    @Query("update NewsArticle a set a.lastSeenAt = :seenAt where a.source = :source and a.linkHash in :hashes")
+    int touch(NewsSource source, Collection<String> hashes, LocalDateTime seenAt);
+
+    // első oldal
+    List<NewsArticle> findBySourceOrderByFirstSeenAtDescIdDesc(NewsSource source, Pageable pageable);
+
+    // következő oldal a kurzor (firstSeenAt, id) után
+    @Query("""
+           select a from NewsArticle a
+           where a.source = :source
+             and (a.firstSeenAt < :firstSeenAt or (a.firstSeenAt = :firstSeenAt and a.id < :id))
+           order by a.firstSeenAt desc, a.id desc
+           """)
+    List<NewsArticle> findPageAfter(NewsSource source, LocalDateTime firstSeenAt, Long id, Pageable pageable);
+}
@@ -0,0 +1,22 @@
+package com.example.carapp.repository;
+
+import com.example.carapp.model.PostReactionCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+//  Denormalizált reakciószámlálók (post_reaction_counters).
+//  A write-behind flush posztok egy csoportját egyszerre tölti be és írja vissza.
+
+public interface PostReactionCounterRepository extends JpaRepository<PostReactionCounter, Long> {
+    List<PostReactionCounter> findByPostIdIn(Collection<Long> postIds);
+
+    @Modifying
+    @Transactional
+    @Query("delete from PostReactionCounter k where k.postId = :postId")
+    int deleteByPostId(Long postId);
+}
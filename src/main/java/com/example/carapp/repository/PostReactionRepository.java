@@ -4,7 +4,11 @@ package com.example.carapp.repository;
 import com.example.carapp.model.PostReaction;
 import com.example.carapp.model.ReactionType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 
 import java.util.*;
 
@@ -19,4 +23,49 @@ public interface PostReactionRepository extends JpaRepository<PostReaction, Long
            group by r.type
            """)
     List<Object[]> aggregateByType(Long postId);
+
+    // --- Több poszt egyszerre (feed): egy csoportosított aggregálás + a user saját reakciói ---
+
+    @Query("""
+           select r.post.id as postId, r.type as type, count(r) as cnt
+           from PostReaction r
+           where r.post.id in :postIds
+           group by r.post.id, r.type
+           """)
+    List<Object[]> aggregateByPostAndType(Collection<Long> postIds);
+
+    // a user az email alapján a join-ban azonosítható, külön findByEmail nélkül
+    @Query("""
+           select r.post.id as postId, r.type as type
+           from PostReaction r
+           where r.user.email = :email and r.post.id in :postIds
+           """)
+    List<Object[]> findMyTypes(String email, Collection<Long> postIds);
+
+    // teljes újraszámolás (induláskori egyeztetés a számlálótáblával)
+    @Query("""
+           select r.post.id as postId, r.type as type, count(r) as cnt
+           from PostReaction r
+           group by r.post.id, r.type
+           """)
+    List<Object[]> aggregateAll();
+
+    // --- Feltételes módosítások: csak akkor 1 az eredmény, ha a sor tényleg a várt állapotban volt ---
+    // (párhuzamos kéréseknél így pontosan egy kérés "nyeri" az átmenetet, a számlálók nem csúsznak el)
+
+    @Modifying
+    @Transactional
+    @Query("""
+           update PostReaction r set r.type = :to, r.updatedAt = :now
+           where r.post.id = :postId and r.user.id = :userId and r.type = :from
+           """)
+    int changeType(Long postId, Long userId, ReactionType from, ReactionType to, LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("""
+           delete from PostReaction r
+           where r.post.id = :postId and r.user.id = :userId and r.type = :type
+           """)
+    int deleteIfType(Long postId, Long userId, ReactionType type);
 }
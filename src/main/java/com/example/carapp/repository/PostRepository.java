@@ -1,11 +1,80 @@
 package com.example.carapp.repository;
 
+import com.example.carapp.dto.PostResponse;
 import com.example.carapp.model.ForumCategory;
 import com.example.carapp.model.Post;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface PostRepository extends JpaRepository<Post, Long> {
-    List<Post> findByCategoryOrderByCreatedAtDesc(ForumCategory category);
+
+    // --- Olvasási útvonal: PostResponse közvetlenül JPQL-ből (szerző join + komment/reakció darabszám) ---
+    // A kommentszám a posztsor denormalizált oszlopa (commentCount), a forum_comments táblát nem érinti.
+    // A reakciószám a post_reaction_counters sorainak összege (posztonként legfeljebb típusonként egy sor,
+    // az egyedi indexen): a post_reactions táblát nem számoljuk végig, bármilyen népszerű a poszt.
+    // A számlálótábla write-behind (ReactionCounterService.flush), így legfeljebb egy flush-ciklusnyit késhet.
+    // Egy SQL lekérdezés oldalanként, entitás betöltés és lazy/eager N+1 nélkül.
+
+    String POST_RESPONSE = """
+           select new com.example.carapp.dto.PostResponse(
+               p.id, a.id, a.name, p.title, p.content, p.category, p.rating, p.createdAt, p.updatedAt,
+               cast(p.commentCount as Long),
+               (select coalesce(sum(k.count), 0L) from PostReactionCounter k where k.postId = p.id))
+           from Post p join p.author a
+           """;
+
+    @Query(POST_RESPONSE + "where p.id = :id")
+    Optional<PostResponse> findResponseById(Long id);
+
+    // --- Keyset lapozás (createdAt desc, id desc) ---
+
+    // első oldal, összes kategória
+    @Query(POST_RESPONSE + "order by p.createdAt desc, p.id desc")
+    List<PostResponse> findFirstPage(Pageable pageable);
+
+    // első oldal egy kategórián belül
+    @Query(POST_RESPONSE + "where p.category = :category order by p.createdAt desc, p.id desc")
+    List<PostResponse> findFirstPageInCategory(ForumCategory category, Pageable pageable);
+
+    // következő oldal a kurzor (createdAt, id) után
+    @Query(POST_RESPONSE + """
+           where p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id)
+           order by p.createdAt desc, p.id desc
+           """)
+    List<PostResponse> findPageAfter(LocalDateTime createdAt, Long id, Pageable pageable);
+
+    // következő oldal egy kategórián belül
+    @Query(POST_RESPONSE + """
+           where p.category = :category
+             and (p.createdAt < :createdAt or (p.createdAt = :createdAt and p.id < :id))
+           order by p.createdAt desc, p.id desc
+           """)
+    List<PostResponse> findPageAfterInCategory(ForumCategory category, LocalDateTime createdAt, Long id, Pageable pageable);
+
+    // kommentszám atomikus módosítása (komment mentésével / törlésével egy tranzakcióban)
+    @Modifying
+    @Query("update Post p set p.commentCount = p.commentCount + :delta where p.id = :id")
+    int addCommentCount(Long id, int delta);
+
+    // induláskori egyeztetés: csak az eltérő sorokat írja
+    @Modifying
+    @Query("""
+           update Post p set p.commentCount = (select count(c) from Comment c where c.post = p)
+           where p.commentCount <> (select count(c) from Comment c where c.post = p)
+           """)
+    int reconcileCommentCounts();
+
+    // fórumkereső index felépítéséhez: (id, title, content, createdAt), szerző betöltése nélkül
+    @Query("select p.id, p.title, p.content, p.createdAt from Post p")
+    List<Object[]> findSearchRows();
+
+    // csak a kategória (létezés-ellenőrzés + eseményszűrés egy lekérdezésben)
+    @Query("select p.category from Post p where p.id = :id")
+    Optional<ForumCategory> findCategoryById(Long id);
 }
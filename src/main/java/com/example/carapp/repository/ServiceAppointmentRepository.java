@@ -1,19 +1,80 @@
 package com.example.carapp.repository;
 
+import com.example.carapp.dto.AppointmentResponse;
+import com.example.carapp.model.AppointmentStatus;
 import com.example.carapp.model.ServiceAppointment;
-import com.example.carapp.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.time.LocalDateTime;
 import java.util.List;
 
 //  Időpontfoglalásokhoz.
-//  Extra metódus: existsByCar_IdAndServiceDateTime → ellenőrzi, hogy adott autóra adott időpontban már van-e foglalás.
+//  Kapacitás: az aktív foglalások (bay != null) a (center, slotStart, bay) egyedi indexen keresztül kérdezhetők le.
 
 public interface ServiceAppointmentRepository extends JpaRepository<ServiceAppointment, Long> {
-    List<ServiceAppointment> findByUser(User user);
-    List<ServiceAppointment> findByCar_Id(Long carId);
+    // ugyanarra az autóra, ugyanarra az idősávra van-e aktív (nem lemondott) foglalás – a (car, activeSlot) egyedi indexen
+    boolean existsByCar_IdAndActiveSlot(Long carId, LocalDateTime slot);
 
-    // ütközés ellenőrzés ugyanarra az autóra adott idősávban (egyszerű példa)
-    boolean existsByCar_IdAndServiceDateTime(Long carId, LocalDateTime dateTime);
+    // az autó aktív foglalásai, amelyek (from, to) között kezdődnek – a center slot-hosszával együtt, átfedés-ellenőrzéshez
+    @Query("""
+           select a
+           from ServiceAppointment a join fetch a.center
+           where a.car.id = :carId and a.activeSlot > :from and a.activeSlot < :to
+           """)
+    List<ServiceAppointment> findActiveOfCarStartingBetween(Long carId, LocalDateTime from, LocalDateTime to);
+
+    // a slot-modell előtti aktív sorok (bay == null, de nem lemondott) – induláskori pótláshoz
+    List<ServiceAppointment> findByBayIsNullAndStatusNotOrderByIdAsc(AppointmentStatus status);
+
+    // egy idősáv foglalt beállói
+    @Query("""
+           select a.bay
+           from ServiceAppointment a
+           where a.center.id = :centerId and a.slotStart = :slotStart and a.bay is not null
+           """)
+    List<Integer> findTakenBays(Long centerId, LocalDateTime slotStart);
+
+    // foglalt beállók száma idősávonként egy intervallumban (egy csoportosított lekérdezés az indexen)
+    @Query("""
+           select a.slotStart as slotStart, count(a) as taken
+           from ServiceAppointment a
+           where a.center.id = :centerId and a.slotStart >= :from and a.slotStart < :to and a.bay is not null
+           group by a.slotStart
+           """)
+    List<Object[]> countTakenBays(Long centerId, LocalDateTime from, LocalDateTime to);
+
+    // --- Listázás: AppointmentResponse közvetlenül JPQL-ből, keyset lapozással (serviceDateTime desc, id desc) ---
+    // A felső határ és a kurzor egy feltétel: első oldalnál (to, Long.MIN_VALUE), utána az utolsó sor kulcsa.
+    // A státusz szűrő opcionális (null = mind).
+
+    String APPOINTMENT_RESPONSE = """
+           select new com.example.carapp.dto.AppointmentResponse(
+               a.id, a.serviceDateTime, a.bay, a.status, a.description, a.createdAt,
+               c.id, c.brand, c.model, u.id, u.name, sc.id, sc.name, sc.city)
+           from ServiceAppointment a join a.car c join a.user u join a.center sc
+           """;
+
+    String PAGE_FILTER = """
+           a.serviceDateTime >= :from
+             and (a.serviceDateTime < :beforeTime or (a.serviceDateTime = :beforeTime and a.id < :beforeId))
+             and (:status is null or a.status = :status)
+           order by a.serviceDateTime desc, a.id desc
+           """;
+
+    // összes időpont (ADMIN)
+    @Query(APPOINTMENT_RESPONSE + "where " + PAGE_FILTER)
+    List<AppointmentResponse> findPage(LocalDateTime from, LocalDateTime beforeTime, Long beforeId,
+                                       AppointmentStatus status, Pageable pageable);
+
+    // egy center időpontjai (ADMIN) – (center_id, serviceDateTime) index
+    @Query(APPOINTMENT_RESPONSE + "where sc.id = :centerId and " + PAGE_FILTER)
+    List<AppointmentResponse> findPageByCenter(Long centerId, LocalDateTime from, LocalDateTime beforeTime, Long beforeId,
+                                               AppointmentStatus status, Pageable pageable);
+
+    // egy user időpontjai (/me) – (user_id, serviceDateTime) index
+    @Query(APPOINTMENT_RESPONSE + "where u.id = :userId and " + PAGE_FILTER)
+    List<AppointmentResponse> findPageByUser(Long userId, LocalDateTime from, LocalDateTime beforeTime, Long beforeId,
+                                             AppointmentStatus status, Pageable pageable);
 }
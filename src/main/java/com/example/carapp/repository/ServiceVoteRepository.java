@@ -1,7 +1,9 @@
 package com.example.carapp.repository;
 
 import com.example.carapp.model.ServiceVote;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 
 import java.util.Optional;
@@ -9,9 +11,56 @@ import java.util.List;
 
 public interface ServiceVoteRepository extends JpaRepository<ServiceVote, Long> {
 
-    Optional<ServiceVote> findByUser_IdAndCenter_IdAndVoteYearAndVoteMonth(Long userId, Long centerId, int year, int month);
+    // újraszavazáshoz: a régi érték zárolva olvasva, így a ranglista-különbség párhuzamos kéréseknél is helyes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        SELECT sv FROM ServiceVote sv
+        WHERE sv.user.id = :userId AND sv.center.id = :centerId AND sv.voteYear = :year AND sv.voteMonth = :month
+    """)
+    Optional<ServiceVote> findForUpdate(Long userId, Long centerId, int year, int month);
+
+    /*
+     * PostgreSQL: szavazat + havi ranglista egyetlen utasításban.
+     *  - INSERT ... ON CONFLICT DO UPDATE: új szavazat vagy a meglévő felülírása; a régi érték a
+     *    previous_rating oszlopba kerül (az ütköző sor zárolva, így párhuzamosan is a valódi előző érték).
+     *  - A második CTE a különbséggel növeli a center_monthly_scores sort (szintén upsert).
+     *  - Visszatér: true, ha új szavazat jött létre (xmax = 0 → a sor ebben a tranzakcióban keletkezett).
+     * Egyedi kulcs-ütközés nem jut ki a hívóhoz.
+     */
+    @Query(value = """
+        WITH v AS (
+            INSERT INTO service_votes (user_id, center_id, rating, vote_year, vote_month, created_at)
+            VALUES (:userId, :centerId, :rating, :year, :month, now())
+            ON CONFLICT (user_id, center_id, vote_year, vote_month)
+            DO UPDATE SET rating = EXCLUDED.rating, previous_rating = service_votes.rating
+            RETURNING (xmax = 0) AS inserted, rating, previous_rating
+        ), s AS (
+            INSERT INTO center_monthly_scores (center_id, score_year, score_month, rating_sum, vote_count, revision)
+            SELECT :centerId, :year, :month,
+                   v.rating - COALESCE(v.previous_rating, 0),
+                   CASE WHEN v.inserted THEN 1 ELSE 0 END,
+                   1
+            FROM v
+            WHERE v.inserted OR v.rating <> v.previous_rating
+            ON CONFLICT (center_id, score_year, score_month)
+            DO UPDATE SET rating_sum = center_monthly_scores.rating_sum + EXCLUDED.rating_sum,
+                          vote_count = center_monthly_scores.vote_count + EXCLUDED.vote_count,
+                          revision = center_monthly_scores.revision + 1
+        )
+        SELECT inserted FROM v
+    """, nativeQuery = true)
+    boolean upsertVote(Long userId, Long centerId, int rating, int year, int month);
+
+    // ranglista-egyeztetéshez: centerenkénti havi összeg és darab
+    @Query("""
+        SELECT sv.center.id, sv.voteYear, sv.voteMonth, SUM(sv.rating), COUNT(sv.id)
+        FROM ServiceVote sv
+        GROUP BY sv.center.id, sv.voteYear, sv.voteMonth
+    """)
+    List<Object[]> aggregateMonthly();
 
-    // havi top szervizek átlaggal és szavazatszámmal
+    // havi top szervizek átlaggal és szavazatszámmal – az alkalmazás nem használja (a ranglista a LeaderboardService
+    // memóriás listájából jön), csak a LeaderboardServiceTest referencia-lekérdezése, amivel azt összeveti
     @Query("""
         SELECT sv.center.id as centerId,
                sv.center.name as name,
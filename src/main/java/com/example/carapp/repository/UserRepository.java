@@ -1,14 +1,32 @@
 package com.example.carapp.repository;
 
+import com.example.carapp.dto.AdminUserResponse;
+import com.example.carapp.dto.UserResponse;
 import com.example.carapp.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
 import java.util.Optional;
+import java.util.stream.Stream;
 
 //A JWT bejelentkezésnél kulcsfontosságú.
 //findByEmail → lekérdezi az adott e-mailhez tartozó usert.
+//streamResponses / streamAdminResponses → összes user DTO-ként (csak a kiírt oszlopok), adatbázis-kurzorral
+//  (streamelt lista végpontokhoz, tranzakción belül).
 
 public interface UserRepository extends JpaRepository<User, Long> {
     // Email alapján keresés (JWT-es bejelentkezéshez kell)
     Optional<User> findByEmail(String email);
+
+    // Kurzoros olvasás: a fetch size nélkül a PostgreSQL driver az egész eredményt memóriába töltené
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.carapp.dto.UserResponse(u.id, u.name, u.email) from User u order by u.id")
+    Stream<UserResponse> streamResponses();
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new com.example.carapp.dto.AdminUserResponse(u.id, u.name, u.email, u.role) from User u order by u.id")
+    Stream<AdminUserResponse> streamAdminResponses();
 }
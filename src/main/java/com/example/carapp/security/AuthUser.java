@@ -0,0 +1,34 @@
+package com.example.carapp.security;
+
+import com.example.carapp.model.Role;
+import com.example.carapp.model.User;
+import org.springframework.security.core.Authentication;
+
+import java.security.Principal;
+
+/**
+ * A bejelentkezett felhasználó a SecurityContext-ben (JwtAuthFilter állítja be).
+ * A controllerek innen olvassák az id-t és a szerepkört, nem kérdezik le újra a usert.
+ * getName() = email, így az auth.getName() hívások változatlanul működnek.
+ */
+public record AuthUser(Long id, String email, String displayName, Role role) implements Principal {
+
+    public static AuthUser from(User user) {
+        return new AuthUser(user.getId(), user.getEmail(), user.getName(), user.getRole());
+    }
+
+    /** Az Authentication-ből kinyert felhasználó, vagy null, ha nincs (érvényes) bejelentkezés. */
+    public static AuthUser of(Authentication auth) {
+        if (auth == null || !auth.isAuthenticated()) return null;
+        return auth.getPrincipal() instanceof AuthUser me ? me : null;
+    }
+
+    public boolean isAdmin() {
+        return role == Role.ADMIN;
+    }
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.carapp.security;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Egyszerű, korlátos méretű cache lejárati idővel (TTL).
+ *  - Olvasás zárolás nélkül (ConcurrentHashMap); a lejárt bejegyzést olvasáskor dobjuk el.
+ *  - Ha megtelt, előbb a lejártakat takarítjuk, utána tetszőleges bejegyzéseket dobunk,
+ *    így a méret soha nem nő maxSize fölé (egy rossz kliens sem tudja felfújni).
+ */
+public class ExpiringCache<K, V> {
+
+    private record Entry<V>(V value, long expiresAtNanos) {}
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+    private final int maxSize;
+
+    public ExpiringCache(long ttlMs, int maxSize) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+        this.maxSize = maxSize;
+    }
+
+    /** Érvényes érték, vagy null, ha nincs / lejárt. */
+    public V get(K key) {
+        Entry<V> e = entries.get(key);
+        if (e == null) return null;
+        if (System.nanoTime() - e.expiresAtNanos() > 0) {
+            entries.remove(key, e);
+            return null;
+        }
+        return e.value();
+    }
+
+    /** Érték a cache-ből, vagy betöltés; a null eredményt nem tároljuk. */
+    public V get(K key, Function<K, V> loader) {
+        V v = get(key);
+        if (v != null) return v;
+        v = loader.apply(key);
+        if (v != null) put(key, v);
+        return v;
+    }
+
+    public void put(K key, V value) {
+        if (entries.size() >= maxSize && !entries.containsKey(key)) makeRoom();
+        entries.put(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+    }
+
+    public void evict(K key) {
+        entries.remove(key);
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // --- private segédfüggvények ---
+
+    private void makeRoom() {
+        long now = System.nanoTime();
+        entries.values().removeIf(e -> now - e.expiresAtNanos() > 0);
+        Iterator<K> it = entries.keySet().iterator();
+        while (entries.size() >= maxSize && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package com.example.carapp.security;
 
-import com.example.carapp.repository.UserRepository;
-import com.example.carapp.security.JwtService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -28,11 +26,11 @@ import java.util.List;
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserRepository userRepository;
+    private final PrincipalCache principals; // -> email → user (id, név, szerepkör), TTL-lel
 
-    public JwtAuthFilter(JwtService jwtService, UserRepository userRepository) {
+    public JwtAuthFilter(JwtService jwtService, PrincipalCache principals) {
         this.jwtService = jwtService;
-        this.userRepository = userRepository;
+        this.principals = principals;
     }
 
     /**
@@ -59,25 +57,24 @@ public class JwtAuthFilter extends OncePerRequestFilter {
             return;
         }
 
-        // 2) Token + subject (email)
+        // 2) Token ellenőrzése egyszer (aláírás + lejárat), a subject (email) ebből jön
         String token = authHeader.substring(7);
-        String email = jwtService.extractUsername(token); // az email a subject
+        var verified = jwtService.verify(token); // null, ha érvénytelen / lejárt
 
        // 3) Ha még nincs autentikáció a SecurityContext-ben, megpróbáljuk beállítani
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            var userOpt = userRepository.findByEmail(email);
+        if (verified != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            var user = principals.resolve(verified.subject()); // -> cache-ből, csak hiány / lejárat esetén DB
 
-        // 4) Token ellenőrzés + user létezés
-            if (userOpt.isPresent() && jwtService.isTokenValid(token, email)) {
-                var user = userOpt.get();
+        // 4) User létezés
+            if (user != null) {
 
                 // 5) Jogosultságok összeállítása
                 // FONTOS: authority = "ADMIN" vagy "USER" (nem ROLE_ előtag!)
-                var authorities = List.of(new SimpleGrantedAuthority(user.getRole().name()));
+                var authorities = List.of(new SimpleGrantedAuthority(user.role().name()));
 
                 // 6) Authentication objektum összeállítása és SecurityContext-be tétele
                 var authToken = new UsernamePasswordAuthenticationToken(
-                        email,               // principal (lehet maga a user is, de az email is elég)
+                        user,                // principal: AuthUser (getName() = email), a controllerek ezt használják
                         null,                // credentials nincs
                         authorities          // <- hatóságok/user
                 );
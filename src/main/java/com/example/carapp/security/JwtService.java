@@ -1,6 +1,8 @@
 package com.example.carapp.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -9,21 +11,35 @@ import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
-import java.util.function.Function;
 
 /**
  * JWT tokenek generálása és ellenőrzése.
  * - HMAC SHA-256 aláírás (szimmetrikus kulcs)
  * - subject = felhasználó email
  * - lejárat (expiration) kezelése
+ * - egy kérésben egyetlen ellenőrzés (verify), egyszer felépített parserrel
+ * - a nemrég ellenőrzött tokenek (SHA-256 lenyomat → subject + lejárat) cache-ben,
+ *   így ugyanazon kliens ismételt kéréseinél nincs újabb aláírás-ellenőrzés és JSON parse
  */
 
 @Service
 public class JwtService {
 
+    /** Egy sikeresen ellenőrzött token: subject (email) + lejárat. */
+    public record VerifiedToken(String subject, long expiresAtMillis) {
+        boolean isExpired() {
+            return expiresAtMillis <= System.currentTimeMillis();
+        }
+    }
+
     private final SecretKey key;
     private final long expirationMs;
+    private final JwtParser parser; // -> szálbiztos, újrahasznosítható
+    private final ExpiringCache<String, VerifiedToken> verified;
 
     /**
      * A secret és az expiration konfigurációból jön (application.properties/yml).
@@ -31,10 +47,14 @@ public class JwtService {
      */
     public JwtService(
             @Value("${jwt.secret}") String secret,
-            @Value("${jwt.expiration-ms}") long expirationMs
+            @Value("${jwt.expiration-ms}") long expirationMs,
+            @Value("${jwt.verified-cache.ttl-ms:300000}") long verifiedTtlMs,
+            @Value("${jwt.verified-cache.max-size:10000}") int verifiedMaxSize
     ) {
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
         this.expirationMs = expirationMs;
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        this.verified = new ExpiringCache<>(verifiedTtlMs, verifiedMaxSize);
     }
 
     // Új JWT generálása a felhasználó email-jével, mint subject.
@@ -49,31 +69,53 @@ public class JwtService {
                 .compact();
     }
 
-    // Email kiolvasása a tokenből
+    /**
+     * Token ellenőrzése egyetlen lépésben (aláírás + lejárat + subject).
+     * Érvénytelen / lejárt / hibás token esetén null – kivételt nem dob.
+     */
+    public VerifiedToken verify(String token) {
+        String digest = digest(token);
+        VerifiedToken hit = verified.get(digest);
+        if (hit != null) {
+            if (!hit.isExpired()) return hit;
+            verified.evict(digest); // -> a token közben lejárt
+            return null;
+        }
+
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody(); // -> lejárt tokenre itt kivétel jön
+            if (claims.getSubject() == null || claims.getExpiration() == null) return null;
+            VerifiedToken ok = new VerifiedToken(claims.getSubject(), claims.getExpiration().getTime());
+            verified.put(digest, ok);
+            return ok;
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    // Email kiolvasása a tokenből (null, ha a token érvénytelen)
     public String extractUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+        VerifiedToken t = verify(token);
+        return t == null ? null : t.subject();
     }
 
     // Token érvényesség ellenőrzése
     // nem járt le
     // subject megyezik a várt emaillel
     public boolean isTokenValid(String token, String expectedEmail) {
-        String username = extractUsername(token);
-        return (username != null && username.equals(expectedEmail) && !isTokenExpired(token));
+        VerifiedToken t = verify(token);
+        return t != null && t.subject().equals(expectedEmail);
     }
 
     // --- private segédfüggvények ---
-    private boolean isTokenExpired(String token) {
-        Date exp = extractClaim(token, Claims::getExpiration);
-        return exp.before(new Date());
-    }
 
-    private <T> T extractClaim(String token, Function<Claims, T> resolver) {
-        Claims claims = Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-        return resolver.apply(claims);
+    // A cache kulcsa a token SHA-256 lenyomata: fix méretű, és a token maga nem kerül kulcsként tárolásra
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // -> SHA-256 minden JVM-ben elérhető
+        }
     }
 }
@@ -0,0 +1,83 @@
+package com.example.carapp.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Email- és IP-alapú kísérletkorlát a login / regisztráció elé.
+ * Fix időablakos számláló: az ablakon belül a limit feletti kérést azonnal elutasítjuk
+ * (429), még az adatbázis és a BCrypt munka előtt.
+ *  - Limit feletti IP-ről az email számlálóját már nem is érintjük: egy IP ablakonként legfeljebb
+ *    max-per-ip email kulcsot hozhat létre (és nem zárhat ki tetszőleges áldozat-emailt).
+ *  - A számlálók száma korlátos (max-keys): teli táblánál a lejártakat takarítjuk – a teljes bejárás
+ *    ablakonként legfeljebb néhányszor fut –, és ha így sincs hely, az új kulcs kérését elutasítjuk.
+ */
+@Component
+public class LoginThrottle {
+
+    private record Window(long startNanos, int count) {}
+
+    private final long windowNanos;
+    private final int maxPerEmail;
+    private final int maxPerIp;
+    private final int maxKeys;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepNanos = new AtomicLong(System.nanoTime()); // -> legkorábban ekkor takarítunk újra
+
+    public LoginThrottle(@Value("${security.login.window-ms:60000}") long windowMs,
+                         @Value("${security.login.max-per-email:5}") int maxPerEmail,
+                         @Value("${security.login.max-per-ip:20}") int maxPerIp,
+                         @Value("${security.login.max-keys:100000}") int maxKeys) {
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.maxPerEmail = maxPerEmail;
+        this.maxPerIp = maxPerIp;
+        this.maxKeys = Math.max(1, maxKeys);
+    }
+
+    /** Egy kísérlet regisztrálása; false, ha az email vagy az IP túllépte a limitet. */
+    public boolean tryAcquire(String email, String ip) {
+        if (ip != null && hit("ip:" + ip) > maxPerIp) return false; // -> az email kulcsot már nem rögzítjük
+        return email == null || hit("email:" + email.toLowerCase(Locale.ROOT)) <= maxPerEmail;
+    }
+
+    /** Sikeres bejelentkezés után az email számlálója nullázódik. */
+    public void reset(String email) {
+        if (email != null) windows.remove("email:" + email.toLowerCase(Locale.ROOT));
+    }
+
+    /** Az ablak hossza másodpercben (a Retry-After fejléc felső becslése). */
+    public long retryAfterSeconds() {
+        return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(windowNanos));
+    }
+
+    /** Követett kulcsok száma (teszthez). */
+    int trackedKeys() {
+        return windows.size();
+    }
+
+    // --- private segédfüggvények ---
+
+    private int hit(String key) {
+        long now = System.nanoTime();
+        if (windows.size() >= maxKeys && !windows.containsKey(key)) {
+            sweep(now);
+            if (windows.size() >= maxKeys) return Integer.MAX_VALUE; // -> tele: új kulcs nem kerül be, a kérés 429
+        }
+        return windows.compute(key, (k, w) -> w == null || now - w.startNanos() > windowNanos
+                ? new Window(now, 1)
+                : new Window(w.startNanos(), w.count() + 1)).count();
+    }
+
+    // lejárt ablakok törlése; negyed ablakonként legfeljebb egy szál járja be a táblát, nem minden kérés
+    private void sweep(long now) {
+        long due = nextSweepNanos.get();
+        if (now - due < 0 || !nextSweepNanos.compareAndSet(due, now + windowNanos / 4)) return;
+        windows.values().removeIf(w -> now - w.startNanos() > windowNanos);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.carapp.security;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * BCrypt hash-elés és ellenőrzés külön, korlátos szálkészleten.
+ *  - A Tomcat worker szálak nem ülnek a ~100 ms-os BCrypt munkán: a controller
+ *    CompletableFuture-t ad vissza, a válasz a hash elkészültekor megy ki.
+ *  - A várakozási sor korlátos: ha megtelt, azonnal BusyException (503), nem torlódik fel.
+ *  - A hash utáni folytatás (DB mentés, token) ne a BCrypt szálakon fusson: a controllerek
+ *    a callbacks() virtuális szálain folytatnak, így a készlet csak hash-el.
+ */
+@Component
+public class PasswordHashing {
+
+    /** Megtelt a hash-elő sor – a GlobalExceptionHandler 503-at ad belőle. */
+    public static class BusyException extends RuntimeException {
+        public BusyException() {
+            super("Password hashing queue is full");
+        }
+    }
+
+    private final PasswordEncoder encoder;
+    private final ThreadPoolExecutor pool;
+    private final ExecutorService callbacks = Executors.newVirtualThreadPerTaskExecutor(); // -> blokkoló folytatásokhoz
+
+    public PasswordHashing(PasswordEncoder encoder,
+                           @Value("${security.bcrypt.threads:0}") int threads,
+                           @Value("${security.bcrypt.queue-capacity:64}") int queueCapacity) {
+        this.encoder = encoder;
+        int n = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2); // -> 0 = magok fele
+        AtomicInteger seq = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(n, n, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "bcrypt-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy()); // -> teli sor: RejectedExecutionException
+    }
+
+    /** Jelszó hash-elése a BCrypt készleten. */
+    public CompletableFuture<String> encode(String raw) {
+        return submit(() -> encoder.encode(raw));
+    }
+
+    /** Jelszó ellenőrzése a BCrypt készleten. */
+    public CompletableFuture<Boolean> matches(String raw, String hash) {
+        return submit(() -> encoder.matches(raw, hash));
+    }
+
+    /** Executor a hash utáni (JDBC-t is használó) folytatásokhoz: thenApplyAsync(..., callbacks()). */
+    public Executor callbacks() {
+        return callbacks;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+        callbacks.shutdown();
+    }
+
+    // --- private segédfüggvények ---
+
+    private <T> CompletableFuture<T> submit(Callable<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            pool.execute(() -> {
+                try {
+                    result.complete(work.call());
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.completeExceptionally(new BusyException());
+        }
+        return result;
+    }
+}
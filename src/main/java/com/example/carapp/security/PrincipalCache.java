@@ -0,0 +1,33 @@
+package com.example.carapp.security;
+
+import com.example.carapp.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Email → AuthUser cache a JWT szűrő elé, hogy ne kelljen minden kérésnél a usert lekérdezni.
+ * A user módosításakor / törlésekor (szerepkör, email, törlés) a controllerek evict-elnek,
+ * egyébként a TTL korlátozza, meddig élhet egy elavult bejegyzés.
+ */
+@Component
+public class PrincipalCache {
+
+    private final UserRepository userRepository;
+    private final ExpiringCache<String, AuthUser> cache;
+
+    public PrincipalCache(UserRepository userRepository,
+                          @Value("${security.principal-cache.ttl-ms:60000}") long ttlMs,
+                          @Value("${security.principal-cache.max-size:10000}") int maxSize) {
+        this.userRepository = userRepository;
+        this.cache = new ExpiringCache<>(ttlMs, maxSize);
+    }
+
+    /** A felhasználó cache-ből vagy adatbázisból; null, ha nincs ilyen email. */
+    public AuthUser resolve(String email) {
+        return cache.get(email, e -> userRepository.findByEmail(e).map(AuthUser::from).orElse(null));
+    }
+
+    public void evict(String email) {
+        if (email != null) cache.evict(email);
+    }
+}
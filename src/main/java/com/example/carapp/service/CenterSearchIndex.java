@@ -0,0 +1,168 @@
+package com.example.carapp.service;
+
+import com.example.carapp.model.ServiceCenter;
+import com.example.carapp.repository.ServiceCenterRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Memóriában tartott keresőindex a szervizközpontokra (név, város, cím).
+ *  - Ékezet- és kisbetű-független (TextFolding): "gyo" → "Győr".
+ *  - Szó-prefix keresés rendezett token-térképen (skip list): a prefix tartomány egy subMap,
+ *    nincs teljes bejárás és nincs adatbázis-lekérdezés.
+ *  - Több szó esetén mindegyiknek illeszkednie kell (ÉS); a legkevesebb találatot adó szó adja
+ *    a jelölteket, a többit a jelöltek tokenjein ellenőrizzük.
+ *  - Új center (ServiceCenterController.create) azonnal bekerül; induláskor és időszakosan teljes újraépítés.
+ */
+@Service
+public class CenterSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CenterSearchIndex.class);
+
+    public static final int MAX_PAGE_SIZE = 50; // -> egy oldalon legfeljebb ennyi találat
+
+    /** Egy indexelt center: az entitás + előre összehajtott mezők. */
+    private record Doc(ServiceCenter center, String nameKey, List<String> nameTokens, Set<String> tokens) {
+        static Doc of(ServiceCenter c) {
+            List<String> name = TextFolding.tokens(c.getName());
+            Set<String> all = new HashSet<>(name);
+            all.addAll(TextFolding.tokens(c.getCity()));
+            all.addAll(TextFolding.tokens(c.getAddress()));
+            return new Doc(c, String.join(" ", name), name, all);
+        }
+    }
+
+    /** Az index egy példánya; újraépítéskor egészben cseréljük. */
+    private static final class Index {
+        final ConcurrentNavigableMap<String, Set<Long>> postings = new ConcurrentSkipListMap<>(); // -> token → center ID-k
+        final Map<String, Set<Long>> byCity = new ConcurrentHashMap<>(); // -> összehajtott város → center ID-k
+        final Map<Long, Doc> docs = new ConcurrentHashMap<>();
+
+        void add(ServiceCenter c) {
+            Doc doc = Doc.of(c);
+            docs.put(c.getId(), doc);
+            for (String t : doc.tokens()) postings.computeIfAbsent(t, k -> ConcurrentHashMap.newKeySet()).add(c.getId());
+            byCity.computeIfAbsent(cityKey(c.getCity()), k -> ConcurrentHashMap.newKeySet()).add(c.getId());
+        }
+
+        // a prefixszel kezdődő tokenek center ID-i
+        Set<Long> prefix(String p) {
+            Set<Long> out = new HashSet<>();
+            for (Set<Long> ids : range(p).values()) out.addAll(ids);
+            return out;
+        }
+
+        // a prefix tartomány mérete (posting-ok száma), legfeljebb limit-ig számolva
+        long cost(String p, long limit) {
+            long n = 0;
+            for (Set<Long> ids : range(p).values()) {
+                n += ids.size();
+                if (n >= limit) break;
+            }
+            return n;
+        }
+
+        private ConcurrentNavigableMap<String, Set<Long>> range(String p) {
+            return postings.subMap(p, true, p + Character.MAX_VALUE, false);
+        }
+    }
+
+    private final ServiceCenterRepository centers;
+    private volatile Index index = new Index();
+
+    public CenterSearchIndex(ServiceCenterRepository centers) {
+        this.centers = centers;
+    }
+
+    /** Autocomplete: minden szó prefixként illeszkedjen; rangsor: névkezdet, névszó, egyéb mező, majd név szerint. */
+    public List<ServiceCenter> search(String query, int page, int size) {
+        List<String> terms = TextFolding.tokens(query);
+        if (terms.isEmpty()) return List.of();
+        Index ix = index;
+
+        // a legszelektívebb szó (legkevesebb posting) adja a jelölteket
+        String driver = terms.get(0);
+        long best = Long.MAX_VALUE;
+        for (String term : terms) {
+            long cost = ix.cost(term, best);
+            if (cost < best) { best = cost; driver = term; }
+        }
+        List<Doc> hits = new ArrayList<>();
+        for (Long id : ix.prefix(driver)) {
+            Doc d = ix.docs.get(id);
+            if (d != null && matchesAll(d, terms)) hits.add(d);
+        }
+
+        String phrase = String.join(" ", terms);
+        hits.sort(Comparator.<Doc>comparingInt(d -> rank(d, phrase, terms))
+                .thenComparing(Doc::nameKey)
+                .thenComparing(d -> d.center().getId()));
+
+        int from = (int) Math.min(hits.size(), (long) Math.max(0, page) * size); // -> long: nem csordul túl
+        int to = (int) Math.min(hits.size(), (long) from + Math.max(0, size));
+        return hits.subList(from, to).stream().map(Doc::center).toList();
+    }
+
+    /** Város szerinti szűrés (ékezet- és kisbetű-független egyezés), ID szerint rendezve. */
+    public List<ServiceCenter> byCity(String city) {
+        Index ix = index;
+        return ix.byCity.getOrDefault(cityKey(city), Set.of()).stream()
+                .sorted()
+                .map(ix.docs::get)
+                .filter(Objects::nonNull)
+                .map(Doc::center)
+                .toList();
+    }
+
+    /** Új vagy módosított center felvétele az indexbe. */
+    public void add(ServiceCenter center) {
+        index.add(center);
+    }
+
+    /** Teljes újraépítés az adatbázisból (induláskor, a seed után, majd időszakosan). */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${centers.search.rebuild-ms:600000}", initialDelayString = "${centers.search.rebuild-ms:600000}")
+    public void rebuild() {
+        Index fresh = new Index();
+        centers.findAll().forEach(fresh::add);
+        Index old = index;
+        index = fresh;
+        // az építés közben (create) felvett centerek ne vesszenek el
+        old.docs.forEach((id, d) -> { if (!fresh.docs.containsKey(id)) fresh.add(d.center()); });
+        log.debug("Center search index rebuilt: {} centers", fresh.docs.size());
+    }
+
+    // --- private segédfüggvények ---
+
+    private static boolean matchesAll(Doc d, List<String> terms) {
+        for (String term : terms) {
+            boolean found = false;
+            for (String t : d.tokens()) {
+                if (t.startsWith(term)) { found = true; break; }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    private static int rank(Doc d, String phrase, List<String> terms) {
+        if (d.nameKey().startsWith(phrase)) return 0; // -> a név így kezdődik
+        for (String t : d.nameTokens()) {
+            if (t.startsWith(terms.get(0))) return 1; // -> a név egy szava illeszkedik
+        }
+        return 2; // -> csak város / cím
+    }
+
+    private static String cityKey(String city) {
+        return TextFolding.fold(city).trim();
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.carapp.service;
+
+import com.example.carapp.model.Comment;
+import com.example.carapp.repository.CommentRepository;
+import com.example.carapp.repository.PostRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Komment írása / törlése a poszt denormalizált kommentszámával együtt.
+ *  - Mentés + számláló növelése egy tranzakcióban (atomikus UPDATE, párhuzamos kommenteknél sem csúszik el).
+ *  - Törlésnél csak az a kérés csökkenti a számlálót, amelyik ténylegesen törölte a sort.
+ *  - Induláskor a forum_comments táblából kijavítjuk az eltérő számlálókat.
+ */
+@Service
+public class ForumCommentService {
+
+    private static final Logger log = LoggerFactory.getLogger(ForumCommentService.class);
+
+    private final CommentRepository comments;
+    private final PostRepository posts;
+    private final TransactionTemplate tx;
+
+    public ForumCommentService(CommentRepository comments, PostRepository posts, TransactionTemplate tx) {
+        this.comments = comments;
+        this.posts = posts;
+        this.tx = tx;
+    }
+
+    /** Új komment mentése; a poszt kommentszáma ugyanabban a tranzakcióban nő. */
+    public Comment add(Comment c) {
+        return tx.execute(status -> {
+            Comment saved = comments.save(c);
+            posts.addCommentCount(c.getPost().getId(), 1);
+            return saved;
+        });
+    }
+
+    /** Komment törlése; true, ha ez a hívás törölte (ekkor csökken a számláló). */
+    public boolean delete(Long commentId, Long postId) {
+        Boolean deleted = tx.execute(status -> {
+            if (comments.deleteReturningCount(commentId) == 0) return false; // -> közben már törölték
+            posts.addCommentCount(postId, -1);
+            return true;
+        });
+        return Boolean.TRUE.equals(deleted);
+    }
+
+    /** Induláskori egyeztetés: a kommentszámok javítása a forum_comments alapján. */
+    @PostConstruct
+    void reconcile() {
+        Integer fixed = tx.execute(status -> posts.reconcileCommentCounts());
+        if (fixed != null && fixed > 0) log.info("Reconciled {} post comment counts", fixed);
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.carapp.service;
+
+import com.example.carapp.dto.ForumEvent;
+import com.example.carapp.model.ForumCategory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Folyamaton belüli eseménybusz a fórum élő folyamához (SSE, /api/forum/stream).
+ *  - A controllerek a sikeres DB írás után publikálnak; a feliratkozók szűrhetnek kategóriára vagy posztra,
+ *    a kiküldés csak az érintett halmazokat járja be (mind + kategória + poszt).
+ *  - Feliratkozónként korlátos puffer: ha a kliens lassú és a puffer megtelt, a legrégebbi esemény esik ki,
+ *    a publikáló sosem blokkol.
+ *  - Feliratkozónként egy virtuális szál küld; üresjáratban a take()-en parkol, CPU-t nem használ.
+ *    A servlet szál a kérés elején felszabadul (aszinkron válasz).
+ *  - Időszakos heartbeat (SSE komment): a halott kapcsolatok így kiderülnek és felszabadulnak.
+ *    Csak üres pufferbe kerül – ha van várakozó esemény, annak küldése úgyis kideríti a halott kapcsolatot.
+ */
+@Service
+public class ForumEventBus {
+
+    private static final Logger log = LoggerFactory.getLogger(ForumEventBus.class);
+    private static final ForumEvent HEARTBEAT = new ForumEvent(); // -> jelölő a pufferben: ping küldése
+
+    /** Egy élő kapcsolat: SSE emitter + saját puffer + küldő szál. */
+    private final class Subscriber {
+        final SseEmitter emitter;
+        final ForumCategory category; // -> null: nincs kategóriaszűrés
+        final Long postId; // -> null: nincs posztszűrés
+        final LinkedBlockingDeque<ForumEvent> buffer = new LinkedBlockingDeque<>(bufferSize);
+        volatile Thread sender;
+
+        Subscriber(SseEmitter emitter, ForumCategory category, Long postId) {
+            this.emitter = emitter;
+            this.category = category;
+            this.postId = postId;
+        }
+
+        // drop-oldest: a legrégebbi kiesik, az új mindig bekerül
+        void offer(ForumEvent e) {
+            while (!buffer.offerLast(e)) {
+                if (buffer.pollFirst() != null) dropped.incrementAndGet();
+            }
+        }
+
+        // heartbeat csak üres pufferbe, eldobás nélkül: valódi eseményt sosem szorít ki
+        void ping() {
+            if (buffer.isEmpty()) buffer.offerLast(HEARTBEAT);
+        }
+
+        void drain() {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    ForumEvent e = buffer.takeFirst();
+                    if (e == HEARTBEAT) emitter.send(SseEmitter.event().comment("ping"));
+                    else emitter.send(SseEmitter.event()
+                            .id(Long.toString(e.getId()))
+                            .name(e.getType().name())
+                            .data(e, MediaType.APPLICATION_JSON));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt(); // -> leiratkozás
+            } catch (IOException | IllegalStateException e) {
+                unsubscribe(this); // -> a kliens lezárta a kapcsolatot
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private final Set<Subscriber> all = ConcurrentHashMap.newKeySet(); // -> szűrés nélküli feliratkozók
+    private final Map<ForumCategory, Set<Subscriber>> byCategory = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Subscriber>> byPost = new ConcurrentHashMap<>();
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong(); // -> lassú kliensek miatt eldobott események
+    private final ThreadFactory senders = Thread.ofVirtual().name("forum-sse-", 0).factory();
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMs;
+
+    public ForumEventBus(@Value("${forum.stream.buffer-size:64}") int bufferSize,
+                         @Value("${forum.stream.max-subscribers:10000}") int maxSubscribers,
+                         @Value("${forum.stream.timeout-ms:1800000}") long timeoutMs) {
+        this.bufferSize = Math.max(1, bufferSize);
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * Új feliratkozás (category / postId szerint szűrve, mindkettő null: minden esemény).
+     * Visszatér null-lal, ha elértük a max. feliratkozószámot.
+     */
+    public SseEmitter subscribe(ForumCategory category, Long postId) {
+        if (count.incrementAndGet() > maxSubscribers) {
+            count.decrementAndGet();
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMs); // -> lejárat után a böngésző (EventSource) újracsatlakozik
+        Subscriber sub = new Subscriber(emitter, category, postId);
+        emitter.onCompletion(() -> unsubscribe(sub));
+        emitter.onTimeout(() -> unsubscribe(sub));
+        emitter.onError(e -> unsubscribe(sub));
+
+        if (postId != null) addTo(byPost, postId, sub);
+        else if (category != null) addTo(byCategory, category, sub);
+        else all.add(sub);
+
+        sub.sender = senders.newThread(sub::drain);
+        sub.sender.start();
+        return emitter;
+    }
+
+    /** Esemény kiküldése minden érintett feliratkozónak (nem blokkol). */
+    public void publish(ForumEvent event) {
+        if (count.get() == 0) return; // -> nincs hallgató: semmi munka
+        event.setId(sequence.incrementAndGet());
+        all.forEach(s -> s.offer(event));
+        if (event.getCategory() != null) {
+            Set<Subscriber> subs = byCategory.get(event.getCategory());
+            if (subs != null) subs.forEach(s -> s.offer(event));
+        }
+        if (event.getPostId() != null) {
+            Set<Subscriber> subs = byPost.get(event.getPostId());
+            if (subs != null) subs.forEach(s -> s.offer(event));
+        }
+    }
+
+    public int subscriberCount() {
+        return count.get();
+    }
+
+    /** Heartbeat a tétlen kapcsolatokra (csak üres pufferbe, így lassú kliensnél nem szorít ki eseményt). */
+    @Scheduled(fixedDelayString = "${forum.stream.heartbeat-ms:25000}")
+    public void heartbeat() {
+        if (count.get() == 0) return;
+        all.forEach(Subscriber::ping);
+        byCategory.values().forEach(set -> set.forEach(Subscriber::ping));
+        byPost.values().forEach(set -> set.forEach(Subscriber::ping));
+        long d = dropped.getAndSet(0);
+        if (d > 0) log.debug("Forum stream dropped {} events for slow subscribers", d);
+    }
+
+    // --- private segédfüggvények ---
+
+    private void unsubscribe(Subscriber sub) {
+        boolean removed;
+        if (sub.postId != null) removed = removeFrom(byPost, sub.postId, sub);
+        else if (sub.category != null) removed = removeFrom(byCategory, sub.category, sub);
+        else removed = all.remove(sub);
+        if (!removed) return; // -> már leiratkozott (több visszahívás is jöhet)
+        count.decrementAndGet();
+        Thread t = sub.sender;
+        if (t != null && t != Thread.currentThread()) t.interrupt(); // -> a küldő szál kilép
+    }
+
+    // a térkép zárja alatt: egy párhuzamos removeFrom nem dobhatja el a halmazt a hozzáadás közben
+    private static <K> void addTo(Map<K, Set<Subscriber>> index, K key, Subscriber sub) {
+        index.compute(key, (k, set) -> {
+            Set<Subscriber> out = set != null ? set : ConcurrentHashMap.newKeySet();
+            out.add(sub);
+            return out;
+        });
+    }
+
+    private static <K> boolean removeFrom(Map<K, Set<Subscriber>> index, K key, Subscriber sub) {
+        boolean[] removed = {false};
+        index.computeIfPresent(key, (k, set) -> {
+            removed[0] = set.remove(sub);
+            return set.isEmpty() ? null : set; // -> üres halmaz ne maradjon a térképben
+        });
+        return removed[0];
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.carapp.service;
+
+import com.example.carapp.dto.ForumSearchHit;
+import com.example.carapp.model.Comment;
+import com.example.carapp.model.Post;
+import com.example.carapp.repository.CommentRepository;
+import com.example.carapp.repository.PostRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Memóriában tartott teljes szöveges kereső a fórumhoz (poszt címe és tartalma, kommentek).
+ *  - Fordított index: szótő → (dokumentum → előfordulások száma); a keresés csak a kérdés szavainak
+ *    listáit járja be, az adatbázishoz nem nyúl.
+ *  - Magyar szövegre: ékezet- és kisbetű-független (TextFolding), a gyakori névelők / kötőszavak kimaradnak,
+ *    a leggyakoribb ragok és a többesjel levágódnak ("motorokban", "motort" → "motor").
+ *  - Rangsor: BM25 (k1 = 1.2, b = 0.75); a poszt címének szavai kétszeres súllyal számítanak.
+ *  - A ForumController minden írás után frissíti; induláskor az adatbázisból épül fel.
+ */
+@Service
+public class ForumSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ForumSearchIndex.class);
+
+    public static final int MAX_RESULTS = 1000; // -> ennél mélyebbre nem lapozunk (page * size)
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int TITLE_WEIGHT = 2; // -> cím szava ennyi előfordulásnak számít
+    private static final int SNIPPET_LENGTH = 160; // -> a találatban visszaadott szövegrészlet hossza
+    private static final int MIN_STEM = 4; // -> ennél rövidebbre nem vágunk (pl. "fék", "kerék" épen marad)
+
+    // ékezet nélküli alakban, mert a TextFolding után vizsgáljuk
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "az", "egy", "es", "is", "hogy", "nem", "de", "meg", "mar", "csak", "van", "volt",
+            "ez", "azt", "ezt", "mint", "vagy", "ha", "mert", "itt", "ott", "mi", "ki", "el", "be", "le", "fel");
+    // hosszabb rag előbb; egy szóról legfeljebb kettő jön le (többesjel + rag: "motor-ok-ban")
+    private static final String[] SUFFIXES = {
+            "ban", "ben", "bol", "bel", "rol", "tol", "nak", "nek", "val", "vel", "hoz", "hez", "nal", "nel", "ert",
+            "ba", "be", "ra", "re", "on", "en", "ok", "ek", "ak", "at", "et", "ot", "ja", "je",
+            "t", "k"};
+
+    private record Ref(boolean comment, long id) {}
+
+    /** Egy indexelt poszt vagy komment; a terms az eltávolításhoz kell. */
+    private record Doc(Ref ref, long postId, String title, String snippet, LocalDateTime createdAt,
+                       Map<String, Integer> terms, int length) {}
+
+    private final PostRepository posts;
+    private final CommentRepository comments;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock(); // -> sok olvasó, ritka író
+    private final Map<String, Map<Ref, Integer>> postings = new HashMap<>(); // -> szótő → dokumentum → tf
+    private final Map<Ref, Doc> docs = new HashMap<>();
+    private final Map<Long, Set<Long>> commentsByPost = new HashMap<>(); // -> poszt törlésekor a kommentjei is mennek
+    private long totalLength; // -> az átlagos dokumentumhosszhoz
+
+    public ForumSearchIndex(PostRepository posts, CommentRepository comments) {
+        this.posts = posts;
+        this.comments = comments;
+    }
+
+    /** Rangsorolt találatok (BM25 szerint csökkenő), lapozva; üres kérdésre üres lista. */
+    public List<ForumSearchHit> search(String query, int page, int size) {
+        List<String> terms = analyze(query).stream().distinct().toList();
+        long from = (long) Math.max(0, page) * size; // -> long: nagy page * size sem csordul túl negatívba
+        long want = Math.min(MAX_RESULTS, from + size);
+        if (terms.isEmpty() || from >= want) return List.of(); // -> MAX_RESULTS-on túl üres oldal
+
+        lock.readLock().lock();
+        try {
+            if (docs.isEmpty()) return List.of();
+            double n = docs.size();
+            double avgLength = Math.max(1.0, (double) totalLength / docs.size());
+
+            Map<Ref, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Map<Ref, Integer> list = postings.get(term);
+                if (list == null) continue;
+                double idf = Math.log(1 + (n - list.size() + 0.5) / (list.size() + 0.5));
+                for (Map.Entry<Ref, Integer> e : list.entrySet()) {
+                    int tf = e.getValue();
+                    double norm = K1 * (1 - B + B * docs.get(e.getKey()).length() / avgLength);
+                    scores.merge(e.getKey(), idf * tf * (K1 + 1) / (tf + norm), Double::sum);
+                }
+            }
+
+            // csak a kért oldalig tartjuk meg a legjobbakat (min-kupac), nem rendezzük az összes találatot
+            Comparator<Map.Entry<Ref, Double>> order = Map.Entry.<Ref, Double>comparingByValue()
+                    .thenComparing(e -> e.getKey().id()); // -> azonos pontszámnál az újabb (nagyobb ID) előrébb
+            PriorityQueue<Map.Entry<Ref, Double>> top = new PriorityQueue<>(order);
+            for (Map.Entry<Ref, Double> e : scores.entrySet()) {
+                top.offer(e);
+                if (top.size() > want) top.poll();
+            }
+            List<Map.Entry<Ref, Double>> ranked = new ArrayList<>(top);
+            ranked.sort(order.reversed());
+
+            List<ForumSearchHit> out = new ArrayList<>();
+            for (int i = (int) from; i < ranked.size(); i++) out.add(toHit(ranked.get(i)));
+            return out;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Új vagy módosított poszt (cím + tartalom) az indexbe. */
+    public void putPost(Post p) {
+        put(new Ref(false, p.getId()), p.getId(), p.getTitle(), p.getContent(), p.getCreatedAt());
+    }
+
+    /** Új komment az indexbe (a poszt lehet csak referencia: csak az ID-ja kell). */
+    public void putComment(Comment c) {
+        put(new Ref(true, c.getId()), c.getPost().getId(), null, c.getContent(), c.getCreatedAt());
+    }
+
+    /** Poszt törlése az indexből, a kommentjeivel együtt. */
+    public void removePost(Long postId) {
+        lock.writeLock().lock();
+        try {
+            remove(new Ref(false, postId));
+            Set<Long> ids = commentsByPost.remove(postId);
+            if (ids != null) for (Long id : ids) remove(new Ref(true, id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeComment(Long commentId) {
+        lock.writeLock().lock();
+        try {
+            Doc d = remove(new Ref(true, commentId));
+            if (d != null) {
+                Set<Long> ids = commentsByPost.get(d.postId());
+                if (ids != null && ids.remove(commentId) && ids.isEmpty()) commentsByPost.remove(d.postId());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Teljes felépítés az adatbázisból induláskor (a seed után); csak a kereséshez szükséges oszlopokat olvassa. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        List<Object[]> postRows = posts.findSearchRows();
+        List<Object[]> commentRows = comments.findSearchRows();
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docs.clear();
+            commentsByPost.clear();
+            totalLength = 0;
+            for (Object[] r : postRows) {
+                Long id = (Long) r[0];
+                put(new Ref(false, id), id, (String) r[1], (String) r[2], (LocalDateTime) r[3]);
+            }
+            for (Object[] r : commentRows) {
+                put(new Ref(true, (Long) r[0]), (Long) r[1], null, (String) r[2], (LocalDateTime) r[3]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Forum search index built: {} posts, {} comments", postRows.size(), commentRows.size());
+    }
+
+    /** Szöveg → indexelhető szótövek: TextFolding tokenek, stopszavak nélkül, ragok levágva. */
+    static List<String> analyze(String text) {
+        List<String> out = new ArrayList<>();
+        for (String token : TextFolding.tokens(text)) {
+            if (STOP_WORDS.contains(token)) continue;
+            out.add(stem(stem(token)));
+        }
+        return out;
+    }
+
+    // --- private segédfüggvények ---
+
+    private void put(Ref ref, long postId, String title, String content, LocalDateTime createdAt) {
+        Map<String, Integer> terms = new HashMap<>();
+        for (String t : analyze(title)) terms.merge(t, TITLE_WEIGHT, Integer::sum);
+        for (String t : analyze(content)) terms.merge(t, 1, Integer::sum);
+        int length = 0;
+        for (int tf : terms.values()) length += tf;
+        Doc doc = new Doc(ref, postId, title, snippet(content), createdAt, terms, length);
+
+        lock.writeLock().lock();
+        try {
+            remove(ref); // -> módosításnál a régi szavak kikerülnek
+            docs.put(ref, doc);
+            totalLength += length;
+            for (Map.Entry<String, Integer> e : terms.entrySet()) {
+                postings.computeIfAbsent(e.getKey(), k -> new HashMap<>()).put(ref, e.getValue());
+            }
+            if (ref.comment()) commentsByPost.computeIfAbsent(postId, k -> new HashSet<>()).add(ref.id());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // írási zár alatt hívandó
+    private Doc remove(Ref ref) {
+        Doc old = docs.remove(ref);
+        if (old == null) return null;
+        totalLength -= old.length();
+        for (String term : old.terms().keySet()) {
+            Map<Ref, Integer> list = postings.get(term);
+            if (list != null && list.remove(ref) != null && list.isEmpty()) postings.remove(term);
+        }
+        return old;
+    }
+
+    // olvasási zár alatt hívandó
+    private ForumSearchHit toHit(Map.Entry<Ref, Double> e) {
+        Doc d = docs.get(e.getKey());
+        Doc post = d.ref().comment() ? docs.get(new Ref(false, d.postId())) : d; // -> kommentnél a poszt címe
+        return new ForumSearchHit(
+                d.ref().comment() ? "COMMENT" : "POST",
+                d.postId(),
+                d.ref().comment() ? d.ref().id() : null,
+                post != null ? post.title() : null,
+                d.snippet(),
+                d.createdAt(),
+                e.getValue());
+    }
+
+    private static String stem(String token) {
+        for (String s : SUFFIXES) {
+            if (token.length() - s.length() >= MIN_STEM && token.endsWith(s)) {
+                return token.substring(0, token.length() - s.length());
+            }
+        }
+        return token;
+    }
+
+    private static String snippet(String content) {
+        if (content == null) return null;
+        String s = content.strip();
+        return s.length() <= SNIPPET_LENGTH ? s : s.substring(0, SNIPPET_LENGTH) + "…";
+    }
+}
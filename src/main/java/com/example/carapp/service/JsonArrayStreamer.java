@@ -0,0 +1,69 @@
+package com.example.carapp.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Nagy listák streamelt JSON-kiírása (export jellegű végpontokhoz).
+ *  - A sorok egy JPA Stream-ből (adatbázis-kurzor, fetch size hinttel) egyenként kerülnek a JsonGenerator-ba:
+ *    a teljes lista sosem áll össze a memóriában, a memóriaigény nem függ a tábla méretétől.
+ *  - A kiírás a válasz aszinkron szálán, egy csak olvasó tranzakcióban fut – a kurzor a végéig nyitva marad.
+ *  - FLUSH_EVERY soronként a generátor kiírja a puffert, és a persistence context kiürül
+ *    (különben a már kiírt entitások ott gyűlnének).
+ */
+@Service
+public class JsonArrayStreamer {
+
+    private static final int FLUSH_EVERY = 500; // -> a repository stream metódusok fetch size-a is ennyi
+
+    private final ObjectMapper objectMapper;
+    private final EntityManager em;
+    private final TransactionTemplate readOnlyTx;
+
+    public JsonArrayStreamer(ObjectMapper objectMapper, EntityManager em, PlatformTransactionManager txManager) {
+        this.objectMapper = objectMapper;
+        this.em = em;
+        this.readOnlyTx = new TransactionTemplate(txManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /** JSON tömb a stream soraiból; mapper: sor → kiírandó objektum (entitás vagy DTO). */
+    public <T> StreamingResponseBody jsonArray(Supplier<Stream<T>> rows, Function<? super T, ?> mapper) {
+        return out -> readOnlyTx.executeWithoutResult(status -> write(rows, mapper, out));
+    }
+
+    // --- private segédfüggvények ---
+
+    private <T> void write(Supplier<Stream<T>> rows, Function<? super T, ?> mapper, OutputStream out) {
+        try (Stream<T> stream = rows.get();
+             JsonGenerator gen = objectMapper.createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET); // -> a válasz streamjét a konténer zárja
+            gen.writeStartArray();
+            Iterator<T> it = stream.iterator();
+            int n = 0;
+            while (it.hasNext()) {
+                gen.writeObject(mapper.apply(it.next()));
+                if (++n % FLUSH_EVERY == 0) {
+                    gen.flush(); // -> a kliens (és a gzip) folyamatosan kapja az adatot
+                    em.clear(); // -> kiírt entitások eldobása
+                }
+            }
+            gen.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // -> pl. a kliens bontotta a kapcsolatot: a tranzakció visszagörget
+        }
+    }
+}
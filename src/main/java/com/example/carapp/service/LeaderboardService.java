@@ -0,0 +1,288 @@
+package com.example.carapp.service;
+
+import com.example.carapp.dto.LeaderboardEntry;
+import com.example.carapp.model.CenterMonthlyScore;
+import com.example.carapp.model.ServiceCenter;
+import com.example.carapp.model.ServiceVote;
+import com.example.carapp.repository.CenterMonthlyScoreRepository;
+import com.example.carapp.repository.ServiceCenterRepository;
+import com.example.carapp.repository.ServiceVoteRepository;
+import com.example.carapp.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Havi szervizranglista.
+ *  - center_monthly_scores: (center, év, hónap) → (értékelések összege, szavazatok száma);
+ *    a szavazás ugyanabban a tranzakcióban módosítja (újraszavazásnál csak a különbséggel).
+ *  - Memóriában hónaponként egy rendezett pillanatkép: az olvasás csak egy kész listát ad vissza,
+ *    aggregálás és rendezés nélkül. Változáskor commit után a sor friss értéke (revision alapján,
+ *    csak ha újabb) kerül be, és a hónap listája újrarendeződik.
+ *  - PostgreSQL-en a szavazás egyetlen upsert utasítás (szavazat + ranglista, ütközési hiba nélkül);
+ *    más adatbázison (pl. H2 a tesztekben) zárolt olvasás + írás ugyanabban a tranzakcióban.
+ *  - Induláskor a service_votes táblából újraszámolunk, és a ranglistatáblát kijavítjuk.
+ */
+@Service
+public class LeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+    private static final int MAX_CACHED_MONTHS = 24; // -> ennyi hónap fölött a régieket eldobjuk
+
+    private final ServiceVoteRepository votes;
+    private final CenterMonthlyScoreRepository scores;
+    private final ServiceCenterRepository centers;
+    private final UserRepository users;
+    private final TransactionTemplate tx;
+    private final DataSource dataSource;
+
+    private final Map<YearMonth, Board> boards = new ConcurrentHashMap<>();
+    private volatile boolean nativeUpsert; // -> PostgreSQL: egyutasításos upsert
+
+    public LeaderboardService(ServiceVoteRepository votes,
+                              CenterMonthlyScoreRepository scores,
+                              ServiceCenterRepository centers,
+                              UserRepository users,
+                              TransactionTemplate tx,
+                              DataSource dataSource) {
+        this.votes = votes;
+        this.scores = scores;
+        this.centers = centers;
+        this.users = users;
+        this.tx = tx;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Szavazat leadása vagy módosítása + a havi összesítő frissítése egy tranzakcióban.
+     * Visszatér: true, ha új szavazat jött létre (false: meglévő módosítva).
+     * PostgreSQL-en egyetlen utasítás; egyébként párhuzamos első szavazatnál DataIntegrityViolationException
+     * jöhet (egyedi kulcs) – a hívó újrapróbálja.
+     */
+    @Transactional
+    public boolean castVote(Long userId, Long centerId, int year, int month, int rating) {
+        YearMonth ym = YearMonth.of(year, month);
+        if (nativeUpsert) {
+            boolean created = votes.upsertVote(userId, centerId, rating, year, month);
+            afterCommit(() -> refresh(centerId, ym));
+            return created;
+        }
+
+        var existing = votes.findForUpdate(userId, centerId, year, month); // -> zárolva: a különbség biztosan a régi értékhez képest
+        long ratingDelta;
+        long countDelta;
+        if (existing.isPresent()) {
+            ServiceVote v = existing.get(); // -> újraszavazás: csak a különbség
+            ratingDelta = rating - v.getRating();
+            countDelta = 0;
+            v.setPreviousRating(v.getRating());
+            v.setRating(rating);
+        } else {
+            ServiceVote v = new ServiceVote(); // -> új szavazat
+            v.setUser(users.getReferenceById(userId)); // Felhasználó (csak FK)
+            v.setCenter(centers.getReferenceById(centerId)); // Központ (csak FK)
+            v.setRating(rating);
+            v.setVoteYear(year);
+            v.setVoteMonth(month);
+            votes.save(v);
+            ratingDelta = rating;
+            countDelta = 1;
+        }
+
+        if (ratingDelta != 0 || countDelta != 0) {
+            if (scores.addDelta(centerId, year, month, ratingDelta, countDelta) == 0) {
+                scores.save(new CenterMonthlyScore(centerId, year, month, ratingDelta, countDelta)); // -> a hónap első szavazata
+            }
+            afterCommit(() -> refresh(centerId, ym));
+        }
+        return existing.isEmpty();
+    }
+
+    /** A hónap ranglistája (átlag desc, szavazatszám desc); limit == null → teljes lista. */
+    public List<LeaderboardEntry> top(int year, int month, Integer limit) {
+        List<LeaderboardEntry> sorted = board(YearMonth.of(year, month)).sorted;
+        return limit == null || limit >= sorted.size() ? sorted : sorted.subList(0, Math.max(0, limit));
+    }
+
+    /** Induláskori egyeztetés: a ranglistatábla javítása a service_votes alapján. */
+    @PostConstruct
+    void reconcile() {
+        nativeUpsert = isPostgres();
+        tx.executeWithoutResult(status -> {
+            Map<String, long[]> actual = new HashMap<>(); // -> "center:év:hónap" → {összeg, darab}
+            for (Object[] row : votes.aggregateMonthly()) {
+                actual.put(key((Long) row[0], (Integer) row[1], (Integer) row[2]),
+                        new long[]{((Number) row[3]).longValue(), ((Number) row[4]).longValue()});
+            }
+
+            int fixed = 0;
+            for (CenterMonthlyScore s : scores.findAll()) {
+                long[] a = actual.remove(key(s.getCenterId(), s.getScoreYear(), s.getScoreMonth()));
+                long sum = a == null ? 0 : a[0];
+                long count = a == null ? 0 : a[1];
+                if (s.getRatingSum() != sum || s.getVoteCount() != count) {
+                    s.reset(sum, count); // -> managed entitás: commitkor UPDATE
+                    fixed++;
+                }
+            }
+            // összesítő sor még nem létező hónapok
+            for (Map.Entry<String, long[]> e : actual.entrySet()) {
+                String[] k = e.getKey().split(":");
+                scores.save(new CenterMonthlyScore(Long.parseLong(k[0]), Integer.parseInt(k[1]), Integer.parseInt(k[2]),
+                        e.getValue()[0], e.getValue()[1]));
+                fixed++;
+            }
+            if (fixed > 0) log.info("Reconciled {} leaderboard rows", fixed);
+        });
+        boards.clear();
+    }
+
+    // --- private segédfüggvények ---
+
+    /**
+     * Egy hónap ranglistája memóriában; az első kérés tölti be a táblából, a többiek megvárják.
+     * Ha a betöltés hibára futott, a várakozók nem az üres listát kapják, hanem újra próbálják
+     * (egyikük lesz az új betöltő; ha neki sem sikerül, a hiba nála jön ki).
+     */
+    private Board board(YearMonth ym) {
+        while (true) {
+            Board b = boards.get(ym);
+            if (b == null) {
+                Board fresh = new Board();
+                b = boards.putIfAbsent(ym, fresh);
+                if (b == null) {
+                    load(fresh, ym);
+                    return fresh;
+                }
+            }
+            b.awaitLoaded();
+            if (!b.failed) return b;
+        }
+    }
+
+    private void load(Board board, YearMonth ym) {
+        try {
+            List<CenterMonthlyScore> rows = scores.findByScoreYearAndScoreMonth(ym.getYear(), ym.getMonthValue());
+            Map<Long, ServiceCenter> info = new HashMap<>();
+            centers.findAllById(rows.stream().map(CenterMonthlyScore::getCenterId).toList())
+                    .forEach(c -> info.put(c.getId(), c));
+            board.applyAll(rows, info);
+            if (boards.size() > MAX_CACHED_MONTHS) { // -> csak a kért és az aktuális hónap marad
+                YearMonth now = YearMonth.now();
+                boards.keySet().removeIf(k -> !k.equals(ym) && !k.equals(now));
+            }
+        } catch (RuntimeException e) {
+            board.failed = true; // -> a várakozók ebből tudják, hogy nem kész lista
+            boards.remove(ym, board); // -> a következő kérés újra próbálja
+            throw e;
+        } finally {
+            board.loaded.countDown();
+        }
+    }
+
+    /** Commit után: a változott sor friss értéke a (már betöltött) havi listába. */
+    private void refresh(Long centerId, YearMonth ym) {
+        Board b = boards.get(ym);
+        if (b == null) return; // -> nincs memóriában: a következő olvasás a táblából tölti
+        var row = scores.findByCenterIdAndScoreYearAndScoreMonth(centerId, ym.getYear(), ym.getMonthValue()).orElse(null);
+        if (row == null) return;
+        Map<Long, ServiceCenter> info = b.knows(centerId)
+                ? Map.of() // -> a center adatai már a listában vannak
+                : centers.findById(centerId).map(c -> Map.of(centerId, c)).orElse(Map.of());
+        b.applyAll(List.of(row), info);
+    }
+
+    private boolean isPostgres() {
+        try (Connection c = dataSource.getConnection()) {
+            return "PostgreSQL".equalsIgnoreCase(c.getMetaData().getDatabaseProductName());
+        } catch (SQLException e) {
+            log.warn("Could not detect database product, using portable vote path: {}", e.toString());
+            return false;
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    private static String key(Long centerId, int year, int month) {
+        return centerId + ":" + year + ":" + month;
+    }
+
+    /** Egy hónap állapota: centerenkénti összesítő + a belőle rendezett, csak olvasható lista. */
+    private static final class Board {
+
+        private record Score(ServiceCenter center, long ratingSum, long voteCount, long revision) {}
+
+        private static final Comparator<LeaderboardEntry> ORDER = Comparator
+                .comparing(LeaderboardEntry::getAvgRating, Comparator.reverseOrder())
+                .thenComparing(LeaderboardEntry::getVotes, Comparator.reverseOrder())
+                .thenComparing(LeaderboardEntry::getCenterId);
+
+        private final Map<Long, Score> scores = new HashMap<>();
+        private final CountDownLatch loaded = new CountDownLatch(1);
+        private volatile boolean failed; // -> a betöltés kivétellel ért véget (a countDown előtt állítjuk)
+        private volatile List<LeaderboardEntry> sorted = List.of();
+
+        // csak a meglévőnél újabb revision kerül be (a betöltés és a commit utáni frissítés sorrendje tetszőleges)
+        synchronized void applyAll(List<CenterMonthlyScore> rows, Map<Long, ServiceCenter> info) {
+            boolean changed = false;
+            for (CenterMonthlyScore row : rows) {
+                Score old = scores.get(row.getCenterId());
+                if (old != null && old.revision() >= row.getRevision()) continue;
+                ServiceCenter center = info.getOrDefault(row.getCenterId(), old == null ? null : old.center());
+                if (center == null) continue; // -> center nem található
+                scores.put(row.getCenterId(), new Score(center, row.getRatingSum(), row.getVoteCount(), row.getRevision()));
+                changed = true;
+            }
+            if (changed) rebuild();
+        }
+
+        synchronized boolean knows(Long centerId) {
+            return scores.containsKey(centerId);
+        }
+
+        void awaitLoaded() {
+            try {
+                loaded.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void rebuild() {
+            List<LeaderboardEntry> out = new ArrayList<>();
+            for (Score s : scores.values()) {
+                if (s.voteCount() <= 0) continue;
+                ServiceCenter c = s.center();
+                out.add(new LeaderboardEntry(c.getId(), c.getName(), c.getCity(), c.getAddress(),
+                        (double) s.ratingSum() / s.voteCount(), s.voteCount()));
+            }
+            out.sort(ORDER);
+            sorted = List.copyOf(out); // -> olvasók mindig egy kész, változatlan listát látnak
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.carapp.service;
+
+import com.example.carapp.dto.NewsItem;
+import com.example.carapp.dto.NewsPage;
+import com.example.carapp.dto.PageCursor;
+import com.example.carapp.model.NewsArticle;
+import com.example.carapp.model.NewsSource;
+import com.example.carapp.repository.NewsArticleRepository;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Hírarchívum (news_items) – a letöltött feedek inkrementális mentése.
+ *  - (forrás, normalizált link SHA-256 hash-e) az egyedi kulcs, így egy forrásnál ugyanaz a hír nem
+ *    kerül be kétszer, de ugyanaz a link több forrásnál is megmaradhat.
+ *  - Ha két letöltés párhuzamosan ugyanazt az új hírt menti, a vesztes INSERT-je ütközik: a teljes
+ *    mentést új tranzakcióban megismételjük – másodjára a hír már ismertként (UPDATE) megy.
+ *  - Egy letöltés után csak az új hírek kerülnek INSERT-re; a már ismertek lastSeenAt-je
+ *    egyetlen UPDATE-tel frissül (nincs soronkénti select + save).
+ *  - Olvasás keyset lapozással (firstSeenAt desc, id desc), OFFSET nélkül.
+ */
+@Service
+public class NewsArchiveService {
+
+    public static final int MAX_PAGE_SIZE = 100; // -> egy oldalon legfeljebb ennyi hír
+
+    private static final int INGEST_ATTEMPTS = 2; // -> egyedi-kulcs ütközés után még egyszer
+
+    private final NewsArticleRepository articles;
+    private final TransactionTemplate tx;
+
+    public NewsArchiveService(NewsArticleRepository articles, TransactionTemplate tx) {
+        this.articles = articles;
+        this.tx = tx;
+    }
+
+    /** Egy letöltés eredményének mentése; visszatér az újonnan felvett hírek számával. */
+    public int ingest(NewsSource source, List<NewsItem> items) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return tx.execute(status -> save(source, items)); // -> az INSERT itt ütközik, ha megelőztek
+            } catch (DataIntegrityViolationException e) {
+                if (attempt >= INGEST_ATTEMPTS) throw e;
+            }
+        }
+    }
+
+    /** Egy oldal az archívumból; after == null → első oldal. */
+    @Transactional(readOnly = true)
+    public NewsPage page(NewsSource source, PageCursor after, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        PageRequest window = PageRequest.of(0, size + 1); // -> +1 sor: van-e következő oldal
+        List<NewsArticle> rows = after == null
+                ? articles.findBySourceOrderByFirstSeenAtDescIdDesc(source, window)
+                : articles.findPageAfter(source, after.getTimestamp(), after.getId(), window);
+
+        boolean hasMore = rows.size() > size;
+        if (hasMore) rows = rows.subList(0, size);
+        String next = hasMore ? cursorOf(rows.get(rows.size() - 1)).encode() : null;
+        return new NewsPage(rows.stream().map(NewsArchiveService::toItem).toList(), next);
+    }
+
+    /** A legfrissebb n+1 sor (a +1 jelzi, hogy van-e még régebbi) – a NewsFeedCache ezt tartja memóriában. */
+    @Transactional(readOnly = true)
+    public List<NewsArticle> latest(NewsSource source, int n) {
+        return articles.findBySourceOrderByFirstSeenAtDescIdDesc(source, PageRequest.of(0, n + 1));
+    }
+
+    static NewsItem toItem(NewsArticle a) {
+        return new NewsItem(a.getTitle(), a.getLink(), a.getSource().getLabel(), a.getFirstSeenAt());
+    }
+
+    static PageCursor cursorOf(NewsArticle a) {
+        return new PageCursor(a.getFirstSeenAt(), a.getId());
+    }
+
+    // --- private segédfüggvények ---
+
+    /** Egy mentési kísérlet (a hívó tranzakciójában). */
+    private int save(NewsSource source, List<NewsItem> items) {
+        if (items.isEmpty()) return 0;
+
+        // hash → hír (a feeden belüli duplikátumokból az első marad)
+        Map<String, NewsItem> byHash = new LinkedHashMap<>();
+        for (NewsItem item : items) {
+            if (item.getLink().length() > 2000) continue; // -> oszlophossz felett nem archiváljuk
+            byHash.putIfAbsent(linkHash(item.getLink()), item);
+        }
+        if (byHash.isEmpty()) return 0;
+
+        LocalDateTime now = LocalDateTime.now();
+        Set<String> existing = new HashSet<>(articles.findExistingHashes(source, byHash.keySet()));
+        if (!existing.isEmpty()) articles.touch(source, existing, now);
+
+        // fordított sorrendben szúrjuk be: azonos firstSeenAt mellett az oldal tetején lévő kapja a nagyobb id-t
+        List<NewsArticle> fresh = new ArrayList<>();
+        List<Map.Entry<String, NewsItem>> entries = new ArrayList<>(byHash.entrySet());
+        for (int i = entries.size() - 1; i >= 0; i--) {
+            Map.Entry<String, NewsItem> e = entries.get(i);
+            if (existing.contains(e.getKey())) continue;
+            NewsItem item = e.getValue();
+            fresh.add(new NewsArticle(source, truncate(item.getTitle(), 500), item.getLink(), e.getKey(), now));
+        }
+        articles.saveAll(fresh);
+        return fresh.size();
+    }
+
+    private static String linkHash(String link) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(NewsService.normalizeLink(link).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // -> SHA-256 minden JVM-ben elérhető
+        }
+    }
+
+    private static String truncate(String s, int max) {
+        return s.length() <= max ? s : s.substring(0, max);
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.carapp.service;
+
+import com.example.carapp.dto.NewsItem;
+import com.example.carapp.dto.NewsPage;
+import com.example.carapp.dto.NewsSourceResult;
+import com.example.carapp.dto.PageCursor;
+import com.example.carapp.model.NewsArticle;
+import com.example.carapp.model.NewsSource;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Forrásonkénti hír-cache a NewsService elé.
+ *  - A végpontok mindig memóriából szolgálnak ki (stale-while-revalidate):
+ *    lejárt feed esetén a régit adjuk vissza, és háttérben indul a frissítés.
+ *  - Egy forrást egyszerre csak egy letöltés frissít, akárhány kérés jön.
+ *  - Ütemező nézi a TTL-eket, így a forrásokat frissítési ciklusonként egyszer érjük el.
+ *  - Az összesítő (/api/news/all) is innen szolgál ki: a kérések számától függetlenül nem indít élő letöltést.
+ *  - Forrásonként legfeljebb maxItems hírt tartunk (korlátos méret).
+ *  - Frissítés után az új hírek az archívumba (NewsArchiveService) kerülnek, és a memóriában
+ *    az archívum első oldala áll – így a kurzoros lapozás innen folytatható az adatbázisból.
+ */
+@Service
+public class NewsFeedCache {
+
+    private static final Logger log = LoggerFactory.getLogger(NewsFeedCache.class);
+
+    /**
+     * Egy forrás utolsó sikeres letöltése: hírek + mindegyikhez a lapozási kurzor
+     * (null-ok, ha az archívum nem volt elérhető); more = van-e régebbi hír az archívumban;
+     * version = növekvő sorszám (ETag); csak akkor nő, ha az első oldal tartalma változott.
+     */
+    private record Feed(List<NewsItem> items, List<PageCursor> cursors, boolean more, long fetchedAtNanos, long version) {}
+
+    private final NewsService news;
+    private final NewsArchiveService archive;
+    private final int maxItems;
+    private final Map<NewsSource, Long> ttlNanos = new EnumMap<>(NewsSource.class);
+
+    private final Map<NewsSource, Feed> feeds = new ConcurrentHashMap<>();
+    private final Map<NewsSource, CompletableFuture<Feed>> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService refresher = Executors.newVirtualThreadPerTaskExecutor();
+    private final AtomicLong versions = new AtomicLong(); // -> minden megváltozott feed új verziót kap
+
+    public NewsFeedCache(NewsService news,
+                         NewsArchiveService archive,
+                         @Value("${news.cache.max-items:50}") int maxItems,
+                         @Value("${news.cache.ttl-ms.totalcar:600000}") long totalcarTtlMs,
+                         @Value("${news.cache.ttl-ms.utinform:120000}") long utinformTtlMs,
+                         @Value("${news.cache.ttl-ms.hirhanyo:300000}") long hirhanyoTtlMs) {
+        this.news = news;
+        this.archive = archive;
+        this.maxItems = maxItems;
+        ttlNanos.put(NewsSource.TOTALCAR, TimeUnit.MILLISECONDS.toNanos(totalcarTtlMs));
+        ttlNanos.put(NewsSource.UTINFORM, TimeUnit.MILLISECONDS.toNanos(utinformTtlMs));
+        ttlNanos.put(NewsSource.HIRHANYO, TimeUnit.MILLISECONDS.toNanos(hirhanyoTtlMs));
+    }
+
+    /**
+     * Legfeljebb limit hír a forrásból (a cache maxItems-nél többet nem tart).
+     * Csak a legelső kérés vár a letöltésre, utána mindig memóriából jön a válasz.
+     * A következő oldal kurzora akkor van kitöltve, ha az archívumban van még régebbi hír.
+     */
+    public NewsPage get(NewsSource source, int limit) throws Exception {
+        Feed feed = feeds.get(source);
+        if (feed == null) {
+            feed = awaitRefresh(source); // -> még nincs adat: megvárjuk a (közös) letöltést
+        } else if (isStale(source, feed)) {
+            refreshAsync(source); // -> lejárt: a régit adjuk, háttérben frissítünk
+        }
+        List<NewsItem> items = feed.items();
+        int n = Math.max(0, Math.min(limit, items.size()));
+        boolean more = n < items.size() || feed.more();
+        PageCursor next = more && n > 0 ? feed.cursors().get(n - 1) : null;
+        return new NewsPage(n == items.size() ? items : items.subList(0, n), next == null ? null : next.encode());
+    }
+
+    /**
+     * Minden forrás az összesítő végponthoz, a memóriában álló pillanatképekből.
+     * Lejárt feed: a régi megy ki (PARTIAL), háttérben frissül. Csak a még soha le nem töltött forrásra
+     * várunk – a közös, forrásonként egyetlen frissítésre –, legfeljebb a közös határidőig (utána FAILED).
+     */
+    public List<NewsSourceResult> all(int limit, Duration timeout) {
+        int n = Math.max(1, Math.min(limit, maxItems)); // -> korlátok közé, mint a forrásonkénti végpontoknál
+        Map<NewsSource, CompletableFuture<Feed>> pending = new EnumMap<>(NewsSource.class);
+        for (NewsSource source : NewsSource.values()) {
+            Feed feed = feeds.get(source);
+            if (feed == null) pending.put(source, refreshAsync(source));
+            else if (isStale(source, feed)) refreshAsync(source);
+        }
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        List<NewsSourceResult> results = new ArrayList<>();
+        for (NewsSource source : NewsSource.values()) {
+            Feed feed = feeds.get(source);
+            if (feed == null && pending.containsKey(source)) feed = awaitUntil(pending.get(source), deadline);
+            if (feed == null) {
+                results.add(new NewsSourceResult(source, NewsSourceResult.Status.FAILED, List.of()));
+                continue;
+            }
+            List<NewsItem> items = feed.items();
+            results.add(new NewsSourceResult(source,
+                    isStale(source, feed) ? NewsSourceResult.Status.PARTIAL : NewsSourceResult.Status.COMPLETE,
+                    items.size() <= n ? items : items.subList(0, n)));
+        }
+        return results;
+    }
+
+    /** A forrás memóriában álló feedjének verziója (ETag-hez); null, ha még nincs letöltve. */
+    public Long version(NewsSource source) {
+        Feed feed = feeds.get(source);
+        return feed == null ? null : feed.version();
+    }
+
+    /** Ütemezett ellenőrzés: a hiányzó vagy lejárt feedek újratöltése háttérben. */
+    @Scheduled(fixedDelayString = "${news.cache.refresh-check-ms:30000}")
+    public void refreshStaleFeeds() {
+        for (NewsSource source : NewsSource.values()) {
+            Feed feed = feeds.get(source);
+            if (feed == null || isStale(source, feed)) refreshAsync(source);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    // --- private segédfüggvények ---
+
+    private boolean isStale(NewsSource source, Feed feed) {
+        return System.nanoTime() - feed.fetchedAtNanos() > ttlNanos.get(source);
+    }
+
+    /** Letöltött hírek → archívum → memóriában tartott első oldal. */
+    private Feed load(NewsSource source, List<NewsItem> fetched) {
+        try {
+            archive.ingest(source, fetched);
+            List<NewsArticle> rows = archive.latest(source, maxItems);
+            int n = Math.min(rows.size(), maxItems);
+            List<NewsItem> items = new ArrayList<>(n);
+            List<PageCursor> cursors = new ArrayList<>(n);
+            for (NewsArticle a : rows.subList(0, n)) {
+                items.add(NewsArchiveService.toItem(a));
+                cursors.add(NewsArchiveService.cursorOf(a));
+            }
+            boolean more = rows.size() > maxItems;
+            return new Feed(List.copyOf(items), List.copyOf(cursors), more, System.nanoTime(),
+                    versionFor(source, items, cursors, more));
+        } catch (RuntimeException e) {
+            // adatbázis nélkül is kiszolgálunk: az élő lista megy ki, lapozás nélkül
+            log.warn("News archive unavailable for {}: {}", source, e.toString());
+            List<PageCursor> cursors = Collections.nCopies(fetched.size(), null);
+            return new Feed(List.copyOf(fetched), cursors, false, System.nanoTime(),
+                    versionFor(source, fetched, cursors, false));
+        }
+    }
+
+    /**
+     * Az új feed verziója: ha az első oldal (linkek, címek, kurzorok, van-e több) megegyezik az előzővel,
+     * a korábbi verzió marad – így egy változatlan frissítés nem érvényteleníti a kliensek ETag-jét.
+     * Forrásonként egyszerre egy frissítés fut, így az előző feed olvasása nem versenyez.
+     */
+    private long versionFor(NewsSource source, List<NewsItem> items, List<PageCursor> cursors, boolean more) {
+        Feed previous = feeds.get(source);
+        if (previous != null && previous.more() == more && sameFirstPage(previous, items, cursors)) {
+            return previous.version();
+        }
+        return versions.incrementAndGet();
+    }
+
+    private static boolean sameFirstPage(Feed previous, List<NewsItem> items, List<PageCursor> cursors) {
+        if (previous.items().size() != items.size()) return false;
+        for (int i = 0; i < items.size(); i++) {
+            NewsItem a = previous.items().get(i), b = items.get(i);
+            if (!a.getLink().equals(b.getLink()) || !a.getTitle().equals(b.getTitle())) return false;
+            PageCursor ca = previous.cursors().get(i), cb = cursors.get(i);
+            if (ca == null ? cb != null : cb == null || !ca.encode().equals(cb.encode())) return false;
+        }
+        return true;
+    }
+
+    /** Közös frissítés eredménye a határidőig; hiba vagy időtúllépés esetén null (a frissítés tovább fut). */
+    private static Feed awaitUntil(CompletableFuture<Feed> future, long deadlineNanos) {
+        try {
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException ignored) {
+            // -> ez a forrás kimarad
+        }
+        return null;
+    }
+
+    private Feed awaitRefresh(NewsSource source) throws Exception {
+        try {
+            return refreshAsync(source).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    /** Forrásonként legfeljebb egy futó letöltés – a többi hívó ugyanazt a future-t kapja. */
+    private CompletableFuture<Feed> refreshAsync(NewsSource source) {
+        CompletableFuture<Feed> mine = new CompletableFuture<>();
+        CompletableFuture<Feed> running = inFlight.putIfAbsent(source, mine);
+        if (running != null) return running;
+
+        // a future a térképből a befejezés ELŐTT kerül ki: aki már az eredményt látja, új frissítést indíthat
+        refresher.execute(() -> {
+            try {
+                Feed feed = load(source, news.fetch(source, maxItems));
+                feeds.put(source, feed);
+                inFlight.remove(source, mine);
+                mine.complete(feed);
+            } catch (Throwable t) {
+                // a régi (stale) feed marad kiszolgálva, a következő ciklus újrapróbálja
+                log.warn("News refresh failed for {}: {}", source, t.toString());
+                inFlight.remove(source, mine);
+                mine.completeExceptionally(t);
+            }
+        });
+        return mine;
+    }
+}
@@ -0,0 +1,185 @@
+package com.example.carapp.service;
+
+import com.example.carapp.dto.NewsHostHealth;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hírforrás-hostonkénti circuit breaker + adaptív timeout.
+ *  - CLOSED: normál működés; failureThreshold egymás utáni hiba után OPEN
+ *  - OPEN: minden kérést azonnal elutasítunk (CircuitOpenException) openMs ideig
+ *  - HALF_OPEN: egyetlen próbakérés mehet ki; siker → CLOSED, hiba → újra OPEN
+ * A timeout a host megfigyelt késleltetéséből jön (p99 * szorzó, min/max közé szorítva),
+ * így egy lassú / blokkoló forrás nem tartja fogva a kérésszálakat a teljes 12 mp-ig.
+ */
+@Component
+public class NewsHostMonitor {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** Nyitott circuit esetén dobjuk – a hívó ugyanúgy kezeli, mint egy letöltési hibát. */
+    public static class CircuitOpenException extends IOException {
+        public CircuitOpenException(String host) {
+            super("Circuit open for " + host);
+        }
+    }
+
+    /** Egy engedélyezett kérés: a használandó timeout + a kezdés ideje (késleltetés méréshez). */
+    public record Permit(String host, int timeoutMs, long startNanos) {}
+
+    private static final int WINDOW = 64; // -> hostonként ennyi utolsó sikeres késleltetést tartunk
+    private static final int MIN_SAMPLES = 5; // -> ennyi minta alatt a maximális timeoutot használjuk
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int minTimeoutMs;
+    private final int maxTimeoutMs;
+    private final double timeoutMultiplier;
+    private final Map<String, HostStats> hosts = new ConcurrentHashMap<>();
+
+    public NewsHostMonitor(@Value("${news.breaker.failure-threshold:5}") int failureThreshold,
+                           @Value("${news.breaker.open-ms:30000}") long openMs,
+                           @Value("${news.timeout.min-ms:1500}") int minTimeoutMs,
+                           @Value("${news.timeout.max-ms:12000}") int maxTimeoutMs,
+                           @Value("${news.timeout.p99-multiplier:2.0}") double timeoutMultiplier) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.minTimeoutMs = minTimeoutMs;
+        this.maxTimeoutMs = maxTimeoutMs;
+        this.timeoutMultiplier = timeoutMultiplier;
+    }
+
+    /** Engedély kérése a hostra; nyitott circuit esetén azonnal kivételt dob (nincs hálózati hívás). */
+    public Permit acquire(String host) throws CircuitOpenException {
+        HostStats stats = hosts.computeIfAbsent(host, h -> new HostStats());
+        synchronized (stats) {
+            long now = System.nanoTime();
+            if (stats.state == State.OPEN) {
+                if (now - stats.openedAtNanos < openNanos) {
+                    stats.rejected++;
+                    throw new CircuitOpenException(host);
+                }
+                stats.state = State.HALF_OPEN; // -> letelt a várakozás: jöhet egy próbakérés
+                stats.probeInFlight = false;
+            }
+            if (stats.state == State.HALF_OPEN) {
+                if (stats.probeInFlight) {
+                    stats.rejected++;
+                    throw new CircuitOpenException(host);
+                }
+                stats.probeInFlight = true;
+            }
+            return new Permit(host, timeoutFor(stats), now);
+        }
+    }
+
+    /** Sikeres kérés: késleltetés rögzítése, circuit zárása. */
+    public void success(Permit permit) {
+        HostStats stats = hosts.get(permit.host());
+        synchronized (stats) {
+            stats.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - permit.startNanos()));
+            stats.successes++;
+            stats.consecutiveFailures = 0;
+            stats.state = State.CLOSED;
+            stats.probeInFlight = false;
+        }
+    }
+
+    /** Sikertelen kérés (hiba, timeout, blokkoló HTTP státusz): küszöb felett nyit. */
+    public void failure(Permit permit) {
+        HostStats stats = hosts.get(permit.host());
+        synchronized (stats) {
+            stats.failures++;
+            stats.consecutiveFailures++;
+            stats.probeInFlight = false;
+            if (stats.state == State.HALF_OPEN || stats.consecutiveFailures >= failureThreshold) {
+                stats.state = State.OPEN;
+                stats.openedAtNanos = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Eredmény nélkül lezárt kérés (pl. a hívó szálat megszakították): se siker, se hiba nem számít,
+     * csak a HALF_OPEN próbahelyet adjuk vissza, hogy a következő kérés kimehessen.
+     */
+    public void release(Permit permit) {
+        HostStats stats = hosts.get(permit.host());
+        synchronized (stats) {
+            stats.probeInFlight = false;
+        }
+    }
+
+    /** Állapot + késleltetési statisztika hostonként (admin végponthoz). */
+    public List<NewsHostHealth> snapshot() {
+        return hosts.entrySet().stream()
+                .map(e -> {
+                    HostStats s = e.getValue();
+                    synchronized (s) {
+                        long[] sorted = s.sortedSamples();
+                        NewsHostHealth h = new NewsHostHealth();
+                        h.setHost(e.getKey());
+                        h.setState(s.state.name());
+                        h.setConsecutiveFailures(s.consecutiveFailures);
+                        h.setSuccesses(s.successes);
+                        h.setFailures(s.failures);
+                        h.setRejected(s.rejected);
+                        h.setSamples(sorted.length);
+                        h.setP50Ms(percentile(sorted, 0.50));
+                        h.setP95Ms(percentile(sorted, 0.95));
+                        h.setP99Ms(percentile(sorted, 0.99));
+                        h.setTimeoutMs(timeoutFor(s));
+                        return h;
+                    }
+                })
+                .sorted(Comparator.comparing(NewsHostHealth::getHost))
+                .toList();
+    }
+
+    // --- private segédfüggvények ---
+
+    private int timeoutFor(HostStats stats) {
+        long[] sorted = stats.sortedSamples();
+        if (sorted.length < MIN_SAMPLES) return maxTimeoutMs;
+        long adaptive = Math.round(percentile(sorted, 0.99) * timeoutMultiplier);
+        return (int) Math.max(minTimeoutMs, Math.min(maxTimeoutMs, adaptive));
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        if (sorted.length == 0) return 0;
+        int idx = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, idx))];
+    }
+
+    /** Egy host állapota; minden hozzáférés a példányon szinkronizált. */
+    private static final class HostStats {
+        State state = State.CLOSED;
+        int consecutiveFailures;
+        long openedAtNanos;
+        boolean probeInFlight;
+        long successes, failures, rejected;
+
+        final long[] latenciesMs = new long[WINDOW]; // -> körkörös puffer
+        int count, next;
+
+        void record(long ms) {
+            latenciesMs[next] = ms;
+            next = (next + 1) % WINDOW;
+            if (count < WINDOW) count++;
+        }
+
+        long[] sortedSamples() {
+            long[] copy = Arrays.copyOf(latenciesMs, count);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
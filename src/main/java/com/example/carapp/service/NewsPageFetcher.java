@@ -0,0 +1,142 @@
+package com.example.carapp.service;
+
+import com.example.carapp.dto.NewsItem;
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URI;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Feltételes (conditional GET) letöltés a hírforrásokhoz.
+ *  - URL-enként megjegyzi az ETag / Last-Modified validátorokat és a legutóbb feldolgozott híreket
+ *  - a következő kérésben If-None-Match / If-Modified-Since fejlécet küld
+ *  - 304 Not Modified esetén a korábbi NewsItem listát adja vissza, Jsoup parse nélkül
+ *  - maxBodyBytes-nál többet nem olvas be a válaszból
+ *  - minden kérés a host circuit breakerén (NewsHostMonitor) megy át, adaptív timeouttal
+ */
+@Component
+public class NewsPageFetcher {
+
+    /** Emberibb User-Agent + referrer: sok anti-botnál életmentő. */
+    private static final String UA =
+            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 " +
+                    "(KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36";
+
+    /** Letöltött válasz → hírek. */
+    @FunctionalInterface
+    public interface ResponseParser {
+        List<NewsItem> parse(Connection.Response response) throws IOException;
+    }
+
+    /** Feldolgozott HTML dokumentum → hírek. */
+    @FunctionalInterface
+    public interface DocumentParser {
+        List<NewsItem> parse(Document doc) throws IOException;
+    }
+
+    /** Egy URL utolsó sikeres letöltése: validátorok + az akkor kinyert hírek. */
+    private record Validators(String etag, String lastModified, List<NewsItem> items, int limit) {
+
+        // Csak akkor használható újra, ha legalább annyi hírt kértünk akkor is (vagy nem is volt több)
+        boolean covers(int wanted) {
+            return limit >= wanted || items.size() < limit;
+        }
+    }
+
+    private final NewsHostMonitor monitor;
+    private final int maxBodyBytes;
+    private final Map<String, Validators> validators = new ConcurrentHashMap<>();
+
+    public NewsPageFetcher(NewsHostMonitor monitor,
+                           @Value("${news.fetch.max-body-bytes:1048576}") int maxBodyBytes) {
+        this.monitor = monitor;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    /** HTML oldal letöltése böngészőszerű fejlécekkel; a HTTP hibaoldalakat is feldolgozzuk. */
+    public List<NewsItem> fetchHtml(String url, int limit, DocumentParser parser) throws IOException {
+        // Agresszívebb, valós böngészőre emlékeztető kérés
+        Connection conn = Jsoup.connect(url)
+                .userAgent(UA)
+                .referrer("https://www.google.com/")
+                .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
+                .header("Accept-Language", "hu-HU,hu;q=0.9,en-US;q=0.8,en;q=0.7")
+                .ignoreHttpErrors(true);
+        return fetch(conn, url, limit, res -> parser.parse(res.parse()));
+    }
+
+    /** Feed (pl. RSS) letöltése; HTTP hiba esetén kivételt dob. */
+    public List<NewsItem> fetchFeed(String url, int limit, ResponseParser parser) throws IOException {
+        Connection conn = Jsoup.connect(url)
+                .userAgent(UA)
+                .referrer("https://www.google.com/");
+        return fetch(conn, url, limit, parser);
+    }
+
+    // --- private segédfüggvények ---
+
+    private List<NewsItem> fetch(Connection conn, String url, int limit, ResponseParser parser) throws IOException {
+        Validators previous = validators.get(url);
+        boolean conditional = previous != null && previous.covers(limit);
+        if (conditional) {
+            if (previous.etag() != null) conn.header("If-None-Match", previous.etag());
+            if (previous.lastModified() != null) conn.header("If-Modified-Since", previous.lastModified());
+        }
+
+        // nyitott circuit esetén itt azonnal kivétel jön – a hívó fallbackje ms-en belül indulhat
+        NewsHostMonitor.Permit permit = monitor.acquire(URI.create(url).getHost());
+        Connection.Response res;
+        List<NewsItem> items;
+        try {
+            res = conn
+                    .timeout(permit.timeoutMs())
+                    .maxBodySize(maxBodyBytes)
+                    .execute();
+
+            if (res.statusCode() == 304 && conditional) {
+                res.bodyAsBytes(); // -> üres törzs kiolvasása, kapcsolat lezárása
+                monitor.success(permit);
+                return trim(previous.items(), limit);
+            }
+            items = parser.parse(res);
+        } catch (IOException | RuntimeException e) {
+            // megszakított kérés (pl. leállítás, cancel) nem a host hibája: nem nyithatja a circuitet
+            if (interrupted(e)) monitor.release(permit);
+            else monitor.failure(permit);
+            throw e;
+        }
+
+        // HTTP hibaválasz (pl. 403 blokkolás, 429, 5xx) is hibának számít a breaker szempontjából
+        if (res.statusCode() >= 400) monitor.failure(permit);
+        else monitor.success(permit);
+
+        String etag = res.header("ETag");
+        String lastModified = res.header("Last-Modified");
+        if (res.statusCode() == 200 && (etag != null || lastModified != null)) {
+            validators.put(url, new Validators(etag, lastModified, List.copyOf(items), limit));
+        } else {
+            validators.remove(url);
+        }
+        return items;
+    }
+
+    private static boolean interrupted(Exception e) {
+        return Thread.currentThread().isInterrupted()
+                || e instanceof ClosedByInterruptException
+                || e instanceof InterruptedIOException && !(e instanceof SocketTimeoutException);
+    }
+
+    private static List<NewsItem> trim(List<NewsItem> items, int limit) {
+        return items.size() <= limit ? items : items.subList(0, Math.max(0, limit));
+    }
+}
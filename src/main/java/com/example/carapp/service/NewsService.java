@@ -1,145 +1,80 @@
 package com.example.carapp.service;
 
 import com.example.carapp.dto.NewsItem;
-import org.jsoup.Jsoup;
+import com.example.carapp.model.NewsSource;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
+import org.jsoup.nodes.Node;
+import org.jsoup.select.NodeFilter;
+import org.jsoup.select.NodeTraversor;
 import org.springframework.stereotype.Service;
 
-import java.net.URI;
-import java.net.URL;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 @Service
 public class NewsService {
 
     /* ---------- Általános beállítások ---------- */
 
-    private static final int TIMEOUT_MS = 12000;
+    /** Feltételes (ETag / Last-Modified) letöltés, bájtkorláttal. */
+    private final NewsPageFetcher fetcher;
 
-    /** Emberibb User-Agent + referrer: sok anti-botnál életmentő. */
-    private static final String UA =
-            "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 " +
-                    "(KHTML, like Gecko) Chrome/124.0.0.0 Safari/537.36";
+    public NewsService(NewsPageFetcher fetcher) {
+        this.fetcher = fetcher;
+    }
 
     /* ============================================================
        ===============        PUBLIC API        ====================
        ============================================================ */
 
+    /** Forrás szerinti letöltés – a NewsFeedCache ezen keresztül frissít. */
+    public List<NewsItem> fetch(NewsSource source, int limit) throws Exception {
+        return switch (source) {
+            case TOTALCAR -> fetchTotalCarTests(limit);
+            case UTINFORM -> fetchUtinformFromSite(limit);
+            case HIRHANYO -> fetchHirhanyoUtinfo(limit);
+        };
+    }
+
     /** TOTALCAR – a legújabb tesztek a fő listáról. */
     public List<NewsItem> fetchTotalCarTests(int limit) throws Exception {
-        final String url = "https://totalcar.hu/tesztek/";
-        Document doc = loadHtml(url);
-
-        // Elég változó a markup – menjünk biztosra, sok hivatkozást megfogunk,
-        // majd domain / útvonal és cím alapján szűrünk.
-        Elements anchors = new Elements();
-        anchors.addAll(doc.select("main a[href]"));
-        anchors.addAll(doc.select("article a[href], .article a[href]"));
-        anchors.addAll(doc.select(".post, .listing, .cikk, .grid a[href]"));
-        anchors.addAll(doc.select("h2 a[href], h3 a[href]"));
-
-        // csak a tesztek al-oldalait engedjük
-        List<NewsItem> items = collectFromAnchors(url, anchors, "Totalcar", limit)
-                .stream()
-                .filter(n -> {
-                    try {
-                        URI u = URI.create(n.getLink());
-                        return u.getHost() != null
-                                && u.getHost().contains("totalcar.hu")
-                                && u.getPath() != null
-                                && (u.getPath().startsWith("/tesztek/")
-                                || u.getPath().contains("/teszt"));
-                    } catch (Exception ignored) {
-                        return false;
-                    }
-                })
-                .collect(Collectors.toList());
+        List<NewsItem> items = scrapeSite(NewsSource.TOTALCAR, limit);
 
         // ha kevés lenne, egészítsük ki Google News-szal (site szűrő)
-        if (items.size() < Math.min(limit, 6)) {
-            items = uniqueByLinkAndTitle(
-                    items,
-                    fetchFromGoogleNews("totalcar.hu", "teszt", limit, "Totalcar"),
-                    limit
-            );
+        if (needsFallback(NewsSource.TOTALCAR, items.size(), limit)) {
+            items = uniqueByLinkAndTitle(items, fetchGoogleFallback(NewsSource.TOTALCAR, limit), limit);
         }
         return items;
     }
 
     /** ÚTINFORM – közvetlenül az utinform.hu híroldalról, agresszívebb letöltéssel. */
     public List<NewsItem> fetchUtinformFromSite(int limit) throws Exception {
-        final String url = "https://www.utinform.hu/hu/news?d=0";
-
-        Document doc;
+        List<NewsItem> items;
         try {
-            doc = loadHtml(url);
+            items = scrapeSite(NewsSource.UTINFORM, limit);
         } catch (Exception e) {
             // ha a site blokkol / időtúllépés, egyből Google News fallback
-            return fetchFromGoogleNews("utinform.hu", "", limit, "Útinform");
+            return fetchGoogleFallback(NewsSource.UTINFORM, limit);
         }
 
-        Elements anchors = new Elements();
-        // több szelektor – gyakran változik a markup
-        anchors.addAll(doc.select("main a[href]"));
-        anchors.addAll(doc.select(".content a[href], .news-list a[href], .container a[href]"));
-        anchors.addAll(doc.select("article a[href], .list a[href], .row a[href]"));
-        anchors.addAll(doc.select("h1 a[href], h2 a[href], h3 a[href]"));
-
-        List<NewsItem> items = collectFromAnchors(url, anchors, "Útinform", limit)
-                .stream()
-                .filter(n -> isHttp(n.getLink()))
-                .collect(Collectors.toList());
-
         // ha kevés/üres: Google News kiegészítés
-        if (items.isEmpty() || items.size() < Math.min(limit, 4)) {
-            items = uniqueByLinkAndTitle(
-                    items,
-                    fetchFromGoogleNews("utinform.hu", "", limit, "Útinform"),
-                    limit
-            );
+        if (needsFallback(NewsSource.UTINFORM, items.size(), limit)) {
+            items = uniqueByLinkAndTitle(items, fetchGoogleFallback(NewsSource.UTINFORM, limit), limit);
         }
         return items;
     }
 
     /** ÚTINFORM – alternatív forrás a HírHányó „Útinfó” gyűjtőoldaláról. */
     public List<NewsItem> fetchHirhanyoUtinfo(int limit) throws Exception {
-        final String url = "https://hirhanyo.hu/hirek/utinfo/";
-        Document doc = loadHtml(url);
-
-        Elements anchors = new Elements();
-        anchors.addAll(doc.select("main a[href]"));
-        anchors.addAll(doc.select(".post-list a[href], .card a[href]"));
-        anchors.addAll(doc.select("article a[href], h2 a[href], h3 a[href]"));
-
-        // Csak a hirhanyo.hu/hirek/... cikkeket engedjük.
-        List<NewsItem> items = collectFromAnchors(url, anchors, "HírHányó — Útinfó", limit)
-                .stream()
-                .filter(n -> {
-                    try {
-                        URI u = URI.create(n.getLink());
-                        return u.getHost() != null
-                                && u.getHost().contains("hirhanyo.hu")
-                                && u.getPath() != null
-                                && u.getPath().startsWith("/hirek/");
-                    } catch (Exception ignored) {
-                        return false;
-                    }
-                })
-                .collect(Collectors.toList());
+        List<NewsItem> items = scrapeSite(NewsSource.HIRHANYO, limit);
 
         // Ha kevés, egy finom Google News rásegítés útinfó kulcsszóval
-        if (items.size() < Math.min(limit, 6)) {
-            items = uniqueByLinkAndTitle(
-                    items,
-                    fetchFromGoogleNews("hirhanyo.hu", "Útinfó", limit, "HírHányó — Útinfó"),
-                    limit
-            );
+        if (needsFallback(NewsSource.HIRHANYO, items.size(), limit)) {
+            items = uniqueByLinkAndTitle(items, fetchGoogleFallback(NewsSource.HIRHANYO, limit), limit);
         }
         return items;
     }
@@ -148,16 +83,78 @@ public class NewsService {
        ===============      SEGÉD FÜGGVÉNYEK      =================
        ============================================================ */
 
-    private Document loadHtml(String url) throws Exception {
-        // Agresszívebb, valós böngészőre emlékeztető kérés
-        return Jsoup.connect(url)
-                .userAgent(UA)
-                .referrer("https://www.google.com/")
-                .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
-                .header("Accept-Language", "hu-HU,hu;q=0.9,en-US;q=0.8,en;q=0.7")
-                .timeout(TIMEOUT_MS)
-                .ignoreHttpErrors(true)
-                .get();
+    /** Forrás saját oldalának letöltése (Google News kiegészítés nélkül). */
+    private List<NewsItem> scrapeSite(NewsSource source, int limit) throws Exception {
+        AnchorRule rule = ruleFor(source);
+        return fetcher.fetchHtml(rule.url(), limit, doc -> extractAnchors(doc, rule, source.getLabel(), limit));
+    }
+
+    /**
+     * Forrásonkénti, előre összeállított kinyerési szabály.
+     *  - containerTags / containerClasses: csak az ilyen konténereken belüli linkek számítanak
+     *    (elég változó a markup – menjünk biztosra, sok hivatkozást megfogunk)
+     *  - host + path: domain / útvonal szűrés URI parse nélkül (null host = bármely http(s) link)
+     */
+    private record AnchorRule(String url,
+                              Set<String> containerTags,
+                              List<String> containerClasses,
+                              String host,
+                              Predicate<String> path) {
+
+        boolean isContainer(Element el) {
+            if (containerTags.contains(el.normalName())) return true;
+            for (String c : containerClasses) {
+                if (el.hasClass(c)) return true;
+            }
+            return false;
+        }
+    }
+
+    /** TOTALCAR – csak a tesztek al-oldalait engedjük. */
+    private static final AnchorRule TOTALCAR_RULE = new AnchorRule(
+            "https://totalcar.hu/tesztek/",
+            Set.of("main", "article", "h2", "h3"),
+            List.of("article", "grid"),
+            "totalcar.hu",
+            path -> path.startsWith("/tesztek/") || path.contains("/teszt"));
+
+    /** ÚTINFORM – több konténer, gyakran változik a markup; minden http(s) link mehet. */
+    private static final AnchorRule UTINFORM_RULE = new AnchorRule(
+            "https://www.utinform.hu/hu/news?d=0",
+            Set.of("main", "article", "h1", "h2", "h3"),
+            List.of("content", "news-list", "container", "list", "row"),
+            null,
+            path -> true);
+
+    /** HÍRHÁNYÓ – csak a hirhanyo.hu/hirek/... cikkeket engedjük. */
+    private static final AnchorRule HIRHANYO_RULE = new AnchorRule(
+            "https://hirhanyo.hu/hirek/utinfo/",
+            Set.of("main", "article", "h2", "h3"),
+            List.of("post-list", "card"),
+            "hirhanyo.hu",
+            path -> path.startsWith("/hirek/"));
+
+    private static AnchorRule ruleFor(NewsSource source) {
+        return switch (source) {
+            case TOTALCAR -> TOTALCAR_RULE;
+            case UTINFORM -> UTINFORM_RULE;
+            case HIRHANYO -> HIRHANYO_RULE;
+        };
+    }
+
+    /** Google News kiegészítés forrásonként (site szűrő + kulcsszó). */
+    private List<NewsItem> fetchGoogleFallback(NewsSource source, int limit) throws Exception {
+        return switch (source) {
+            case TOTALCAR -> fetchFromGoogleNews("totalcar.hu", "teszt", limit, source.getLabel());
+            case UTINFORM -> fetchFromGoogleNews("utinform.hu", "", limit, source.getLabel());
+            case HIRHANYO -> fetchFromGoogleNews("hirhanyo.hu", "Útinfó", limit, source.getLabel());
+        };
+    }
+
+    /** Kell-e Google News kiegészítés: ha a saját oldalról túl kevés hír jött. */
+    private static boolean needsFallback(NewsSource source, int found, int limit) {
+        int minimum = source == NewsSource.UTINFORM ? 4 : 6;
+        return found == 0 || found < Math.min(limit, minimum);
     }
 
     /** Google News keresés – „site:domain + extra” stílusban. */
@@ -166,91 +163,168 @@ public class NewsService {
         String encoded = URLEncoder.encode(q, StandardCharsets.UTF_8);
         String url = "https://news.google.com/rss/search?q=" + encoded + "&hl=hu&gl=HU&ceid=HU:hu";
 
-        Document doc = Jsoup.connect(url)
-                .userAgent(UA)
-                .referrer("https://www.google.com/")
-                .timeout(TIMEOUT_MS)
-                .get();
-
-        List<NewsItem> items = new ArrayList<>();
-        for (Element item : doc.select("item")) {
-            String title = safeTrim(textOf(item.selectFirst("title")));
-            String link = safeTrim(textOf(item.selectFirst("link")));
-            if (!title.isBlank() && isHttp(link)) {
-                items.add(new NewsItem(title, link, sourceLabel, LocalDateTime.now()));
-                if (items.size() >= limit) break;
-            }
-        }
-        return items;
+        // streaming feldolgozás: limit darab után nem olvassuk tovább a választ
+        return fetcher.fetchFeed(url, limit, res -> RssStreamParser.parse(res.bodyStream(), limit, sourceLabel));
     }
 
-    /** Sokféle markupból gyűjtünk cikk-címeket + linkeket, aztán normalizálunk és szűrünk. */
-    private List<NewsItem> collectFromAnchors(String baseUrl, Elements anchors, String source, int limit) {
+    /**
+     * Linkek kinyerése EGYETLEN DOM bejárással: a bejárás közben tartjuk számon, hogy
+     * konténeren belül vagyunk-e, így minden horgony (a[href]) pontosan egyszer kerül elő.
+     * A limit elérésekor a bejárás azonnal leáll.
+     */
+    private List<NewsItem> extractAnchors(Document doc, AnchorRule rule, String source, int limit) {
         List<NewsItem> out = new ArrayList<>();
-        Set<String> seen = new LinkedHashSet<>(); // link + title duplikátumszűrő
+        if (limit <= 0) return out;
+        Set<String> seen = new HashSet<>(); // link + title duplikátumszűrő
+        String origin = originOf(doc.location());
+        LocalDateTime fetchedAt = LocalDateTime.now();
+
+        NodeTraversor.filter(new NodeFilter() {
+            int containerDepth = -1; // -> melyik mélységben léptünk be egy konténerbe (-1 = kívül)
+
+            @Override
+            public FilterResult head(Node node, int depth) {
+                if (!(node instanceof Element el)) return FilterResult.CONTINUE;
+                if (containerDepth < 0 && rule.isContainer(el)) containerDepth = depth;
+                if (containerDepth < 0 || !"a".equals(el.normalName())) return FilterResult.CONTINUE;
+
+                NewsItem item = toNewsItem(el, rule, origin, source, fetchedAt);
+                if (item != null && seen.add(dedupKey(item.getTitle(), item.getLink()))) {
+                    out.add(item);
+                    if (out.size() >= limit) return FilterResult.STOP;
+                }
+                return FilterResult.SKIP_CHILDREN; // -> horgonyon belül nincs több horgony
+            }
 
-        for (Element a : anchors) {
-            String title = safeTrim(a.text());
-            if (title.isBlank()) continue;
+            @Override
+            public FilterResult tail(Node node, int depth) {
+                if (depth == containerDepth) containerDepth = -1; // -> kiléptünk a konténerből
+                return FilterResult.CONTINUE;
+            }
+        }, doc);
+        return out;
+    }
 
-            String href = a.hasAttr("abs:href") ? a.attr("abs:href") : a.attr("href");
-            if (href == null || href.isBlank()) continue;
-            href = makeAbsolute(baseUrl, href);
-            if (!isHttp(href)) continue;
+    /** Egy horgony → NewsItem, vagy null, ha nem felel meg a forrás szabályának. */
+    private static NewsItem toNewsItem(Element a, AnchorRule rule, String origin, String source, LocalDateTime fetchedAt) {
+        String href = a.attr("href").trim();
+        if (href.isEmpty()) return null;
+
+        String title = a.text(); // -> már trimelt, whitespace-normalizált
+        if (title.isEmpty()) return null;
+
+        String link = absolutize(a, href, origin);
+        if (!isHttp(link)) return null;
+
+        // triviális sallangok kiszűrése
+        if (link.endsWith("#") || link.contains("#comments")) return null;
+
+        // host / útvonal szűrés indexekkel, URI objektum nélkül
+        int hostStart = link.indexOf("://") + 3;
+        int hostEnd = hostStart;
+        while (hostEnd < link.length() && "/?#".indexOf(link.charAt(hostEnd)) < 0) hostEnd++;
+        if (rule.host() != null) {
+            int at = link.indexOf(rule.host(), hostStart);
+            if (at < 0 || at + rule.host().length() > hostEnd) return null;
+            int pathEnd = hostEnd;
+            while (pathEnd < link.length() && "?#".indexOf(link.charAt(pathEnd)) < 0) pathEnd++;
+            if (!rule.path().test(link.substring(hostEnd, pathEnd))) return null;
+        }
+        return new NewsItem(title, link, source, fetchedAt);
+    }
 
-            // triviális sallangok kiszűrése
-            if (href.endsWith("#") || href.contains("#comments")) continue;
+    /** Abszolút URL: a gyakori (abszolút / gyökér-relatív) eseteket string-műveletekkel oldjuk fel. */
+    private static String absolutize(Element a, String href, String origin) {
+        if (href.startsWith("https://") || href.startsWith("http://")) return href;
+        if (href.startsWith("//")) return "https:" + href;
+        if (href.startsWith("/") && origin != null) return origin + href;
+        return a.absUrl("href"); // -> relatív út: a Jsoup feloldja a dokumentum URL-jéhez képest
+    }
 
-            String key = normalize(title) + "||" + normalize(href);
-            if (seen.add(key)) {
-                out.add(new NewsItem(title, href, source, LocalDateTime.now()));
-                if (out.size() >= limit) break;
-            }
-        }
-        return out;
+    /** "https://host[:port]" rész egy URL-ből (null, ha nem értelmezhető). */
+    private static String originOf(String url) {
+        int schemeEnd = url.indexOf("://");
+        if (schemeEnd < 0) return null;
+        int slash = url.indexOf('/', schemeEnd + 3);
+        return slash < 0 ? url : url.substring(0, slash);
     }
 
     /** Két lista „összefésülése” duplikátumok nélkül (link+title alapján). */
     private List<NewsItem> uniqueByLinkAndTitle(List<NewsItem> base, List<NewsItem> add, int limit) {
         LinkedHashMap<String, NewsItem> map = new LinkedHashMap<>();
-        for (NewsItem n : base) map.put(normalize(n.getTitle()) + "||" + normalize(n.getLink()), n);
+        for (NewsItem n : base) map.put(dedupKey(n.getTitle(), n.getLink()), n);
         for (NewsItem n : add) {
-            String k = normalize(n.getTitle()) + "||" + normalize(n.getLink());
+            String k = dedupKey(n.getTitle(), n.getLink());
             map.putIfAbsent(k, n);
             if (map.size() >= limit) break;
         }
         return new ArrayList<>(map.values()).subList(0, Math.min(limit, map.size()));
     }
 
-    private static String textOf(Element e) {
-        return e == null ? "" : e.text();
-    }
-
-    private static String safeTrim(String s) {
-        return s == null ? "" : s.trim();
-    }
-
     private static boolean isHttp(String url) {
         try {
             return url != null && (url.startsWith("http://") || url.startsWith("https://"));
         } catch (Exception e) { return false; }
     }
 
-    private static String makeAbsolute(String base, String href) {
-        try {
-            URL u = new URL(new URL(base), href);
-            return u.toString();
-        } catch (Exception ignored) {
-            return href;
+    /**
+     * Duplikátumszűrő kulcs (cím + link) regex nélkül, egyetlen menetben:
+     * kisbetűsítés, whitespace összevonás, utm_* / gclid / fbclid paraméterek elhagyása.
+     */
+    private static String dedupKey(String title, String link) {
+        StringBuilder sb = new StringBuilder(title.length() + link.length() + 2);
+        appendCollapsedLower(sb, title);
+        sb.append("||");
+        appendNormalizedLink(sb, link);
+        return sb.toString();
+    }
+
+    /** Normalizált link (kisbetűs, követőparaméterek nélkül) – az archívum ebből képzi az egyedi hash-t. */
+    static String normalizeLink(String link) {
+        StringBuilder sb = new StringBuilder(link.length());
+        appendNormalizedLink(sb, link);
+        return sb.toString();
+    }
+
+    private static void appendNormalizedLink(StringBuilder sb, String link) {
+        int query = link.indexOf('?');
+        if (query < 0) {
+            appendCollapsedLower(sb, link);
+            return;
         }
+        appendCollapsedLower(sb, link.substring(0, query));
+        char sep = '?';
+        int i = query + 1;
+        while (i <= link.length()) {
+            int amp = link.indexOf('&', i);
+            int end = amp < 0 ? link.length() : amp;
+            if (end > i && !isTrackingParam(link, i)) {
+                sb.append(sep);
+                appendCollapsedLower(sb, link.substring(i, end));
+                sep = '&';
+            }
+            i = end + 1;
+        }
+    }
+
+    private static boolean isTrackingParam(String link, int at) {
+        return link.regionMatches(true, at, "utm_", 0, 4)
+                || link.regionMatches(true, at, "gclid=", 0, 6)
+                || link.regionMatches(true, at, "fbclid=", 0, 7);
     }
 
-    private static String normalize(String s) {
-        if (s == null) return "";
-        String t = s.trim().toLowerCase(Locale.ROOT);
-        t = t.replaceAll("\\s+", " ");
-        // néhány tipikus UTM/szerviz paraméter kiszórása
-        t = t.replaceAll("([?&])(utm_[^=]+|gclid|fbclid)=[^&]+", "");
-        return t;
+    private static void appendCollapsedLower(StringBuilder sb, String s) {
+        boolean space = false, wrote = false; // -> elején / végén lévő whitespace nem kerül be (trim)
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = true;
+                continue;
+            }
+            if (space && wrote) sb.append(' ');
+            space = false;
+            wrote = true;
+            sb.append(Character.toLowerCase(c));
+        }
     }
 }
@@ -0,0 +1,151 @@
+package com.example.carapp.service;
+
+import com.example.carapp.model.PostReactionCounter;
+import com.example.carapp.model.ReactionType;
+import com.example.carapp.repository.PostReactionCounterRepository;
+import com.example.carapp.repository.PostReactionRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Posztonkénti, reakciótípusonkénti számlálók memóriában.
+ *  - Olvasás O(1): nincs aggregálás a post_reactions táblán, bármilyen népszerű a poszt.
+ *  - Írás zárolás nélkül (LongAdder), csak sikeres (feltételes) DB módosítás után hívjuk.
+ *  - Write-behind: a módosult posztok számlálóit időszakosan, kötegben írjuk a
+ *    post_reaction_counters táblába (abszolút értékkel, így az ismételt flush is helyes).
+ *  - Induláskor a post_reactions táblából újraszámolunk, és a számlálótáblát is kijavítjuk.
+ */
+@Service
+public class ReactionCounterService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactionCounterService.class);
+    private static final ReactionType[] TYPES = ReactionType.values();
+
+    private final PostReactionRepository reactions;
+    private final PostReactionCounterRepository counterRepo;
+    private final TransactionTemplate tx;
+
+    private final Map<Long, LongAdder[]> counters = new ConcurrentHashMap<>(); // -> postId → típusonkénti számláló
+    private final Set<Long> dirty = ConcurrentHashMap.newKeySet(); // -> flush-ra váró posztok
+
+    public ReactionCounterService(PostReactionRepository reactions,
+                                  PostReactionCounterRepository counterRepo,
+                                  TransactionTemplate tx) {
+        this.reactions = reactions;
+        this.counterRepo = counterRepo;
+        this.tx = tx;
+    }
+
+    /** Egy user reakciójának változása: from == null → új reakció, to == null → törlés. */
+    public void applyChange(Long postId, ReactionType from, ReactionType to) {
+        if (from == to) return;
+        LongAdder[] c = countersOf(postId);
+        if (from != null) c[from.ordinal()].decrement();
+        if (to != null) c[to.ordinal()].increment();
+        dirty.add(postId);
+    }
+
+    /** Egy poszt reakciói típusonként (csak a nem nulla típusok). */
+    public Map<ReactionType, Long> counts(Long postId) {
+        Map<ReactionType, Long> out = new EnumMap<>(ReactionType.class);
+        LongAdder[] c = counters.get(postId);
+        if (c == null) return out;
+        for (ReactionType t : TYPES) {
+            long n = c[t.ordinal()].sum();
+            if (n > 0) out.put(t, n);
+        }
+        return out;
+    }
+
+    /** Poszt törlésekor: számlálók eldobása memóriából és táblából. */
+    public void forget(Long postId) {
+        counters.remove(postId);
+        dirty.remove(postId);
+        counterRepo.deleteByPostId(postId);
+    }
+
+    /** Write-behind: a módosult posztok számlálóinak kiírása egy tranzakcióban. */
+    @Scheduled(fixedDelayString = "${forum.reactions.flush-ms:5000}")
+    public void flush() {
+        if (dirty.isEmpty()) return;
+        List<Long> batch = new ArrayList<>(dirty);
+        batch.forEach(dirty::remove); // -> a kivétel után érkező változás újra jelöli a posztot
+
+        try {
+            tx.executeWithoutResult(status -> write(batch));
+        } catch (RuntimeException e) {
+            dirty.addAll(batch); // -> következő körben újrapróbáljuk
+            log.warn("Reaction counter flush failed for {} posts: {}", batch.size(), e.toString());
+        }
+    }
+
+    /** Induláskori egyeztetés: memória feltöltése a post_reactions táblából + a számlálótábla javítása. */
+    @PostConstruct
+    void reconcile() {
+        tx.executeWithoutResult(status -> {
+            counters.clear();
+            for (Object[] row : reactions.aggregateAll()) {
+                countersOf((Long) row[0])[((ReactionType) row[1]).ordinal()].add((Long) row[2]);
+            }
+
+            int fixed = 0;
+            Set<Long> seen = new HashSet<>();
+            for (PostReactionCounter k : counterRepo.findAll()) {
+                seen.add(k.getPostId());
+                long actual = countOf(k.getPostId(), k.getType());
+                if (k.getCount() != actual) {
+                    k.setCount(actual);
+                    fixed++;
+                }
+            }
+            // számlálósor még nem létező posztok: kiírjuk őket
+            List<Long> missing = counters.keySet().stream().filter(id -> !seen.contains(id)).toList();
+            write(missing);
+            fixed += missing.size();
+            if (fixed > 0) log.info("Reconciled {} reaction counter rows", fixed);
+        });
+    }
+
+    // --- private segédfüggvények ---
+
+    private LongAdder[] countersOf(Long postId) {
+        return counters.computeIfAbsent(postId, id -> {
+            LongAdder[] c = new LongAdder[TYPES.length];
+            for (int i = 0; i < c.length; i++) c[i] = new LongAdder();
+            return c;
+        });
+    }
+
+    private long countOf(Long postId, ReactionType type) {
+        LongAdder[] c = counters.get(postId);
+        return c == null ? 0 : c[type.ordinal()].sum();
+    }
+
+    /** A megadott posztok aktuális számlálóinak kiírása (meglévő sor frissítése vagy új sor). */
+    private void write(Collection<Long> postIds) {
+        if (postIds.isEmpty()) return;
+        Map<String, PostReactionCounter> existing = new HashMap<>();
+        for (PostReactionCounter k : counterRepo.findByPostIdIn(postIds)) {
+            existing.put(k.getPostId() + ":" + k.getType(), k);
+        }
+
+        List<PostReactionCounter> fresh = new ArrayList<>();
+        for (Long postId : postIds) {
+            for (ReactionType t : TYPES) {
+                long n = countOf(postId, t);
+                PostReactionCounter k = existing.get(postId + ":" + t);
+                if (k != null) k.setCount(n); // -> managed entitás: commitkor UPDATE (ha változott)
+                else if (n > 0) fresh.add(new PostReactionCounter(postId, t, n));
+            }
+        }
+        counterRepo.saveAll(fresh);
+    }
+}
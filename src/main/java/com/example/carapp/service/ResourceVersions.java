@@ -0,0 +1,74 @@
+package com.example.carapp.service;
+
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Verziószámlálók a publikus GET végpontok ETag-jeihez.
+ *  - Minden író végpont lépteti az érintett erőforrás számlálóját (centerek, ranglista, poszt);
+ *    az ETag a számlálókból áll, nem a válasz hash-éből, így If-None-Match esetén a 304 döntéshez
+ *    nem kell sem adatbázis, sem szerializálás.
+ *  - A számlálók memóriában vannak: az ETag-ben a példány indulási azonosítója is benne van,
+ *    így újraindítás (vagy másik példány) után a régi ETag-ek nem illeszkednek – legfeljebb egy 200 a következmény.
+ *  - Gyenge (W/) ETag: ugyanaz a verzió tömörítve és tömörítetlenül is kimehet (server.compression),
+ *    a Tomcat pedig erős ETag mellett nem tömörítene.
+ */
+@Service
+public class ResourceVersions {
+
+    public static final String CENTERS = "centers"; // -> szervizközpontok listája / keresés
+    public static final String LEADERBOARD = "leaderboard"; // -> havi ranglista (szavazás)
+
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36)
+            + Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final Map<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+    /** Az erőforrás megváltozott: a következő kérés új ETag-et kap. */
+    public void bump(String key) {
+        counters.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    /** Poszt változott (szöveg, kommentek, reakciók, törlés). */
+    public void bumpPost(Long postId) {
+        bump(postKey(postId));
+    }
+
+    /** ETag a kulcsok aktuális verziójából; variant: ha a tartalom az URL-en kívül mástól is függ. */
+    public String etag(String variant, String... keys) {
+        StringBuilder sb = new StringBuilder("W/\"").append(bootId);
+        if (variant != null) sb.append('-').append(variant);
+        for (String key : keys) {
+            AtomicLong v = counters.get(key);
+            sb.append('-').append(v == null ? 0 : v.get());
+        }
+        return sb.append('"').toString();
+    }
+
+    public String postEtag(Long postId) {
+        return etag(null, postKey(postId));
+    }
+
+    /** If-None-Match fejléc illeszkedik-e (vesszővel elválasztott lista, "*" is lehet; gyenge összehasonlítás). */
+    public static boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        String mine = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals("*") || opaque(c).equals(mine)) return true;
+        }
+        return false;
+    }
+
+    // GET-nél gyenge összehasonlítás (RFC 9110): a W/ előtag nem számít
+    private static String opaque(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static String postKey(Long postId) {
+        return "post:" + postId;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.carapp.service;
+
+import com.example.carapp.dto.NewsItem;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * RSS feed streaming (StAX) feldolgozása.
+ *  - nem épít teljes dokumentumot: az item/title + item/link párokat olvasás közben gyűjti
+ *  - limit darab hír után abbahagyja az olvasást és lezárja a streamet (a kapcsolatot is),
+ *    így a memóriahasználat a feed méretétől függetlenül korlátos
+ */
+final class RssStreamParser {
+
+    private static final XMLInputFactory XML = createFactory();
+
+    private RssStreamParser() {}
+
+    static List<NewsItem> parse(InputStream in, int limit, String source) throws IOException {
+        List<NewsItem> items = new ArrayList<>();
+        if (limit <= 0) {
+            in.close();
+            return items;
+        }
+        LocalDateTime fetchedAt = LocalDateTime.now();
+        XMLStreamReader reader = null;
+        try {
+            reader = XML.createXMLStreamReader(in);
+            boolean inItem = false;
+            String title = null, link = null;
+
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    String name = reader.getLocalName();
+                    if ("item".equals(name)) {
+                        inItem = true;
+                        title = null;
+                        link = null;
+                    } else if (inItem && "title".equals(name)) {
+                        title = reader.getElementText().trim();
+                    } else if (inItem && "link".equals(name)) {
+                        link = reader.getElementText().trim();
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT && inItem && "item".equals(reader.getLocalName())) {
+                    inItem = false;
+                    if (title != null && !title.isBlank() && link != null
+                            && (link.startsWith("http://") || link.startsWith("https://"))) {
+                        items.add(new NewsItem(title, link, source, fetchedAt));
+                        if (items.size() >= limit) break; // -> megvan, a feed többi részét nem olvassuk
+                    }
+                }
+            }
+            return items;
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid RSS feed", e);
+        } finally {
+            if (reader != null) {
+                try { reader.close(); } catch (XMLStreamException ignored) { }
+            }
+            in.close();
+        }
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory f = XMLInputFactory.newFactory();
+        f.setProperty(XMLInputFactory.SUPPORT_DTD, false); // -> nincs DTD / külső entitás (XXE ellen)
+        f.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        f.setProperty(XMLInputFactory.IS_COALESCING, true); // -> CDATA + szöveg egyben
+        return f;
+    }
+}
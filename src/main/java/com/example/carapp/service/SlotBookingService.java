@@ -0,0 +1,212 @@
+package com.example.carapp.service;
+
+import com.example.carapp.dto.SlotAvailability;
+import com.example.carapp.model.AppointmentStatus;
+import com.example.carapp.model.ServiceAppointment;
+import com.example.carapp.model.ServiceCenter;
+import com.example.carapp.repository.CarRepository;
+import com.example.carapp.repository.ServiceAppointmentRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Szervizközpontok idősáv-alapú kapacitása.
+ *  - Minden centernek van slot-hossza (perc) és párhuzamos beállószáma; a nyitvatartáson belül
+ *    a nyitástól számolt rács adja a foglalható idősávokat.
+ *  - Foglaláskor kiválasztunk egy szabad beállót, és a (center, slotStart, bay) egyedi megszorítás
+ *    dönti el, ki kapja meg: ha párhuzamosan valaki elvitte, a következő szabad beállóval próbálkozunk.
+ *    Így két kérés sem tud ugyanarra a helyre foglalni, előzetes zárolás nélkül.
+ *  - Autónként: a mentés előtt, az autó sorát zárolva ellenőrizzük, hogy egyik aktív foglalásának
+ *    [slotStart, slotStart + slotMinutes) sávja sem fed át az újjal – eltérő slot-hosszú centerek között is.
+ *    Ütközésnél nem próbálunk másik beállót, hanem CarAlreadyBookedException jön. A (car, activeSlot)
+ *    egyedi megszorítás ugyanerre végső védelem.
+ *  - Szabad helyek: egyetlen csoportosított lekérdezés a kért intervallumra.
+ *  - Induláskor a slot-modell előtti aktív sorok is kapnak idősávot és beállót, különben a kapacitás nem látná őket.
+ */
+@Service
+public class SlotBookingService {
+
+    private static final Logger log = LoggerFactory.getLogger(SlotBookingService.class);
+
+    public static final int MAX_RANGE_DAYS = 31; // -> egy availability lekérdezés legfeljebb ennyi napot fed le
+
+    /** Az autónak már van aktív foglalása ebben az idősávban – a controller 409-et ad belőle. */
+    public static class CarAlreadyBookedException extends RuntimeException {
+        public CarAlreadyBookedException() {
+            super("Time slot already booked for this car");
+        }
+    }
+
+    private final ServiceAppointmentRepository appointments;
+    private final CarRepository cars;
+    private final TransactionTemplate tx;
+    private final LocalTime opening;
+    private final LocalTime closing;
+
+    public SlotBookingService(ServiceAppointmentRepository appointments,
+                              CarRepository cars,
+                              TransactionTemplate tx,
+                              @Value("${appointments.opening-time:08:00}") String opening,
+                              @Value("${appointments.closing-time:18:00}") String closing) {
+        this.appointments = appointments;
+        this.cars = cars;
+        this.tx = tx;
+        this.opening = LocalTime.parse(opening);
+        this.closing = LocalTime.parse(closing);
+    }
+
+    /** Az időpont egy érvényes idősáv kezdete-e? null, ha igen – egyébként a hibaüzenet. */
+    public String checkSlot(ServiceCenter center, LocalDateTime start) {
+        LocalTime t = start.toLocalTime();
+        int slot = center.getSlotMinutes();
+        if (t.isBefore(opening) || t.plusMinutes(slot).isAfter(closing) || t.plusMinutes(slot).isBefore(t)) {
+            return "Service date/time is outside opening hours (" + opening + "-" + closing + ")";
+        }
+        long sinceOpening = Duration.between(opening, t).toSeconds();
+        if (sinceOpening % (slot * 60L) != 0) {
+            return "Service date/time must start on a " + slot + "-minute slot boundary";
+        }
+        return null;
+    }
+
+    /**
+     * Van-e az autónak (az exceptId foglaláson kívül) aktív foglalása, amelynek idősávja átfed
+     * az adott center [start, start + slotMinutes) sávjával? Előzetes ellenőrzéshez; a reserve zárolva újra megnézi.
+     */
+    public boolean carBusy(Long carId, ServiceCenter center, LocalDateTime start, Long exceptId) {
+        LocalDateTime end = start.plusMinutes(center.getSlotMinutes());
+        // -> egy idősáv a nyitvatartáson belül van, így egy napnál korábban kezdődő foglalás már nem érhet ide
+        for (ServiceAppointment other : appointments.findActiveOfCarStartingBetween(carId, start.minusDays(1), end)) {
+            if (Objects.equals(other.getId(), exceptId)) continue;
+            if (other.getActiveSlot().plusMinutes(other.getCenter().getSlotMinutes()).isAfter(start)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Hely foglalása az adott center adott idősávjában (új vagy áthelyezett időpontnál).
+     * A center / időpont / slotStart / bay beállítása után egy saját tranzakcióban ment;
+     * visszatér a mentett entitással, vagy null-lal, ha az idősáv betelt;
+     * CarAlreadyBookedException, ha ugyanannak az autónak (akár párhuzamosan) van átfedő aktív foglalása.
+     */
+    public ServiceAppointment reserve(ServiceAppointment appt, ServiceCenter center, LocalDateTime start) {
+        int bays = center.getBays();
+        for (int attempt = 0; attempt <= bays; attempt++) { // -> minden sikertelen próba egy újonnan foglalt beállót jelent
+            Integer bay = firstFreeBay(appointments.findTakenBays(center.getId(), start), bays);
+            if (bay == null) return null; // -> betelt
+
+            appt.setCenter(center);
+            appt.setServiceDateTime(start);
+            appt.setSlotStart(start);
+            appt.setBay(bay);
+            appt.setActiveSlot(start);
+            try {
+                return tx.execute(status -> {
+                    cars.lockById(appt.getCar().getId()); // -> az autó foglalásai sorban: az átfedés-ellenőrzés nem versenyez
+                    if (carBusy(appt.getCar().getId(), center, start, appt.getId())) throw new CarAlreadyBookedException();
+                    return appointments.saveAndFlush(appt); // -> az INSERT/UPDATE itt ütközik, ha elvitték
+                });
+            } catch (CarAlreadyBookedException e) {
+                release(appt);
+                throw e;
+            } catch (DataIntegrityViolationException e) {
+                release(appt);
+                if (isCarConflict(e)) throw new CarAlreadyBookedException(); // -> másik beálló sem segítene
+                // -> közben valaki lefoglalta ezt a beállót: újra
+            }
+        }
+        return null;
+    }
+
+    /** Hely felszabadítása (lemondás): a bay és az activeSlot null-ra állítása, a sor megmarad. */
+    public void release(ServiceAppointment appt) {
+        appt.setBay(null);
+        appt.setActiveSlot(null);
+    }
+
+    /**
+     * Induláskori pótlás: a slot-modell előtti (ddl-auto=update-tel bővült) aktív sorokban a slotStart / bay /
+     * activeSlot null, így sem a kapacitás, sem az autónkénti ellenőrzés nem látja őket.
+     * A slotStart a serviceDateTime-ot tartalmazó rácsbeli idősáv, a bay az első szabad beálló – régi túlfoglalásnál
+     * a kapacitáson túli következő szám, hogy a sor így is foglaljon. Az activeSlot csak akkor kerül kitöltésre,
+     * ha az autónak abban az idősávban még nincs aktív foglalása (különben a (car, activeSlot) index ütközne).
+     */
+    @PostConstruct
+    void backfillLegacySlots() {
+        tx.executeWithoutResult(status -> {
+            List<ServiceAppointment> legacy = appointments.findByBayIsNullAndStatusNotOrderByIdAsc(AppointmentStatus.CANCELLED);
+            for (ServiceAppointment a : legacy) {
+                LocalDateTime start = gridSlot(a.getCenter(), a.getServiceDateTime());
+                List<Integer> taken = appointments.findTakenBays(a.getCenter().getId(), start); // -> az előző sorok már flush-olva
+                Integer bay = firstFreeBay(taken, a.getCenter().getBays());
+                if (bay == null) {
+                    bay = taken.stream().max(Integer::compare).orElse(0) + 1;
+                    log.warn("Appointment {} overbooks slot {} at center {}", a.getId(), start, a.getCenter().getId());
+                }
+                a.setSlotStart(start);
+                a.setBay(bay);
+                if (!appointments.existsByCar_IdAndActiveSlot(a.getCar().getId(), start)) a.setActiveSlot(start);
+            }
+            if (!legacy.isEmpty()) log.info("Backfilled slot and bay for {} legacy appointments", legacy.size());
+        });
+    }
+
+    /** Szabad helyek idősávonként [from, to] napokra (a múltbeli idősávok kimaradnak). */
+    public List<SlotAvailability> availability(ServiceCenter center, LocalDate from, LocalDate to) {
+        LocalDateTime rangeStart = from.atTime(opening);
+        LocalDateTime rangeEnd = to.atTime(closing);
+        Map<LocalDateTime, Long> taken = new HashMap<>();
+        for (Object[] row : appointments.countTakenBays(center.getId(), rangeStart, rangeEnd)) {
+            taken.put((LocalDateTime) row[0], (Long) row[1]);
+        }
+
+        int slot = center.getSlotMinutes();
+        int bays = center.getBays();
+        LocalDateTime now = LocalDateTime.now();
+        List<SlotAvailability> out = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            for (LocalDateTime s = day.atTime(opening); !s.plusMinutes(slot).isAfter(day.atTime(closing)); s = s.plusMinutes(slot)) {
+                if (s.isBefore(now)) continue;
+                int free = (int) Math.max(0, bays - taken.getOrDefault(s, 0L));
+                out.add(new SlotAvailability(s, s.plusMinutes(slot), free));
+            }
+        }
+        return out;
+    }
+
+    // --- private segédfüggvények ---
+
+    // a két egyedi megszorítás közül a (car, activeSlot) sérült-e (H2 és PostgreSQL is a nevét írja az üzenetbe)
+    private static boolean isCarConflict(DataIntegrityViolationException e) {
+        String cause = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        return cause.contains(ServiceAppointment.CAR_SLOT_CONSTRAINT);
+    }
+
+    // a t időpontot tartalmazó rácsbeli idősáv kezdete; nyitvatartáson kívül maga a t
+    private LocalDateTime gridSlot(ServiceCenter center, LocalDateTime t) {
+        LocalTime time = t.toLocalTime();
+        if (time.isBefore(opening) || !time.isBefore(closing)) return t;
+        long slotSeconds = center.getSlotMinutes() * 60L;
+        long sinceOpening = Duration.between(opening, time).toSeconds();
+        return t.toLocalDate().atTime(opening).plusSeconds(sinceOpening - sinceOpening % slotSeconds);
+    }
+
+    private static Integer firstFreeBay(List<Integer> taken, int bays) {
+        Set<Integer> used = new HashSet<>(taken);
+        for (int b = 1; b <= bays; b++) {
+            if (!used.contains(b)) return b;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.carapp.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Ékezet- és kisbetű-független szövegalak keresőindexekhez.
+ *  - "Győr" → "gyor", "MŰSZAKI" → "muszaki": NFD bontás után az ékezetjelek (combining mark) elhagyása
+ *  - Tokenizálás: betű / számjegy sorozatok, minden más elválasztó
+ */
+public final class TextFolding {
+
+    private TextFolding() {}
+
+    /** Ékezet nélküli, kisbetűs alak (null → üres string). */
+    public static String fold(String text) {
+        if (text == null || text.isEmpty()) return "";
+        boolean ascii = true;
+        for (int i = 0; i < text.length() && ascii; i++) ascii = text.charAt(i) < 128;
+        if (ascii) return text.toLowerCase(Locale.ROOT); // -> gyors út: nincs mit bontani
+
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder out = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) out.append(c);
+        }
+        return out.toString().toLowerCase(Locale.ROOT);
+    }
+
+    /** Az összehajtott szöveg szavai (betű- és számjegysorozatok), sorrendben. */
+    public static List<String> tokens(String text) {
+        String folded = fold(text);
+        List<String> out = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean word = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (word && start < 0) start = i;
+            else if (!word && start >= 0) {
+                out.add(folded.substring(start, i));
+                start = -1;
+            }
+        }
+        return out;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.carapp.controller;
+
+import com.example.carapp.dto.ForumEvent;
+import com.example.carapp.dto.ReactionSummary;
+import com.example.carapp.model.ForumCategory;
+import com.example.carapp.service.ForumEventBus;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Élő folyam: a feliratkozó csak a szűrőjének megfelelő eseményeket kapja, sorrendben;
+ * a kapcsolatszám korlátos.
+ */
+class ForumStreamControllerTest {
+
+    @Test
+    void subscriberReceivesOnlyMatchingEvents() throws Exception {
+        ForumEventBus bus = new ForumEventBus(16, 2, 60_000);
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new ForumStreamController(bus)).build();
+
+        MvcResult post1 = mvc.perform(get("/api/forum/stream").param("postId", "1"))
+                .andExpect(request().asyncStarted()).andReturn();
+        MvcResult cars = mvc.perform(get("/api/forum/stream").param("category", "CARS"))
+                .andExpect(request().asyncStarted()).andReturn();
+        mvc.perform(get("/api/forum/stream")).andExpect(status().isServiceUnavailable()); // -> max. 2 kapcsolat
+        mvc.perform(get("/api/forum/stream").param("postId", "1").param("category", "CARS"))
+                .andExpect(status().isBadRequest());
+
+        bus.publish(new ForumEvent(ForumEvent.Type.REACTIONS, 2L, ForumCategory.GENERAL, summary(2L)));
+        bus.publish(new ForumEvent(ForumEvent.Type.REACTIONS, 1L, ForumCategory.CARS, summary(1L)));
+        bus.publish(new ForumEvent(ForumEvent.Type.POST_DELETED, 1L, ForumCategory.CARS, null));
+
+        String p1 = await(post1, "event:POST_DELETED");
+        assertTrue(p1.indexOf("event:REACTIONS") < p1.indexOf("event:POST_DELETED")); // -> sorrendben
+        assertFalse(p1.contains("\"postId\":2")); // -> más poszt eseménye nem jön
+        String c = await(cars, "event:POST_DELETED");
+        assertTrue(c.contains("\"postId\":1") && !c.contains("\"postId\":2")); // -> csak a CARS kategória
+        assertEquals(2, bus.subscriberCount());
+    }
+
+    private static ReactionSummary summary(Long postId) {
+        ReactionSummary s = new ReactionSummary();
+        s.setPostId(postId);
+        return s;
+    }
+
+    // a küldés a feliratkozó saját (virtuális) szálán történik: rövid várakozás a tartalomra
+    private static String await(MvcResult result, String marker) throws Exception {
+        for (int i = 0; i < 200; i++) {
+            String body = result.getResponse().getContentAsString();
+            if (body.contains(marker)) return body;
+            Thread.sleep(10);
+        }
+        fail("no '" + marker + "' in: " + result.getResponse().getContentAsString());
+        return null;
+    }
+}
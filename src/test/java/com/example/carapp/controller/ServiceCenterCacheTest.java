@@ -0,0 +1,58 @@
+package com.example.carapp.controller;
+
+import com.example.carapp.model.ServiceCenter;
+import com.example.carapp.repository.ServiceCenterRepository;
+import com.example.carapp.service.CenterSearchIndex;
+import com.example.carapp.service.LeaderboardService;
+import com.example.carapp.service.ResourceVersions;
+import com.example.carapp.service.SlotBookingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Centerlista HTTP cache: ETag + Cache-Control, változatlan listára 304 adatbázis-hívás nélkül,
+ * új center után új ETag.
+ */
+class ServiceCenterCacheTest {
+
+    @Test
+    void notModifiedWithoutDatabaseUntilCentersChange() throws Exception {
+        ServiceCenterRepository repo = mock(ServiceCenterRepository.class);
+        when(repo.findAll()).thenReturn(List.of(new ServiceCenter("Alfa", "Pécs", "Fő u. 1.")));
+        when(repo.save(any())).thenAnswer(inv -> inv.getArgument(0));
+        MockMvc mvc = MockMvcBuilders.standaloneSetup(new ServiceCenterController(repo,
+                mock(LeaderboardService.class), mock(SlotBookingService.class), mock(CenterSearchIndex.class),
+                new ResourceVersions())).build();
+
+        String etag = mvc.perform(get("/api/centers"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=60, public"))
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotNull(etag);
+
+        mvc.perform(get("/api/centers").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag));
+        verify(repo, times(1)).findAll(); // -> a 304 nem kérdezte le az adatbázist
+
+        mvc.perform(post("/api/centers").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\":\"Beta\",\"city\":\"Eger\",\"address\":\"Dobó tér 2.\"}"))
+                .andExpect(status().isCreated());
+        String fresh = mvc.perform(get("/api/centers").header("If-None-Match", etag))
+                .andExpect(status().isOk()) // -> új center: a régi ETag már nem érvényes
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(etag, fresh);
+    }
+}
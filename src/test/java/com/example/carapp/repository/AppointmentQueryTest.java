@@ -0,0 +1,107 @@
+package com.example.carapp.repository;
+
+import com.example.carapp.dto.AppointmentResponse;
+import com.example.carapp.model.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true" // -> H2-ben a "year" oszlopnév foglalt szó
+})
+class AppointmentQueryTest {
+
+    private static final LocalDateTime MIN = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX = LocalDateTime.of(9999, 1, 1, 0, 0);
+    private static final LocalDateTime BASE = LocalDateTime.of(2030, 3, 1, 8, 0);
+
+    @Autowired private TestEntityManager em;
+    @Autowired private EntityManagerFactory emf;
+    @Autowired private ServiceAppointmentRepository appointments;
+
+    private Statistics stats;
+    private Long userA, centerA;
+
+    @BeforeEach
+    void seed() {
+        User a = em.persist(new User("Anna", "anna@test.hu", "secret123"));
+        User b = em.persist(new User("Béla", "bela@test.hu", "secret123"));
+        Car carA = em.persist(new Car("Opel", "Astra", 2015, a));
+        Car carB = em.persist(new Car("Ford", "Focus", 2018, b));
+        ServiceCenter ca = em.persist(new ServiceCenter("Alfa", "Budapest", "Fő utca 1."));
+        ServiceCenter cb = em.persist(new ServiceCenter("Béta", "Szeged", "Tisza 2."));
+
+        // 20 időpont, minden második nap; páros index → A user + A center, minden harmadik lemondva
+        for (int i = 0; i < 20; i++) {
+            ServiceAppointment appt = new ServiceAppointment();
+            appt.setCar(i % 2 == 0 ? carA : carB);
+            appt.setUser(i % 2 == 0 ? a : b);
+            appt.setCenter(i % 2 == 0 ? ca : cb);
+            appt.setServiceDateTime(BASE.plusDays(i / 2 * 2L)); // -> párosával azonos időpont: az id dönt
+            appt.setDescription("Szerviz " + i);
+            appt.setStatus(i % 3 == 0 ? AppointmentStatus.CANCELLED : AppointmentStatus.PENDING);
+            em.persist(appt);
+        }
+        em.flush();
+        em.clear();
+        userA = a.getId();
+        centerA = ca.getId();
+
+        stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+    }
+
+    @Test
+    void keysetPagesCoverEveryRowOnceInOrder() {
+        List<AppointmentResponse> all = new ArrayList<>();
+        LocalDateTime beforeTime = MAX;
+        long beforeId = Long.MIN_VALUE;
+        int pages = 0;
+        while (true) {
+            List<AppointmentResponse> page = appointments.findPage(MIN, beforeTime, beforeId, null, PageRequest.of(0, 7));
+            pages++;
+            all.addAll(page);
+            if (page.size() < 7) break;
+            AppointmentResponse last = page.get(page.size() - 1);
+            beforeTime = last.getServiceDateTime();
+            beforeId = last.getId();
+        }
+
+        assertEquals(20, all.size());
+        assertEquals(20, all.stream().map(AppointmentResponse::getId).distinct().count());
+        for (int i = 1; i < all.size(); i++) {
+            AppointmentResponse prev = all.get(i - 1), cur = all.get(i);
+            int cmp = prev.getServiceDateTime().compareTo(cur.getServiceDateTime());
+            assertTrue(cmp > 0 || (cmp == 0 && prev.getId() > cur.getId())); // -> szigorúan csökkenő kulcs
+        }
+        assertEquals(pages, stats.getPrepareStatementCount()); // -> oldalanként egy SQL, N+1 nélkül
+        assertEquals("Alfa", all.stream().filter(r -> r.getUserId().equals(userA)).findFirst().orElseThrow().getCenterName());
+    }
+
+    @Test
+    void filtersByUserCenterStatusAndRange() {
+        var mine = appointments.findPageByUser(userA, MIN, MAX, Long.MIN_VALUE, null, PageRequest.of(0, 50));
+        assertEquals(10, mine.size());
+        assertTrue(mine.stream().allMatch(r -> r.getUserId().equals(userA)));
+
+        var pending = appointments.findPageByCenter(centerA, MIN, MAX, Long.MIN_VALUE, AppointmentStatus.PENDING, PageRequest.of(0, 50));
+        assertEquals(6, pending.size()); // -> 0,2,...,18 közül a 3-mal oszthatók (0,6,12,18) lemondva
+        assertTrue(pending.stream().allMatch(r -> r.getStatus() == AppointmentStatus.PENDING));
+
+        var range = appointments.findPage(BASE.plusDays(4), BASE.plusDays(8), Long.MIN_VALUE, null, PageRequest.of(0, 50));
+        assertEquals(4, range.size()); // -> a 4. és 6. nap, naponta 2 időpont
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.carapp.repository;
+
+import com.example.carapp.dto.CommentResponse;
+import com.example.carapp.dto.PostResponse;
+import com.example.carapp.model.*;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true" // -> H2-ben a "year" oszlopnév foglalt szó
+})
+class ForumQueryCountTest {
+
+    private static final int POSTS = 12;
+
+    @Autowired private TestEntityManager em;
+    @Autowired private EntityManagerFactory emf;
+    @Autowired private PostRepository postRepo;
+    @Autowired private CommentRepository commentRepo;
+    @Autowired private PostReactionRepository reactionRepo;
+
+    private Statistics stats;
+    private final List<Long> postIds = new ArrayList<>();
+
+    @BeforeEach
+    void seed() {
+        // minden poszt más szerzőtől: entitás-alapú listázásnál ez szerzőnként +1 select lenne
+        for (int i = 0; i < POSTS; i++) {
+            User author = em.persist(new User("User " + i, "user" + i + "@test.hu", "secret123"));
+            Post p = new Post();
+            p.setAuthor(author);
+            p.setContent("Poszt " + i);
+            p.setCategory(i % 2 == 0 ? ForumCategory.GENERAL : ForumCategory.CARS);
+            em.persist(p);
+            postIds.add(p.getId());
+
+            for (int c = 0; c < i % 3; c++) {
+                Comment comment = new Comment();
+                comment.setPost(p);
+                comment.setAuthor(author);
+                comment.setContent("Komment " + c);
+                em.persist(comment);
+            }
+            PostReaction r = new PostReaction();
+            r.setPost(p);
+            r.setUser(author);
+            r.setType(ReactionType.LIKE);
+            em.persist(r);
+            // a számlálótábla szándékosan eltér a post_reactions sorok számától: a lista ebből olvas
+            if (i > 0) em.persist(new PostReactionCounter(p.getId(), ReactionType.LIKE, 100L * i));
+            if (i % 4 == 0 && i > 0) em.persist(new PostReactionCounter(p.getId(), ReactionType.LOVE, 1));
+        }
+        em.flush();
+        postRepo.reconcileCommentCounts(); // -> a közvetlenül mentett kommentek számának beírása (mint induláskor)
+        em.clear();
+
+        stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+    }
+
+    @Test
+    void postPageIsOneStatement() {
+        List<PostResponse> page = postRepo.findFirstPage(PageRequest.of(0, POSTS));
+
+        assertEquals(POSTS, page.size());
+        assertEquals(1, stats.getPrepareStatementCount());
+        for (PostResponse r : page) {
+            int i = Integer.parseInt(r.getContent().substring("Poszt ".length()));
+            assertEquals("User " + i, r.getAuthorName());
+            assertEquals(i % 3, r.getCommentCount());
+            assertEquals(expectedReactions(i), r.getReactionCount()); // -> a számlálótáblából, nem a post_reactions-ből
+        }
+    }
+
+    @Test
+    void singlePostReadsReactionCounter() {
+        PostResponse r = postRepo.findResponseById(postIds.get(8)).orElseThrow();
+
+        assertEquals(1, stats.getPrepareStatementCount());
+        assertEquals(expectedReactions(8), r.getReactionCount()); // -> LIKE + LOVE sor összege
+        assertEquals(0, postRepo.findResponseById(postIds.get(0)).orElseThrow().getReactionCount()); // -> nincs számlálósor
+    }
+
+    @Test
+    void postPageAfterCursorIsOneStatement() {
+        List<PostResponse> first = postRepo.findFirstPage(PageRequest.of(0, 5));
+        PostResponse last = first.get(first.size() - 1);
+        stats.clear();
+
+        List<PostResponse> next = postRepo.findPageAfter(last.getCreatedAt(), last.getId(), PageRequest.of(0, 5));
+
+        assertEquals(5, next.size());
+        assertEquals(1, stats.getPrepareStatementCount());
+        assertTrue(next.stream().noneMatch(r -> first.stream().anyMatch(f -> f.getId().equals(r.getId()))));
+    }
+
+    @Test
+    void commentPagesAreOneStatementEach() {
+        Long postId = postIds.get(2); // -> a harmadik posztnak 2 kommentje van
+        List<CommentResponse> first = commentRepo.findFirstPageByPostId(postId, PageRequest.of(0, 1));
+        CommentResponse last = first.get(0);
+        List<CommentResponse> next = commentRepo.findPageByPostIdAfter(postId, last.getCreatedAt(), last.getId(), PageRequest.of(0, 1));
+
+        assertEquals(2, stats.getPrepareStatementCount());
+        assertEquals("User 2", last.getAuthorName());
+        assertEquals(1, next.size());
+        assertNotEquals(last.getId(), next.get(0).getId());
+    }
+
+    private static long expectedReactions(int i) {
+        return i == 0 ? 0 : 100L * i + (i % 4 == 0 ? 1 : 0);
+    }
+
+    @Test
+    void reactionSummariesForPageAreTwoStatements() {
+        List<Object[]> counts = reactionRepo.aggregateByPostAndType(postIds);
+        List<Object[]> mine = reactionRepo.findMyTypes("user3@test.hu", postIds);
+
+        assertEquals(2, stats.getPrepareStatementCount());
+        assertEquals(POSTS, counts.size()); // -> posztonként egy LIKE csoport
+        assertEquals(1, mine.size());
+        assertEquals(postIds.get(3), mine.get(0)[0]);
+        assertEquals(ReactionType.LIKE, mine.get(0)[1]);
+    }
+}
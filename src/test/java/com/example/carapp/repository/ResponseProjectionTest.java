@@ -0,0 +1,111 @@
+package com.example.carapp.repository;
+
+import com.example.carapp.dto.AppointmentResponse;
+import com.example.carapp.dto.CarResponse;
+import com.example.carapp.model.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Lapos DTO projekció vs. entitásgráf szerializálása ugyanarra az adatra:
+ * a válasz kisebb, és a lista egyetlen SQL utasítás (az entitásos úton a tulajdonosok / centerek külön selectek).
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true" // -> H2-ben a "year" oszlopnév foglalt szó
+})
+class ResponseProjectionTest {
+
+    private static final int OWNERS = 20;
+    private static final int CARS_PER_OWNER = 10;
+
+    @Autowired private TestEntityManager em;
+    @Autowired private EntityManagerFactory emf;
+    @Autowired private CarRepository carRepo;
+    @Autowired private ServiceAppointmentRepository appointmentRepo;
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+    private Statistics stats;
+
+    @BeforeEach
+    void seed() {
+        ServiceCenter center = em.persist(new ServiceCenter("Teszt Szerviz", "Budapest", "Fő utca 1."));
+        LocalDateTime first = LocalDate.now().plusDays(1).atTime(8, 0);
+        int n = 0;
+        for (int o = 0; o < OWNERS; o++) {
+            User owner = em.persist(new User("User " + o, "owner" + o + "@test.hu", "secret123"));
+            for (int c = 0; c < CARS_PER_OWNER; c++) {
+                Car car = em.persist(new Car("Opel", "Astra", 2015, owner));
+                ServiceAppointment a = new ServiceAppointment();
+                a.setCar(car);
+                a.setUser(owner);
+                a.setCenter(center);
+                a.setServiceDateTime(first.plusMinutes(30L * n++));
+                a.setDescription("Olajcsere");
+                em.persist(a);
+            }
+        }
+        em.flush();
+        em.clear();
+        stats = emf.unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+    }
+
+    @Test
+    void carListIsSmallerAndOneStatement() throws Exception {
+        List<CarResponse> flat = carRepo.findResponsesByOwnerId(firstOwnerId());
+        stats.clear();
+        List<CarResponse> all = carRepo.streamResponses().toList();
+        assertEquals(1, stats.getPrepareStatementCount());
+        assertEquals(OWNERS * CARS_PER_OWNER, all.size());
+        assertEquals(CARS_PER_OWNER, flat.size());
+
+        em.clear();
+        stats.clear();
+        List<Car> entities = carRepo.findAll();
+        long entityStatements = stats.getPrepareStatementCount(); // -> 1 + tulajdonosonként 1 (EAGER ManyToOne)
+
+        int entityBytes = mapper.writeValueAsBytes(entities).length;
+        int flatBytes = mapper.writeValueAsBytes(all).length;
+        assertTrue(entityStatements > 1);
+        assertTrue(flatBytes < entityBytes * 0.8, "dto " + flatBytes + " B vs entity " + entityBytes + " B");
+    }
+
+    @Test
+    void appointmentListIsSmallerAndOneStatement() throws Exception {
+        List<AppointmentResponse> flat = appointmentRepo.findPage(LocalDateTime.of(1970, 1, 1, 0, 0),
+                LocalDateTime.of(9999, 1, 1, 0, 0), Long.MIN_VALUE, null, PageRequest.of(0, OWNERS * CARS_PER_OWNER));
+        assertEquals(1, stats.getPrepareStatementCount());
+        assertEquals(OWNERS * CARS_PER_OWNER, flat.size());
+
+        em.clear();
+        stats.clear();
+        List<ServiceAppointment> entities = appointmentRepo.findAll();
+        long entityStatements = stats.getPrepareStatementCount();
+
+        int entityBytes = mapper.writeValueAsBytes(entities).length;
+        int flatBytes = mapper.writeValueAsBytes(flat).length;
+        assertTrue(entityStatements > 1);
+        assertTrue(flatBytes < entityBytes * 0.7, "dto " + flatBytes + " B vs entity " + entityBytes + " B");
+    }
+
+    private Long firstOwnerId() {
+        return em.getEntityManager()
+                .createQuery("select min(u.id) from User u", Long.class)
+                .getSingleResult();
+    }
+}
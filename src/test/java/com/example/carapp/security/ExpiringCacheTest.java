@@ -0,0 +1,42 @@
+package com.example.carapp.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExpiringCacheTest {
+
+    @Test
+    void loadsOnceUntilEvicted() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(60_000, 10);
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("A", cache.get("a", k -> { loads.incrementAndGet(); return "A"; }));
+        assertEquals("A", cache.get("a", k -> { loads.incrementAndGet(); return "B"; }));
+        cache.evict("a");
+        assertEquals("C", cache.get("a", k -> { loads.incrementAndGet(); return "C"; }));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void expiredEntriesAreNotReturned() throws InterruptedException {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(5, 10);
+        cache.put("a", "A");
+        Thread.sleep(20);
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void nullIsNotCachedAndSizeIsBounded() {
+        ExpiringCache<Integer, Integer> cache = new ExpiringCache<>(60_000, 100);
+        assertNull(cache.get(-1, k -> null));
+        assertEquals(0, cache.size());
+
+        for (int i = 0; i < 1_000; i++) cache.put(i, i);
+        assertTrue(cache.size() <= 100);
+        assertEquals(999, cache.get(999)); // -> a legutóbb betett mindig bent van
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.carapp.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private static final String SECRET = "TestSecretKey_ForJwtService_AtLeast32Chars!";
+
+    @Test
+    void validTokenIsVerifiedAndCached() {
+        JwtService jwt = new JwtService(SECRET, 60_000, 60_000, 100);
+        String token = jwt.generateToken("anna@example.com");
+
+        JwtService.VerifiedToken first = jwt.verify(token);
+        JwtService.VerifiedToken second = jwt.verify(token);
+
+        assertEquals("anna@example.com", first.subject());
+        assertSame(first, second); // -> második hívás a cache-ből, újabb parse nélkül
+        assertTrue(jwt.isTokenValid(token, "anna@example.com"));
+        assertFalse(jwt.isTokenValid(token, "apa@example.com"));
+    }
+
+    @Test
+    void tamperedOrForeignTokenIsRejected() {
+        JwtService jwt = new JwtService(SECRET, 60_000, 60_000, 100);
+        JwtService other = new JwtService(SECRET.replace('T', 'X'), 60_000, 60_000, 100);
+        String token = jwt.generateToken("anna@example.com");
+
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+        assertNull(jwt.verify(tampered));
+        assertNull(jwt.verify(other.generateToken("anna@example.com")));
+        assertNull(jwt.verify("not-a-jwt"));
+        assertNull(jwt.extractUsername("not-a-jwt"));
+    }
+
+    @Test
+    void expiredTokenIsRejectedEvenWhenCached() throws InterruptedException {
+        JwtService jwt = new JwtService(SECRET, 2_000, 60_000, 100);
+        String token = jwt.generateToken("anna@example.com");
+        assertNotNull(jwt.verify(token)); // -> bekerül a cache-be
+
+        Thread.sleep(2_100);
+        assertNull(jwt.verify(token));
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.carapp.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoginThrottleTest {
+
+    @Test
+    void emailLimitIsPerWindowAndResetOnSuccess() {
+        LoginThrottle throttle = new LoginThrottle(60_000, 3, 100, 1000);
+        for (int i = 0; i < 3; i++) assertTrue(throttle.tryAcquire("a@b.hu", "10.0.0.1"));
+        assertFalse(throttle.tryAcquire("A@B.hu", "10.0.0.2")); // -> kis/nagybetű nem számít, más IP sem segít
+        assertTrue(throttle.tryAcquire("c@d.hu", "10.0.0.1")); // -> másik email mehet
+
+        throttle.reset("a@b.hu");
+        assertTrue(throttle.tryAcquire("a@b.hu", "10.0.0.1"));
+    }
+
+    @Test
+    void ipLimitCoversManyEmails() throws Exception {
+        LoginThrottle throttle = new LoginThrottle(50, 100, 2, 1000);
+        assertTrue(throttle.tryAcquire("x1@b.hu", "10.0.0.9"));
+        assertTrue(throttle.tryAcquire(null, "10.0.0.9"));
+        assertFalse(throttle.tryAcquire("x3@b.hu", "10.0.0.9"));
+
+        Thread.sleep(80); // -> új ablak
+        assertTrue(throttle.tryAcquire("x4@b.hu", "10.0.0.9"));
+    }
+
+    @Test
+    void throttledIpCannotGrowEmailKeys() {
+        LoginThrottle throttle = new LoginThrottle(60_000, 5, 20, 100_000);
+        int accepted = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (throttle.tryAcquire("random" + i + "@b.hu", "10.0.0.7")) accepted++;
+        }
+        assertEquals(20, accepted);
+        assertEquals(21, throttle.trackedKeys()); // -> 1 IP + a limitig beengedett 20 email
+        assertTrue(throttle.tryAcquire("victim@b.hu", "10.0.0.8")); // -> az áldozat emailje nem zárult ki
+    }
+
+    @Test
+    void keyCountStaysBoundedAndFreesAfterWindow() throws Exception {
+        LoginThrottle throttle = new LoginThrottle(50, 5, 20, 100);
+        for (int i = 0; i < 5_000; i++) throttle.tryAcquire("u" + i + "@b.hu", "10.1." + (i / 250) + "." + (i % 250));
+        assertTrue(throttle.trackedKeys() <= 100, "kulcsok: " + throttle.trackedKeys());
+        assertFalse(throttle.tryAcquire("new@b.hu", "10.9.9.9")); // -> tele: új kulcs nem kerül be
+
+        Thread.sleep(80); // -> lejárt ablakok: a takarítás helyet csinál
+        assertTrue(throttle.tryAcquire("new@b.hu", "10.9.9.9"));
+        assertTrue(throttle.trackedKeys() <= 100);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.carapp.service;
+
+import com.example.carapp.model.ServiceCenter;
+import com.example.carapp.repository.ServiceCenterRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CenterSearchIndexTest {
+
+    private static final String[] CITIES = {"Budapest", "Győr", "Debrecen", "Szeged", "Pécs", "Székesfehérvár", "Miskolc"};
+
+    @Test
+    void accentInsensitivePrefixMatchingAndRanking() {
+        CenterSearchIndex index = indexOf(List.of(
+                center(1, "Platinum Garage", "Győr", "Szent István út 5."),
+                center(2, "Győri Gumiszerviz", "Győr", "Fő tér 1."),
+                center(3, "RapidAuto Szerviz", "Budapest", "XI., Fehérvári út 12."),
+                center(4, "Műszaki+ Bosch Car Service", "Debrecen", "Nagyerdő krt. 8.")));
+
+        assertEquals(List.of(2L, 1L), ids(index.search("gyo", 0, 10))); // -> névkezdet elöl, utána a város-találat
+        assertEquals(List.of(2L, 1L), ids(index.search("GYŐ", 0, 10)));
+        assertEquals(List.of(4L), ids(index.search("muszaki bos", 0, 10))); // -> minden szó illeszkedjen
+        assertEquals(List.of(3L), ids(index.search("feherv", 0, 10))); // -> címben is keres
+        assertTrue(index.search("  ", 0, 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("gyor", 1, 1))); // -> lapozás
+        assertTrue(index.search("gyor", Integer.MAX_VALUE, 10).isEmpty()); // -> page * size túlcsordulna
+        assertTrue(index.search("gyor", 1 << 20, 1 << 12).isEmpty());
+
+        assertEquals(List.of(1L, 2L), ids(index.byCity("gyor")));
+
+        index.add(center(5, "Győrszentiváni Autóház", "Győr", "Gyár u. 3.")); // -> create után azonnal kereshető
+        assertEquals(3, index.search("gyor", 0, 10).size());
+    }
+
+    @Test
+    void autocompleteStaysFastOnTensOfThousandsOfCenters() {
+        List<ServiceCenter> many = new ArrayList<>();
+        for (int i = 1; i <= 30_000; i++) {
+            String city = CITIES[i % CITIES.length];
+            many.add(center(i, "Szerviz " + Integer.toString(i, 36) + " Kft", city, "Utca " + i));
+        }
+        CenterSearchIndex index = indexOf(many);
+
+        String[] queries = {"szerviz 1a", "gyo", "pecs sz", "kft 2", "szekesf"};
+        for (int warm = 0; warm < 200; warm++) index.search(queries[warm % queries.length], 0, 10);
+
+        int runs = 500;
+        long start = System.nanoTime();
+        for (int i = 0; i < runs; i++) assertFalse(index.search("szerviz " + Integer.toString(1000 + i, 36), 0, 10).isEmpty());
+        double avgMs = (System.nanoTime() - start) / 1e6 / runs;
+        assertTrue(avgMs < 1.0, "avg " + avgMs + " ms"); // -> szelektív autocomplete-lekérdezés
+    }
+
+    private static CenterSearchIndex indexOf(List<ServiceCenter> centers) {
+        ServiceCenterRepository repo = mock(ServiceCenterRepository.class);
+        when(repo.findAll()).thenReturn(centers);
+        CenterSearchIndex index = new CenterSearchIndex(repo);
+        index.rebuild();
+        return index;
+    }
+
+    private static ServiceCenter center(long id, String name, String city, String address) {
+        ServiceCenter c = new ServiceCenter(name, city, address);
+        ReflectionTestUtils.setField(c, "id", id);
+        return c;
+    }
+
+    private static List<Long> ids(List<ServiceCenter> centers) {
+        return centers.stream().map(ServiceCenter::getId).toList();
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.carapp.service;
+
+import com.example.carapp.dto.ForumSearchHit;
+import com.example.carapp.model.Comment;
+import com.example.carapp.model.Post;
+import com.example.carapp.repository.CommentRepository;
+import com.example.carapp.repository.PostRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ForumSearchIndexTest {
+
+    @Test
+    void rankedHungarianSearchWithIncrementalUpdates() {
+        PostRepository posts = mock(PostRepository.class);
+        CommentRepository comments = mock(CommentRepository.class);
+        LocalDateTime t = LocalDateTime.of(2025, 3, 1, 10, 0);
+        when(posts.findSearchRows()).thenReturn(List.of(
+                new Object[]{1L, "Zörög a motor", "Hidegindításnál zörög a motorban valami, főleg télen.", t},
+                new Object[]{2L, "Gumicsere tavasszal", "Mikor érdemes nyári gumira váltani?", t},
+                new Object[]{3L, null, "Olajcsere után is zörög, a motort átnézték.", t}));
+        when(comments.findSearchRows()).thenReturn(List.<Object[]>of(
+                new Object[]{10L, 2L, "Szerintem a motorok nem szeretik a hideget.", t}));
+        ForumSearchIndex index = new ForumSearchIndex(posts, comments);
+        index.rebuild();
+
+        List<ForumSearchHit> hits = index.search("MOTOR zorog", 0, 10);
+        assertEquals(List.of(1L, 3L, 2L), hits.stream().map(ForumSearchHit::getPostId).toList()); // -> cím-találat elöl, ragozott alakok is
+        assertEquals("COMMENT", hits.get(2).getType());
+        assertEquals(10L, hits.get(2).getCommentId());
+        assertEquals("Gumicsere tavasszal", hits.get(2).getTitle()); // -> kommentnél a poszt címe
+        assertTrue(hits.get(0).getScore() > hits.get(1).getScore());
+
+        assertEquals(1, index.search("motor", 1, 2).size()); // -> lapozás
+        assertTrue(index.search("motor", Integer.MAX_VALUE, 10).isEmpty()); // -> page * size túlcsordulna
+        assertTrue(index.search("motor", 1 << 20, 1 << 12).isEmpty());
+        assertTrue(index.search("a az egy", 0, 10).isEmpty()); // -> csak stopszó
+
+        Post edited = post(2L, "Gumicsere", "Téli gumi, zörög a futómű");
+        index.putPost(edited); // -> módosítás: a régi szavak kikerülnek
+        assertTrue(index.search("tavasszal", 0, 10).isEmpty());
+        assertEquals(3, index.search("zorog", 0, 10).size());
+
+        Comment c = new Comment();
+        ReflectionTestUtils.setField(c, "id", 11L);
+        c.setPost(edited);
+        c.setContent("A futóműnél érdemes kezdeni.");
+        index.putComment(c);
+        assertEquals(2, index.search("futomu", 0, 10).size());
+
+        index.removePost(2L); // -> kommentjeivel együtt
+        assertTrue(index.search("futomu", 0, 10).isEmpty());
+        assertEquals(List.of(1L, 3L), index.search("motor", 0, 10).stream().map(ForumSearchHit::getPostId).toList());
+    }
+
+    private static Post post(long id, String title, String content) {
+        Post p = new Post();
+        ReflectionTestUtils.setField(p, "id", id);
+        p.setTitle(title);
+        p.setContent(content);
+        return p;
+    }
+}
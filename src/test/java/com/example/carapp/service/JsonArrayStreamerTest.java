@@ -0,0 +1,97 @@
+package com.example.carapp.service;
+
+import com.example.carapp.model.Car;
+import com.example.carapp.model.User;
+import com.example.carapp.repository.CarRepository;
+import com.example.carapp.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Streamelt JSON lista: minden sor kiíródik, a jelszó nem, és a persistence context
+ * a kiírás alatt sem nő a tábla méretével.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true" // -> H2-ben a "year" oszlopnév foglalt szó
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // -> a streamer saját (csak olvasó) tranzakciót nyit
+class JsonArrayStreamerTest {
+
+    private static final int USERS = 1800;
+
+    @Autowired private UserRepository users;
+    @Autowired private CarRepository cars;
+    @Autowired private EntityManager em;
+    @Autowired private PlatformTransactionManager txManager;
+
+    private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules();
+    private JsonArrayStreamer streamer;
+
+    @BeforeEach
+    void seed() {
+        List<User> batch = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) batch.add(new User("User " + i, "stream" + i + "@test.hu", "secret123"));
+        List<User> saved = users.saveAll(batch);
+        cars.save(new Car("Opel", "Astra", 2015, saved.get(0)));
+        cars.save(new Car("Suzuki", "Swift", 2010, saved.get(1)));
+        streamer = new JsonArrayStreamer(mapper, em, txManager);
+    }
+
+    @AfterEach
+    void cleanup() {
+        cars.deleteAll();
+        users.deleteAll();
+    }
+
+    @Test
+    void streamsEveryRowWithBoundedPersistenceContext() throws Exception {
+        int[] maxManaged = {0};
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        streamer.jsonArray(users::streamResponses, u -> {
+            int managed = em.unwrap(Session.class).getStatistics().getEntityCount();
+            maxManaged[0] = Math.max(maxManaged[0], managed);
+            return u;
+        }).writeTo(out);
+
+        JsonNode array = mapper.readTree(out.toByteArray());
+        assertTrue(array.isArray());
+        assertEquals(USERS, array.size());
+        long previous = Long.MIN_VALUE;
+        for (JsonNode n : array) {
+            assertFalse(n.has("password"), "a jelszó nem kerülhet a válaszba");
+            long id = n.get("id").asLong();
+            assertTrue(id > previous, "ID szerint rendezve");
+            previous = id;
+        }
+        assertTrue(maxManaged[0] <= 500, "a persistence context kiürül menet közben: " + maxManaged[0]);
+    }
+
+    @Test
+    void carsCarryTheirOwnerFlat() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        streamer.jsonArray(cars::streamResponses, car -> car).writeTo(out);
+
+        JsonNode array = mapper.readTree(out.toByteArray());
+        assertEquals(2, array.size());
+        assertEquals("Opel", array.get(0).get("brand").asText());
+        assertEquals("User 0", array.get(0).get("ownerName").asText()); // -> lapos DTO: nincs beágyazott owner
+        assertFalse(array.get(0).has("owner"));
+    }
+}
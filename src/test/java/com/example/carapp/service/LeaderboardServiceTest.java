@@ -0,0 +1,162 @@
+package com.example.carapp.service;
+
+import com.example.carapp.dto.LeaderboardEntry;
+import com.example.carapp.model.CenterMonthlyScore;
+import com.example.carapp.model.ServiceCenter;
+import com.example.carapp.model.User;
+import com.example.carapp.repository.CenterMonthlyScoreRepository;
+import com.example.carapp.repository.ServiceCenterRepository;
+import com.example.carapp.repository.ServiceVoteRepository;
+import com.example.carapp.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Párhuzamos szavazás / újraszavazás után a memóriában tartott ranglista
+ * ugyanazt mutatja, mint a szavazatokon futó aggregáló lekérdezés.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true" // -> H2-ben a "year" oszlopnév foglalt szó
+})
+@Import(LeaderboardService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // -> a szavazások saját tranzakcióban futnak, commit után frissül a lista
+class LeaderboardServiceTest {
+
+    private static final int YEAR = 2030, MONTH = 5;
+    private static final int USERS = 12, VOTES = 600, THREADS = 8;
+
+    @Autowired private LeaderboardService leaderboard;
+    @Autowired private ServiceVoteRepository votes;
+    @Autowired private CenterMonthlyScoreRepository scores;
+    @Autowired private ServiceCenterRepository centers;
+    @Autowired private UserRepository users;
+    @Autowired private TransactionTemplate tx;
+    @Autowired private DataSource dataSource;
+
+    @AfterEach
+    void cleanup() {
+        votes.deleteAll();
+        scores.deleteAll();
+        centers.deleteAll();
+        users.deleteAll();
+    }
+
+    @Test
+    void boardMatchesAggregateAfterParallelVoting() throws Exception {
+        List<ServiceCenter> cs = new ArrayList<>();
+        for (int i = 0; i < 3; i++) cs.add(centers.save(new ServiceCenter("Szerviz " + i, "Pécs", "Utca " + i)));
+        List<Long> us = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) us.add(users.save(new User("U" + i, "lb" + i + "@test.hu", "secret123")).getId());
+
+        assertTrue(leaderboard.top(YEAR, MONTH, null).isEmpty()); // -> a hónap betöltve (üresen), innen commit után frissül
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < VOTES; i++) {
+            futures.add(pool.submit(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                Long user = us.get(rnd.nextInt(USERS));
+                ServiceCenter center = cs.get(rnd.nextInt(cs.size()));
+                int rating = 1 + rnd.nextInt(5);
+                // -> H2-n (nincs upsert) ugyanarra a (user, center) párra 3+ párhuzamos első szavazatnál az újrapróba is
+                //    ütközhet egy még nem commitolt sorral, ezért itt többször próbálunk, mint a controller
+                for (int attempt = 0; ; attempt++) {
+                    try {
+                        leaderboard.castVote(user, center.getId(), YEAR, MONTH, rating);
+                        return null;
+                    } catch (DataIntegrityViolationException e) {
+                        if (attempt == 9) throw e;
+                    }
+                }
+            }));
+        }
+        for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        List<Object[]> expected = votes.findMonthlyTopCenters(YEAR, MONTH);
+        List<LeaderboardEntry> board = leaderboard.top(YEAR, MONTH, null);
+        assertEquals(expected.size(), board.size());
+        for (Object[] row : expected) {
+            LeaderboardEntry e = board.stream().filter(x -> x.getCenterId().equals(row[0])).findFirst().orElseThrow();
+            assertEquals(((Number) row[4]).doubleValue(), e.getAvgRating(), 1e-9);
+            assertEquals(((Number) row[5]).longValue(), e.getVotes());
+        }
+        for (int i = 1; i < board.size(); i++) { // -> rendezett: átlag desc, majd szavazatszám desc
+            LeaderboardEntry prev = board.get(i - 1), cur = board.get(i);
+            assertTrue(prev.getAvgRating() > cur.getAvgRating()
+                    || (prev.getAvgRating().equals(cur.getAvgRating()) && prev.getVotes() >= cur.getVotes()));
+        }
+        assertEquals(2, leaderboard.top(YEAR, MONTH, 2).size());
+    }
+
+    @Test
+    void waitersRetryWhenTheFirstLoadFails() throws Exception {
+        ServiceCenter c = centers.save(new ServiceCenter("Újra", "Sopron", "Fő tér 2."));
+        CenterMonthlyScoreRepository flaky = mock(CenterMonthlyScoreRepository.class);
+        LeaderboardService service = new LeaderboardService(votes, flaky, centers, users, tx, dataSource);
+
+        CountDownLatch firstQuery = new CountDownLatch(1);
+        CountDownLatch fail = new CountDownLatch(1);
+        when(flaky.findByScoreYearAndScoreMonth(YEAR, MONTH))
+                .thenAnswer(inv -> {
+                    firstQuery.countDown();
+                    fail.await();
+                    throw new IllegalStateException("adatbázis nem elérhető");
+                })
+                .thenReturn(List.of(new CenterMonthlyScore(c.getId(), YEAR, MONTH, 9, 2)));
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        Future<List<LeaderboardEntry>> loader = pool.submit(() -> service.top(YEAR, MONTH, null));
+        assertTrue(firstQuery.await(10, TimeUnit.SECONDS));
+        Thread[] waiterThread = new Thread[1];
+        Future<List<LeaderboardEntry>> waiter = pool.submit(() -> {
+            waiterThread[0] = Thread.currentThread();
+            return service.top(YEAR, MONTH, null);
+        });
+        while (waiterThread[0] == null || waiterThread[0].getState() != Thread.State.WAITING) Thread.sleep(1); // -> a betöltőre vár
+        fail.countDown();
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> loader.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, error.getCause()); // -> a hiba a betöltőnél jön ki
+        List<LeaderboardEntry> board = waiter.get(10, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(1, board.size()); // -> a várakozó újratöltött, nem az üres listát kapta
+        assertEquals(4.5, board.get(0).getAvgRating());
+        verify(flaky, times(2)).findByScoreYearAndScoreMonth(YEAR, MONTH);
+    }
+
+    @Test
+    void revoteAppliesOnlyTheDifference() {
+        ServiceCenter c = centers.save(new ServiceCenter("Delta", "Eger", "Dobó tér 1."));
+        Long u = users.save(new User("Voter", "delta@test.hu", "secret123")).getId();
+        int month = MONTH + 1; // -> külön hónap: a ranglista a bean-ben a tesztek között megmarad
+
+        assertTrue(leaderboard.castVote(u, c.getId(), YEAR, month, 2));
+        assertFalse(leaderboard.castVote(u, c.getId(), YEAR, month, 5)); // -> újraszavazás
+
+        LeaderboardEntry e = leaderboard.top(YEAR, month, null).get(0);
+        assertEquals(5.0, e.getAvgRating());
+        assertEquals(1L, e.getVotes());
+        var row = scores.findByCenterIdAndScoreYearAndScoreMonth(c.getId(), YEAR, month).orElseThrow();
+        assertEquals(5, row.getRatingSum());
+        assertEquals(1, row.getVoteCount());
+    }
+}
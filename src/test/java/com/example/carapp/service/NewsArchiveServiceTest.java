@@ -0,0 +1,84 @@
+package com.example.carapp.service;
+
+import com.example.carapp.dto.NewsItem;
+import com.example.carapp.model.NewsSource;
+import com.example.carapp.repository.NewsArticleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Archiválás (source, linkHash) kulccsal: ugyanaz a link több forrásnál is megmarad,
+ * és párhuzamos mentésnél sem lesz duplikátum vagy kivétel.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true" // -> H2-ben a "year" oszlopnév foglalt szó
+})
+@Import(NewsArchiveService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // -> a mentések saját tranzakcióban futnak, több szálról
+class NewsArchiveServiceTest {
+
+    @Autowired private NewsArchiveService archive;
+    @Autowired private NewsArticleRepository articles;
+
+    @AfterEach
+    void cleanup() {
+        articles.deleteAll();
+    }
+
+    @Test
+    void sameLinkIsArchivedOncePerSource() {
+        List<NewsItem> items = items("https://hirhanyo.hu/hirek/utinfo/dugo", "https://hirhanyo.hu/hirek/utinfo/baleset");
+
+        assertEquals(2, archive.ingest(NewsSource.HIRHANYO, items));
+        assertEquals(2, archive.ingest(NewsSource.UTINFORM, items)); // -> másik forrásnál nem "foglalt" a link
+        assertEquals(0, archive.ingest(NewsSource.HIRHANYO, items)); // -> ismert: csak lastSeenAt frissül
+
+        assertEquals(4, articles.count());
+        assertEquals(2, archive.latest(NewsSource.UTINFORM, 10).size());
+    }
+
+    @Test
+    void parallelIngestOfSameItemsDoesNotFail() throws Exception {
+        List<String> links = new ArrayList<>();
+        for (int i = 0; i < 20; i++) links.add("https://totalcar.hu/tesztek/" + i);
+        List<NewsItem> items = items(links.toArray(String[]::new));
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger inserted = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            futures.add(pool.submit(() -> {
+                go.await();
+                inserted.addAndGet(archive.ingest(NewsSource.TOTALCAR, items));
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> f : futures) f.get(30, TimeUnit.SECONDS); // -> ütközés esetén sem dob
+        pool.shutdown();
+
+        assertEquals(items.size(), inserted.get());
+        assertEquals(items.size(), articles.count());
+    }
+
+    private static List<NewsItem> items(String... links) {
+        List<NewsItem> out = new ArrayList<>();
+        for (String link : links) out.add(new NewsItem("Hír " + link, link, "test", LocalDateTime.now()));
+        return out;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.carapp.service;
+
+import com.example.carapp.dto.NewsItem;
+import com.example.carapp.dto.NewsPage;
+import com.example.carapp.dto.NewsSourceResult;
+import com.example.carapp.model.NewsSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Stale-while-revalidate: lejárt feednél a régi pillanatkép megy ki azonnal, közben forrásonként
+ * legfeljebb egy frissítés fut; sikertelen frissítés után a régi pillanatkép marad.
+ */
+class NewsFeedCacheTest {
+
+    private static final NewsSource SOURCE = NewsSource.TOTALCAR;
+
+    private NewsService news;
+    private NewsFeedCache cache;
+
+    @BeforeEach
+    void setUp() {
+        news = mock(NewsService.class);
+        cache = new NewsFeedCache(news, archiveWithoutDb(), 50, 1, 1, 1); // -> 1 ms TTL: minden olvasás lejárt feedet lát
+    }
+
+    @Test
+    void staleReadServesOldSnapshotWhileOneRefreshRuns() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger fetches = new AtomicInteger();
+        when(news.fetch(eq(SOURCE), anyInt())).thenAnswer(inv -> {
+            if (fetches.incrementAndGet() == 1) return items("régi");
+            release.await(10, TimeUnit.SECONDS); // -> a frissítés "lassú"
+            return items("új");
+        });
+
+        assertEquals("régi", first(cache.get(SOURCE, 10)));
+        Thread.sleep(5);
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<NewsPage>> reads = new ArrayList<>();
+        for (int i = 0; i < 32; i++) reads.add(pool.submit(() -> cache.get(SOURCE, 10)));
+        for (Future<NewsPage> r : reads) assertEquals("régi", first(r.get(5, TimeUnit.SECONDS))); // -> nem vár a frissítésre
+        pool.shutdown();
+
+        awaitFetches(fetches, 2);
+        Thread.sleep(20);
+        assertEquals(2, fetches.get()); // -> 32 lejárt olvasásra egyetlen frissítés
+        release.countDown();
+        assertEquals("új", awaitTitle("új"));
+        assertTrue(fetches.get() <= 3); // -> legfeljebb a későbbi olvasások indítottak új kört
+    }
+
+    @Test
+    void failedRefreshKeepsPreviousSnapshot() throws Exception {
+        AtomicInteger fetches = new AtomicInteger();
+        when(news.fetch(eq(SOURCE), anyInt())).thenAnswer(inv -> {
+            if (fetches.incrementAndGet() == 1) return items("régi");
+            throw new IOException("host down");
+        });
+
+        assertEquals("régi", first(cache.get(SOURCE, 10)));
+        Thread.sleep(5);
+        assertEquals("régi", first(cache.get(SOURCE, 10))); // -> elindítja a (sikertelen) frissítést
+
+        awaitFetches(fetches, 2);
+        Thread.sleep(20); // -> a hiba feldolgozása
+        assertEquals(2, fetches.get(), "a háttérfrissítés lefutott");
+        assertEquals("régi", first(cache.get(SOURCE, 10)));
+    }
+
+    @Test
+    void versionChangesOnlyWhenFirstPageChanges() throws Exception {
+        AtomicInteger fetches = new AtomicInteger();
+        when(news.fetch(eq(SOURCE), anyInt())).thenAnswer(inv ->
+                items(fetches.incrementAndGet() < 3 ? "régi" : "új")); // -> új NewsItem példányok, friss időbélyeggel
+
+        cache.get(SOURCE, 10);
+        Long first = cache.version(SOURCE);
+        Thread.sleep(5);
+        cache.get(SOURCE, 10); // -> frissítés ugyanazzal a tartalommal
+        awaitFetches(fetches, 2);
+        Thread.sleep(20);
+        assertEquals(first, cache.version(SOURCE)); // -> az ETag érvényes marad
+
+        assertEquals("új", awaitTitle("új"));
+        assertTrue(cache.version(SOURCE) > first);
+    }
+
+    @Test
+    void allIsServedFromSnapshotsWithOneFetchPerSource() throws Exception {
+        cache = new NewsFeedCache(news, archiveWithoutDb(), 3, 600000, 600000, 600000); // -> max. 3 hír, nem jár le
+        AtomicInteger fetches = new AtomicInteger();
+        when(news.fetch(any(), anyInt())).thenAnswer(inv -> {
+            fetches.incrementAndGet();
+            Thread.sleep(50); // -> a párhuzamos kérések ugyanarra a letöltésre várnak
+            List<NewsItem> out = new ArrayList<>();
+            for (int i = 0; i < 10; i++) out.addAll(items(inv.getArgument(0) + "-" + i));
+            return out;
+        });
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<List<NewsSourceResult>>> calls = new ArrayList<>();
+        for (int i = 0; i < 16; i++) calls.add(pool.submit(() -> cache.all(1000, Duration.ofSeconds(5))));
+        for (Future<List<NewsSourceResult>> c : calls) {
+            for (NewsSourceResult r : c.get(10, TimeUnit.SECONDS)) {
+                assertEquals(NewsSourceResult.Status.COMPLETE, r.getStatus());
+                assertEquals(3, r.getItems().size()); // -> a limit a cache méretére szorul
+            }
+        }
+        pool.shutdown();
+
+        assertEquals(NewsSource.values().length, fetches.get()); // -> forrásonként egy letöltés, 16 kérésre
+        cache.all(20, Duration.ofSeconds(5));
+        assertEquals(NewsSource.values().length, fetches.get()); // -> friss pillanatkép: nincs újabb letöltés
+    }
+
+    // --- segédfüggvények ---
+
+    private static NewsArchiveService archiveWithoutDb() {
+        NewsArchiveService archive = mock(NewsArchiveService.class);
+        doThrow(new IllegalStateException("no database")).when(archive).ingest(any(), any());
+        return archive;
+    }
+
+    private static void awaitFetches(AtomicInteger fetches, int n) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (fetches.get() < n && System.nanoTime() < deadline) Thread.sleep(5);
+    }
+
+    private String awaitTitle(String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        String title;
+        do {
+            title = first(cache.get(SOURCE, 10));
+            if (expected.equals(title)) return title;
+            Thread.sleep(5);
+        } while (System.nanoTime() < deadline);
+        return title;
+    }
+
+    private static String first(NewsPage page) {
+        return page.getItems().get(0).getTitle();
+    }
+
+    private static List<NewsItem> items(String title) {
+        return List.of(new NewsItem(title, "https://totalcar.hu/tesztek/" + title, "Totalcar", LocalDateTime.now()));
+    }
+}
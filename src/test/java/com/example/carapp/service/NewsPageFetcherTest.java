@@ -0,0 +1,210 @@
+package com.example.carapp.service;
+
+import com.example.carapp.dto.NewsHostHealth;
+import com.example.carapp.dto.NewsItem;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NewsPageFetcherTest {
+
+    private static final String PAGE = "<html><body><main><a href=\"/hir/1\">Első hír</a></main></body></html>";
+
+    private HttpServer server;
+    private String baseUrl;
+    private final List<String> ifNoneMatch = new CopyOnWriteArrayList<>();
+    private final List<String> ifModifiedSince = new CopyOnWriteArrayList<>();
+    private volatile String etag = "\"v1\"";
+    private volatile String body = PAGE;
+    private final CountDownLatch slowRequestArrived = new CountDownLatch(1);
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/etag", this::handleEtag);
+        server.createContext("/last-modified", this::handleLastModified);
+        server.createContext("/no-validators", ex -> respond(ex, 200, body));
+        server.createContext("/slow", this::handleSlow);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        server.stop(0);
+        ((ExecutorService) server.getExecutor()).shutdownNow();
+    }
+
+    @Test
+    void notModifiedByEtagReusesParsedItems() throws IOException {
+        NewsPageFetcher fetcher = newFetcher(1 << 20);
+        AtomicInteger parses = new AtomicInteger();
+
+        List<NewsItem> first = fetcher.fetchHtml(baseUrl + "/etag", 10, doc -> parseAnchors(doc.select("a"), parses));
+        List<NewsItem> second = fetcher.fetchHtml(baseUrl + "/etag", 10, doc -> parseAnchors(doc.select("a"), parses));
+
+        assertEquals(1, parses.get());
+        assertEquals(List.of("\"v1\""), ifNoneMatch);
+        assertSame(first.get(0), second.get(0));
+        assertEquals(baseUrl + "/hir/1", second.get(0).getLink());
+    }
+
+    @Test
+    void changedEtagIsParsedAgain() throws IOException {
+        NewsPageFetcher fetcher = newFetcher(1 << 20);
+        AtomicInteger parses = new AtomicInteger();
+
+        fetcher.fetchHtml(baseUrl + "/etag", 10, doc -> parseAnchors(doc.select("a"), parses));
+        etag = "\"v2\"";
+        body = PAGE.replace("Első hír", "Második hír");
+        List<NewsItem> items = fetcher.fetchHtml(baseUrl + "/etag", 10, doc -> parseAnchors(doc.select("a"), parses));
+
+        assertEquals(2, parses.get());
+        assertEquals("Második hír", items.get(0).getTitle());
+    }
+
+    @Test
+    void notModifiedByLastModifiedReusesParsedItems() throws IOException {
+        NewsPageFetcher fetcher = newFetcher(1 << 20);
+        AtomicInteger parses = new AtomicInteger();
+
+        fetcher.fetchFeed(baseUrl + "/last-modified", 10, res -> parseAnchors(res.parse().select("a"), parses));
+        List<NewsItem> items = fetcher.fetchFeed(baseUrl + "/last-modified", 10, res -> parseAnchors(res.parse().select("a"), parses));
+
+        assertEquals(1, parses.get());
+        assertEquals(List.of("Wed, 14 Oct 2026 10:00:00 GMT"), ifModifiedSince);
+        assertEquals(1, items.size());
+    }
+
+    @Test
+    void largerLimitThanCachedSkipsValidators() throws IOException {
+        NewsPageFetcher fetcher = newFetcher(1 << 20);
+        AtomicInteger parses = new AtomicInteger();
+        body = "<html><body><a href=\"/1\">A</a><a href=\"/2\">B</a><a href=\"/3\">C</a></body></html>";
+
+        fetcher.fetchHtml(baseUrl + "/etag", 2, doc -> parseAnchors(doc.select("a").subList(0, 2), parses));
+        List<NewsItem> smaller = fetcher.fetchHtml(baseUrl + "/etag", 1, doc -> parseAnchors(doc.select("a"), parses));
+        fetcher.fetchHtml(baseUrl + "/etag", 3, doc -> parseAnchors(doc.select("a"), parses));
+
+        assertEquals(1, smaller.size());
+        assertEquals(List.of("\"v1\""), ifNoneMatch); // -> a 3-as limitnél már nem küldtünk validátort
+        assertEquals(2, parses.get());
+    }
+
+    @Test
+    void bodyIsCappedAtMaxBodyBytes() throws IOException {
+        NewsPageFetcher fetcher = newFetcher(1024);
+        body = "x".repeat(64 * 1024);
+
+        List<NewsItem> items = fetcher.fetchFeed(baseUrl + "/no-validators", 10, res -> {
+            int read = res.bodyAsBytes().length;
+            return List.of(new NewsItem(String.valueOf(read), baseUrl, "test", LocalDateTime.now()));
+        });
+
+        assertEquals("1024", items.get(0).getTitle());
+    }
+
+    @Test
+    void cancelledFetchIsNotCountedAsFailure() throws Exception {
+        NewsHostMonitor monitor = new NewsHostMonitor(1, 30000, 1500, 12000, 2.0); // -> egy hiba is nyitna
+        NewsPageFetcher fetcher = new NewsPageFetcher(monitor, 1 << 20);
+        CountDownLatch finished = new CountDownLatch(1);
+
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<?> task = pool.submit(() -> {
+                try {
+                    return fetcher.fetchHtml(baseUrl + "/slow", 10, doc -> List.of());
+                } finally {
+                    finished.countDown();
+                }
+            });
+            assertTrue(slowRequestArrived.await(5, TimeUnit.SECONDS));
+            task.cancel(true);
+            assertTrue(finished.await(5, TimeUnit.SECONDS)); // -> a megszakítás tényleg kiléptette a letöltést
+        }
+
+        NewsHostHealth health = monitor.snapshot().get(0);
+        assertEquals(NewsHostMonitor.State.CLOSED.name(), health.getState());
+        assertEquals(0, health.getFailures());
+        assertDoesNotThrow(() -> monitor.acquire("127.0.0.1"));
+    }
+
+    private static NewsPageFetcher newFetcher(int maxBodyBytes) {
+        return new NewsPageFetcher(new NewsHostMonitor(5, 30000, 1500, 12000, 2.0), maxBodyBytes);
+    }
+
+    // --- stub szerver ---
+
+    private void handleEtag(HttpExchange ex) throws IOException {
+        String sent = ex.getRequestHeaders().getFirst("If-None-Match");
+        if (sent != null) ifNoneMatch.add(sent);
+        ex.getResponseHeaders().set("ETag", etag);
+        if (etag.equals(sent)) {
+            respond(ex, 304, null);
+        } else {
+            respond(ex, 200, body);
+        }
+    }
+
+    private void handleSlow(HttpExchange ex) throws IOException {
+        slowRequestArrived.countDown();
+        try {
+            Thread.sleep(10_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        respond(ex, 200, body);
+    }
+
+    private void handleLastModified(HttpExchange ex) throws IOException {
+        String lastModified = "Wed, 14 Oct 2026 10:00:00 GMT";
+        String sent = ex.getRequestHeaders().getFirst("If-Modified-Since");
+        if (sent != null) ifModifiedSince.add(sent);
+        ex.getResponseHeaders().set("Last-Modified", lastModified);
+        if (lastModified.equals(sent)) {
+            respond(ex, 304, null);
+        } else {
+            respond(ex, 200, body);
+        }
+    }
+
+    private static void respond(HttpExchange ex, int status, String body) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", "text/html; charset=UTF-8");
+        if (body == null) {
+            ex.sendResponseHeaders(status, -1);
+            ex.close();
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        ex.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static List<NewsItem> parseAnchors(List<org.jsoup.nodes.Element> anchors, AtomicInteger parses) {
+        parses.incrementAndGet();
+        return anchors.stream()
+                .map(a -> new NewsItem(a.text(), a.absUrl("href"), "test", LocalDateTime.now()))
+                .toList();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.carapp.service;
+
+import com.example.carapp.dto.NewsItem;
+import com.example.carapp.model.NewsSource;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Linkkinyerés (extractAnchors + AnchorRule) kis, beágyazott HTML-eken: a letöltőt kicseréljük,
+ * a forrás URL-jén "letöltött" dokumentumot a valódi DocumentParser dolgozza fel.
+ */
+class NewsServiceTest {
+
+    private NewsPageFetcher fetcher;
+    private NewsService news;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        fetcher = mock(NewsPageFetcher.class);
+        when(fetcher.fetchFeed(anyString(), anyInt(), any())).thenReturn(List.of()); // -> nincs Google News kiegészítés
+        news = new NewsService(fetcher);
+    }
+
+    @Test
+    void totalcarKeepsOnlyTestPagesOnItsOwnHost() throws Exception {
+        serve("""
+                <main>
+                  <a href="/tesztek/golf-teszt">Golf</a>
+                  <a href="/hirek/valami">Hír</a>
+                  <a href="https://masik.hu/tesztek/x">Idegen host</a>
+                  <a href="//totalcar.hu/tesztek/octavia">Octavia</a>
+                  <a href="/tesztek/a#comments">Kommentek</a>
+                </main>""");
+
+        List<NewsItem> items = news.fetch(NewsSource.TOTALCAR, 10);
+
+        assertEquals(List.of("https://totalcar.hu/tesztek/golf-teszt", "https://totalcar.hu/tesztek/octavia"), links(items));
+        assertEquals("Totalcar", items.get(0).getSource());
+    }
+
+    @Test
+    void hirhanyoKeepsOnlyArticlePaths() throws Exception {
+        serve("""
+                <div class="post-list">
+                  <a href="https://hirhanyo.hu/hirek/utinfo/dugo">Dugó</a>
+                  <a href="https://hirhanyo.hu/kapcsolat">Kapcsolat</a>
+                  <a href="https://www.hirhanyo.hu/hirek/baleset?x=1">Baleset</a>
+                </div>""");
+
+        List<NewsItem> items = news.fetch(NewsSource.HIRHANYO, 10);
+
+        assertEquals(List.of("https://hirhanyo.hu/hirek/utinfo/dugo", "https://www.hirhanyo.hu/hirek/baleset?x=1"), links(items));
+    }
+
+    @Test
+    void onlyAnchorsInsideContainersCount() throws Exception {
+        serve("""
+                <nav><a href="/tesztek/menu">Menü</a></nav>
+                <main>
+                  <article><a href="/tesztek/belso">Belső</a></article>
+                  <a href="/tesztek/utana">Konténeren belül, a cikk után</a>
+                </main>
+                <footer><a href="/tesztek/lablec">Lábléc</a></footer>""");
+
+        List<NewsItem> items = news.fetch(NewsSource.TOTALCAR, 10);
+
+        // -> a beágyazott article lezárása nem léptet ki a main-ből; a main után már nem gyűjtünk
+        assertEquals(List.of("Belső", "Konténeren belül, a cikk után"), items.stream().map(NewsItem::getTitle).toList());
+    }
+
+    @Test
+    void relativeLinksBecomeAbsolute() throws Exception {
+        serve("""
+                <div class="news-list">
+                  <a href="/hu/news/1">Gyökér-relatív</a>
+                  <a href="cikk/2">Relatív</a>
+                  <a href="mailto:info@utinform.hu">Levél</a>
+                </div>""");
+
+        List<NewsItem> items = news.fetch(NewsSource.UTINFORM, 10);
+
+        assertEquals(List.of("https://www.utinform.hu/hu/news/1", "https://www.utinform.hu/hu/cikk/2"), links(items));
+    }
+
+    @Test
+    void duplicatesAreDroppedByNormalizedTitleAndLink() throws Exception {
+        serve("""
+                <main>
+                  <a href="/tesztek/golf">Golf  teszt</a>
+                  <a href="/tesztek/golf?utm_source=fb">golf teszt</a>
+                  <a href="/tesztek/Golf?fbclid=abc">GOLF TESZT</a>
+                  <a href="/tesztek/golf">Másik cím</a>
+                </main>""");
+
+        List<NewsItem> items = news.fetch(NewsSource.TOTALCAR, 10);
+
+        assertEquals(List.of("Golf teszt", "Másik cím"), items.stream().map(NewsItem::getTitle).toList());
+    }
+
+    @Test
+    void extractionStopsAtLimit() throws Exception {
+        StringBuilder html = new StringBuilder("<main>");
+        for (int i = 0; i < 20; i++) html.append("<a href=\"/tesztek/").append(i).append("\">Teszt ").append(i).append("</a>");
+        serve(html.append("</main>").toString());
+
+        List<NewsItem> items = news.fetch(NewsSource.TOTALCAR, 3);
+
+        assertEquals(List.of("Teszt 0", "Teszt 1", "Teszt 2"), items.stream().map(NewsItem::getTitle).toList());
+        verify(fetcher, never()).fetchFeed(anyString(), anyInt(), any()); // -> elég hír jött, nincs kiegészítés
+    }
+
+    @Test
+    void normalizeLinkDropsTrackingParamsAndCase() {
+        assertEquals("https://totalcar.hu/tesztek/golf?id=3",
+                NewsService.normalizeLink("https://Totalcar.hu/tesztek/Golf?utm_source=x&id=3&gclid=y&FBCLID=z"));
+        assertEquals("https://totalcar.hu/a", NewsService.normalizeLink("https://totalcar.hu/a?utm_medium=rss"));
+        assertEquals("https://totalcar.hu/a", NewsService.normalizeLink("  https://totalcar.hu/a  "));
+    }
+
+    // --- segédfüggvények ---
+
+    /** A forrás saját URL-jén ezt a HTML-t "töltjük le"; a valódi parser dolgozza fel. */
+    private void serve(String body) throws Exception {
+        when(fetcher.fetchHtml(anyString(), anyInt(), any())).thenAnswer(inv -> {
+            String url = inv.getArgument(0);
+            NewsPageFetcher.DocumentParser parser = inv.getArgument(2);
+            return parser.parse(Jsoup.parse("<html><body>" + body + "</body></html>", url));
+        });
+    }
+
+    private static List<String> links(List<NewsItem> items) {
+        return items.stream().map(NewsItem::getLink).toList();
+    }
+}
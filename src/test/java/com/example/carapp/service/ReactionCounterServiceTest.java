@@ -0,0 +1,129 @@
+package com.example.carapp.service;
+
+import com.example.carapp.model.PostReactionCounter;
+import com.example.carapp.model.ReactionType;
+import com.example.carapp.repository.PostReactionCounterRepository;
+import com.example.carapp.repository.PostReactionRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReactionCounterServiceTest {
+
+    private static final long POST = 42L;
+    private static final int USERS = 200;
+    private static final int THREADS = 16;
+    private static final int OPS_PER_THREAD = 20_000;
+
+    /**
+     * Párhuzamos reagálás / átírás / törlés ugyanazon a poszton.
+     * A user reakciósorát egy AtomicReference modellezi: a compareAndSet a feltételes
+     * UPDATE/DELETE (where type = :from) megfelelője, a számlálót csak a nyertes módosítja.
+     */
+    @Test
+    void countsNeverDriftUnderParallelToggling() throws Exception {
+        PostReactionCounterRepository counterRepo = mock(PostReactionCounterRepository.class);
+        List<List<PostReactionCounter>> flushed = new CopyOnWriteArrayList<>();
+        when(counterRepo.saveAll(any())).thenAnswer(inv -> {
+            List<PostReactionCounter> rows = new ArrayList<>();
+            inv.<Iterable<PostReactionCounter>>getArgument(0).forEach(rows::add);
+            flushed.add(rows);
+            return rows;
+        });
+        ReactionCounterService counters = new ReactionCounterService(
+                mock(PostReactionRepository.class), counterRepo, inlineTx());
+
+        List<AtomicReference<ReactionType>> rows = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) rows.add(new AtomicReference<>());
+        ReactionType[] types = ReactionType.values();
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        List<Future<?>> workers = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            workers.add(pool.submit(() -> {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                start.await();
+                for (int op = 0; op < OPS_PER_THREAD; op++) {
+                    AtomicReference<ReactionType> row = rows.get(rnd.nextInt(USERS));
+                    ReactionType from = row.get();
+                    ReactionType to = rnd.nextInt(4) == 0 ? null : types[rnd.nextInt(types.length)];
+                    if (from != to && row.compareAndSet(from, to)) counters.applyChange(POST, from, to);
+                }
+                return null;
+            }));
+        }
+        // közben a write-behind flush is fut
+        Future<?> flusher = pool.submit(() -> {
+            start.await();
+            while (running.get()) counters.flush();
+            return null;
+        });
+
+        start.countDown();
+        for (Future<?> w : workers) w.get(60, TimeUnit.SECONDS);
+        running.set(false);
+        flusher.get(10, TimeUnit.SECONDS);
+        pool.shutdown();
+        counters.flush(); // -> a flusher utolsó köre után érkezett változások kiírása
+
+        Map<ReactionType, Long> expected = new EnumMap<>(ReactionType.class);
+        for (AtomicReference<ReactionType> row : rows) {
+            if (row.get() != null) expected.merge(row.get(), 1L, Long::sum);
+        }
+        assertEquals(expected, counters.counts(POST));
+
+        // az utolsó flush a végső állapotot írja ki
+        flushed.clear();
+        counters.applyChange(POST, null, null); // -> nincs változás, nem jelöl
+        counters.applyChange(POST, ReactionType.LIKE, ReactionType.LIKE);
+        counters.flush();
+        assertTrue(flushed.isEmpty()); // -> semmi nem volt piszkos
+
+        ReactionType some = expected.keySet().iterator().next();
+        counters.applyChange(POST, some, null);
+        counters.applyChange(POST, null, some);
+        counters.flush();
+        Map<ReactionType, Long> written = new EnumMap<>(ReactionType.class);
+        flushed.get(0).forEach(k -> written.put(k.getType(), k.getCount()));
+        assertEquals(expected, written);
+    }
+
+    @Test
+    void failedFlushIsRetried() {
+        PostReactionCounterRepository counterRepo = mock(PostReactionCounterRepository.class);
+        when(counterRepo.saveAll(any()))
+                .thenThrow(new IllegalStateException("db down"))
+                .thenAnswer(inv -> inv.getArgument(0));
+        ReactionCounterService counters = new ReactionCounterService(
+                mock(PostReactionRepository.class), counterRepo, inlineTx());
+
+        counters.applyChange(POST, null, ReactionType.LOVE);
+        counters.flush(); // -> hiba: a poszt piszkos marad
+        counters.flush(); // -> újrapróbálás
+
+        verify(counterRepo, times(2)).saveAll(any());
+        assertEquals(Map.of(ReactionType.LOVE, 1L), counters.counts(POST));
+    }
+
+    /** Tranzakció nélkül, a hívó szálon futtatja a callbacket. */
+    @SuppressWarnings("unchecked")
+    private static TransactionTemplate inlineTx() {
+        TransactionTemplate tx = mock(TransactionTemplate.class);
+        doAnswer(inv -> {
+            inv.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(tx).executeWithoutResult(any());
+        return tx;
+    }
+}
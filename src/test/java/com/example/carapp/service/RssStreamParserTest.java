@@ -0,0 +1,130 @@
+package com.example.carapp.service;
+
+import com.example.carapp.dto.NewsItem;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Streaming RSS feldolgozás: korai leállás a limitnél, CDATA / entitások, hiányos itemek, XXE. */
+class RssStreamParserTest {
+
+    @Test
+    void stopsAtLimitAndClosesStreamEarly() throws IOException {
+        StringBuilder rss = new StringBuilder("<rss><channel>");
+        for (int i = 0; i < 5000; i++) {
+            rss.append("<item><title>Hír ").append(i).append("</title><link>https://utinform.hu/")
+                    .append(i).append("</link></item>");
+        }
+        byte[] bytes = rss.append("</channel></rss>").toString().getBytes(StandardCharsets.UTF_8);
+        TrackingStream in = new TrackingStream(bytes);
+
+        List<NewsItem> items = RssStreamParser.parse(in, 2, "Útinform");
+
+        assertEquals(List.of("Hír 0", "Hír 1"), items.stream().map(NewsItem::getTitle).toList());
+        assertEquals("Útinform", items.get(0).getSource());
+        assertTrue(in.closed);
+        assertTrue(in.read < bytes.length / 4, "csak a feed eleje lett beolvasva: " + in.read + " / " + bytes.length);
+    }
+
+    @Test
+    void cdataAndEntitiesAreCoalesced() throws IOException {
+        String rss = """
+                <rss><channel><item>
+                  <title>Audi &amp; <![CDATA[BMW <összevetés>]]> &#8211; teszt</title>
+                  <link><![CDATA[https://totalcar.hu/tesztek/a?x=1&y=2]]></link>
+                </item></channel></rss>""";
+
+        List<NewsItem> items = parse(rss, 10);
+
+        assertEquals(1, items.size());
+        assertEquals("Audi & BMW <összevetés> – teszt", items.get(0).getTitle());
+        assertEquals("https://totalcar.hu/tesztek/a?x=1&y=2", items.get(0).getLink());
+    }
+
+    @Test
+    void itemsWithMissingOrInvalidFieldsAreSkipped() throws IOException {
+        String rss = """
+                <rss><channel>
+                  <title>Csatorna címe</title><link>https://utinform.hu/</link>
+                  <item><title>Link nélkül</title></item>
+                  <item><link>https://utinform.hu/cim-nelkul</link></item>
+                  <item><title>   </title><link>https://utinform.hu/ures-cim</link></item>
+                  <item><title>Nem http</title><link>ftp://utinform.hu/x</link></item>
+                  <item><title>Rendben</title><link> https://utinform.hu/ok </link></item>
+                </channel></rss>""";
+
+        List<NewsItem> items = parse(rss, 10);
+
+        assertEquals(1, items.size()); // -> a csatorna saját title/link párja sem hír
+        assertEquals("Rendben", items.get(0).getTitle());
+        assertEquals("https://utinform.hu/ok", items.get(0).getLink());
+    }
+
+    @Test
+    void externalEntitiesAreNotResolved(@TempDir Path dir) throws IOException {
+        Path secret = Files.writeString(dir.resolve("secret.txt"), "TITKOS-TARTALOM");
+        String rss = """
+                <?xml version="1.0"?>
+                <!DOCTYPE rss [<!ENTITY xxe SYSTEM "%s">]>
+                <rss><channel><item>
+                  <title>&xxe;</title><link>https://utinform.hu/x</link>
+                </item></channel></rss>""".formatted(secret.toUri());
+        TrackingStream in = new TrackingStream(rss.getBytes(StandardCharsets.UTF_8));
+
+        List<NewsItem> items;
+        try {
+            items = RssStreamParser.parse(in, 10, "test");
+        } catch (IOException e) {
+            items = List.of(); // -> a feloldatlan entitás hibát is okozhat – ez is elfogadható
+        }
+
+        assertTrue(items.stream().noneMatch(i -> i.getTitle().contains("TITKOS")));
+        assertTrue(in.closed);
+    }
+
+    // --- segédfüggvények ---
+
+    private static List<NewsItem> parse(String rss, int limit) throws IOException {
+        return RssStreamParser.parse(new ByteArrayInputStream(rss.getBytes(StandardCharsets.UTF_8)), limit, "test");
+    }
+
+    /** Számolja a beolvasott bájtokat és jelzi a lezárást. */
+    private static final class TrackingStream extends FilterInputStream {
+        long read;
+        boolean closed;
+
+        TrackingStream(byte[] bytes) {
+            super(new ByteArrayInputStream(bytes));
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) read++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) read += n;
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            closed = true;
+            super.close();
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.example.carapp.service;
+
+import com.example.carapp.model.*;
+import com.example.carapp.repository.CarRepository;
+import com.example.carapp.repository.ServiceAppointmentRepository;
+import com.example.carapp.repository.ServiceCenterRepository;
+import com.example.carapp.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Sok párhuzamos foglalás ugyanarra a néhány idősávra: minden idősávban pontosan
+ * annyi foglalás sikerülhet, ahány beálló van, és egy beállót sem kaphat meg két foglalás.
+ * Ugyanarra az autóra párhuzamosan is legfeljebb egy foglalás jöhet létre idősávonként,
+ * eltérő slot-hosszú centerek átfedő idősávjaiban is.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.auto_quote_keyword=true" // -> H2-ben a "year" oszlopnév foglalt szó
+})
+@Import(SlotBookingService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // -> a foglalások saját tranzakcióban futnak, több szálról
+class SlotBookingConcurrencyTest {
+
+    private static final int BAYS = 3;
+    private static final int SLOTS = 4;
+    private static final int REQUESTS = 400;
+    private static final int THREADS = 16;
+
+    @Autowired private SlotBookingService slots;
+    @Autowired private ServiceAppointmentRepository appointments;
+    @Autowired private ServiceCenterRepository centers;
+    @Autowired private CarRepository cars;
+    @Autowired private UserRepository users;
+
+    @AfterEach
+    void cleanup() {
+        appointments.deleteAll();
+        cars.deleteAll();
+        centers.deleteAll();
+        users.deleteAll();
+    }
+
+    @Test
+    void noDoubleBookingUnderParallelRequests() throws Exception {
+        ServiceCenter center = new ServiceCenter("Teszt Szerviz", "Budapest", "Fő utca 1.");
+        center.setSlotMinutes(30);
+        center.setBays(BAYS);
+        ServiceCenter saved = centers.save(center);
+
+        User owner = users.save(new User("Owner", "slot-owner@test.hu", "secret123"));
+        List<Car> fleet = new ArrayList<>();
+        for (int r = 0; r < REQUESTS; r++) fleet.add(new Car("Opel", "Astra", 2015, owner));
+        List<Car> owned = cars.saveAll(fleet); // -> kérésenként külön autó: csak a beállókért versenyeznek
+
+        LocalDateTime first = LocalDate.now().plusDays(1).atTime(8, 0);
+        List<LocalDateTime> starts = new ArrayList<>();
+        for (int i = 0; i < SLOTS; i++) starts.add(first.plusMinutes(30L * i));
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger full = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int r = 0; r < REQUESTS; r++) {
+            LocalDateTime start = starts.get(r % SLOTS);
+            Car car = owned.get(r);
+            futures.add(pool.submit(() -> {
+                go.await();
+                ServiceAppointment appt = new ServiceAppointment();
+                appt.setCar(car);
+                appt.setUser(owner);
+                appt.setDescription("Olajcsere");
+                if (slots.reserve(appt, saved, start) != null) booked.incrementAndGet();
+                else full.incrementAndGet();
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(SLOTS * BAYS, booked.get());
+        assertEquals(REQUESTS - SLOTS * BAYS, full.get());
+
+        for (LocalDateTime start : starts) {
+            List<Integer> bays = appointments.findTakenBays(saved.getId(), start);
+            assertEquals(BAYS, bays.size());
+            assertEquals(Set.of(1, 2, 3), new HashSet<>(bays)); // -> minden beálló pontosan egyszer
+        }
+
+        // lemondás után a hely újra foglalható, és az availability ezt mutatja
+        ServiceAppointment any = appointments.findAll().get(0);
+        slots.release(any);
+        appointments.save(any);
+        var day = slots.availability(saved, first.toLocalDate(), first.toLocalDate());
+        assertEquals(1, day.stream().filter(s -> s.getStart().equals(any.getSlotStart())).findFirst().orElseThrow().getFreeBays());
+        assertEquals(BAYS, day.get(SLOTS).getFreeBays()); // -> érintetlen idősáv
+    }
+
+    @Test
+    void sameCarCannotBeBookedTwiceIntoOneSlot() throws Exception {
+        ServiceCenter center = new ServiceCenter("Sok Beálló", "Pécs", "Rákóczi 3.");
+        center.setSlotMinutes(30);
+        center.setBays(8); // -> lenne szabad beálló: csak az autónkénti megszorítás állíthatja meg
+        ServiceCenter saved = centers.save(center);
+        User owner = users.save(new User("Owner", "same-car@test.hu", "secret123"));
+        Car car = cars.save(new Car("Skoda", "Octavia", 2019, owner));
+        LocalDateTime start = LocalDate.now().plusDays(1).atTime(9, 0);
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger carConflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int r = 0; r < 32; r++) {
+            futures.add(pool.submit(() -> {
+                go.await();
+                ServiceAppointment appt = new ServiceAppointment();
+                appt.setCar(car);
+                appt.setUser(owner);
+                appt.setDescription("Fékcsere");
+                try {
+                    assertNotNull(slots.reserve(appt, saved, start)); // -> nem "betelt" az idősáv
+                    booked.incrementAndGet();
+                } catch (SlotBookingService.CarAlreadyBookedException e) {
+                    carConflicts.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(1, booked.get());
+        assertEquals(31, carConflicts.get());
+        assertEquals(1, appointments.findTakenBays(saved.getId(), start).size()); // -> nem foglalt le több beállót
+
+        // lemondás után ugyanaz az autó újra foglalhat ebbe az idősávba
+        ServiceAppointment first = appointments.findAll().get(0);
+        slots.release(first);
+        appointments.save(first);
+        ServiceAppointment again = new ServiceAppointment();
+        again.setCar(car);
+        again.setUser(owner);
+        again.setDescription("Fékcsere");
+        assertNotNull(slots.reserve(again, saved, start));
+    }
+
+    @Test
+    void sameCarCannotOverlapAcrossCenters() throws Exception {
+        ServiceCenter hourly = new ServiceCenter("Órás", "Debrecen", "Piac 5.");
+        hourly.setSlotMinutes(60);
+        hourly.setBays(8);
+        ServiceCenter longSlots = centers.save(hourly);
+        ServiceCenter halfHourly = new ServiceCenter("Félórás", "Debrecen", "Piac 7.");
+        halfHourly.setSlotMinutes(30);
+        halfHourly.setBays(8);
+        ServiceCenter shortSlots = centers.save(halfHourly);
+        User owner = users.save(new User("Owner", "overlap@test.hu", "secret123"));
+        Car car = cars.save(new Car("Toyota", "Corolla", 2018, owner));
+        LocalDateTime ten = LocalDate.now().plusDays(1).atTime(10, 0);
+
+        // párhuzamosan 10:00/60 perc és 10:30/30 perc: más-más idősáv-kezdet, de átfednek
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger carConflicts = new AtomicInteger();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int r = 0; r < 32; r++) {
+            boolean first = r % 2 == 0;
+            futures.add(pool.submit(() -> {
+                go.await();
+                ServiceAppointment appt = new ServiceAppointment();
+                appt.setCar(car);
+                appt.setUser(owner);
+                appt.setDescription("Szerviz");
+                try {
+                    assertNotNull(first ? slots.reserve(appt, longSlots, ten) : slots.reserve(appt, shortSlots, ten.plusMinutes(30)));
+                    booked.incrementAndGet();
+                } catch (SlotBookingService.CarAlreadyBookedException e) {
+                    carConflicts.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        go.countDown();
+        for (Future<?> f : futures) f.get(60, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(1, booked.get());
+        assertEquals(31, carConflicts.get());
+
+        // a foglalás vége után kezdődő idősáv már szabad az autónak
+        ServiceAppointment held = appointments.findAll().stream().filter(a -> a.getBay() != null).findFirst().orElseThrow();
+        LocalDateTime after = held.getSlotStart().plusMinutes(held.getCenter().getSlotMinutes());
+        ServiceAppointment next = new ServiceAppointment();
+        next.setCar(car);
+        next.setUser(owner);
+        next.setDescription("Szerviz");
+        assertNotNull(slots.reserve(next, shortSlots, after));
+    }
+
+    @Test
+    void legacyRowBlocksNewBookingAfterBackfill() {
+        ServiceCenter center = new ServiceCenter("Régi Szerviz", "Szeged", "Tisza 4.");
+        center.setSlotMinutes(30);
+        center.setBays(1);
+        ServiceCenter saved = centers.save(center);
+        User owner = users.save(new User("Owner", "legacy@test.hu", "secret123"));
+        Car oldCar = cars.save(new Car("Lada", "Niva", 1990, owner));
+        Car newCar = cars.save(new Car("Dacia", "Duster", 2021, owner));
+        LocalDateTime slot = LocalDate.now().plusDays(1).atTime(10, 0);
+
+        // slot-modell előtti sor: csak serviceDateTime van, rácson kívüli perccel
+        ServiceAppointment legacy = new ServiceAppointment();
+        legacy.setCar(oldCar);
+        legacy.setUser(owner);
+        legacy.setCenter(saved);
+        legacy.setServiceDateTime(slot.plusMinutes(10));
+        legacy.setDescription("Vizsga");
+        legacy.setStatus(AppointmentStatus.CONFIRMED);
+        legacy = appointments.save(legacy);
+
+        slots.backfillLegacySlots();
+
+        ServiceAppointment filled = appointments.findById(legacy.getId()).orElseThrow();
+        assertEquals(slot, filled.getSlotStart()); // -> a tartalmazó idősáv
+        assertEquals(1, filled.getBay());
+        assertEquals(slot, filled.getActiveSlot());
+
+        ServiceAppointment appt = new ServiceAppointment();
+        appt.setCar(newCar);
+        appt.setUser(owner);
+        appt.setDescription("Olajcsere");
+        assertNull(slots.reserve(appt, saved, slot)); // -> az egyetlen beállót a régi sor foglalja
+    }
+
+    @Test
+    void slotMustFollowCenterGrid() {
+        ServiceCenter center = new ServiceCenter("Rács", "Győr", "Kossuth 2.");
+        center.setSlotMinutes(45);
+        LocalDate day = LocalDate.now().plusDays(1);
+
+        assertNull(slots.checkSlot(center, day.atTime(8, 45)));
+        assertNotNull(slots.checkSlot(center, day.atTime(9, 0)));   // -> nem esik a rácsra
+        assertNotNull(slots.checkSlot(center, day.atTime(7, 0)));   // -> nyitás előtt
+        assertNotNull(slots.checkSlot(center, day.atTime(17, 30))); // -> túlnyúlna a záráson
+    }
+}